@@ -0,0 +1,84 @@
+package ai.prophetizo.wavelet.demo.benchmark;
+
+import ai.prophetizo.wavelet.demo.model.Bar;
+import ai.prophetizo.wavelet.demo.model.BarReduction;
+import ai.prophetizo.wavelet.demo.model.ResampleType;
+import ai.prophetizo.wavelet.demo.model.Resampler;
+import ai.prophetizo.wavelet.demo.model.TickBuffer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the SIMD bar reduction of {@link BarReduction} with its scalar fallback and with the
+ * tick-by-tick loop of the {@link Resampler}, for TICK bars of several lengths. Scores are ns/tick.
+ * <p>
+ * The fork resolves {@code jdk.incubator.vector}; setup fails if the vector kernel is still not
+ * available, e.g. on a platform without SIMD registers. To compare AVX2 with AVX-512 on the same
+ * box, cap the vector width of the fork:
+ * <pre>
+ *   java -jar benchmarks/target/benchmarks.jar BarReductionBenchmark -jvmArgsAppend -XX:MaxVectorSize=32
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+@OperationsPerInvocation(BarReductionBenchmark.TICK_COUNT)
+public class BarReductionBenchmark {
+
+    static final int TICK_COUNT = 1_000_000;
+
+    @Param({"10", "100", "1000", "10000"})
+    public int barLength;
+
+    @Param({"CSV", "SYNTHETIC"})
+    public TickData.Source source;
+
+    private TickBuffer ticks;
+    private Resampler resampler;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        if (!BarReduction.isVectorized()) {
+            throw new IllegalStateException("The vector kernel is not available on this JVM.");
+        }
+        ticks = TickData.ticks(source, TICK_COUNT);
+        resampler = new Resampler(ResampleType.TICK, barLength);
+    }
+
+    @Benchmark
+    public List<Bar> resampler() {
+        return resampler.resampleBuffer(ticks);
+    }
+
+    @Benchmark
+    public void scalar(Blackhole blackhole) {
+        for (int from = 0; from < TICK_COUNT; from += barLength) {
+            blackhole.consume(BarReduction.reduceScalar(ticks, from, Math.min(from + barLength, TICK_COUNT)));
+        }
+    }
+
+    @Benchmark
+    public void vector(Blackhole blackhole) {
+        for (int from = 0; from < TICK_COUNT; from += barLength) {
+            blackhole.consume(BarReduction.reduce(ticks, from, Math.min(from + barLength, TICK_COUNT)));
+        }
+    }
+}
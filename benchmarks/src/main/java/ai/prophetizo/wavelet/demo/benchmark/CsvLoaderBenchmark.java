@@ -0,0 +1,152 @@
+package ai.prophetizo.wavelet.demo.benchmark;
+
+import ai.prophetizo.wavelet.demo.io.BinaryTickReader;
+import ai.prophetizo.wavelet.demo.io.CompressedTickReader;
+import ai.prophetizo.wavelet.demo.io.MappedTickCsvReader;
+import ai.prophetizo.wavelet.demo.io.ParallelTickCsvReader;
+import ai.prophetizo.wavelet.demo.io.TickStoreConverter;
+import ai.prophetizo.wavelet.demo.model.PriceScale;
+import ai.prophetizo.wavelet.demo.model.ResampleType;
+import ai.prophetizo.wavelet.demo.model.Resampler;
+import ai.prophetizo.wavelet.demo.model.TickBuffer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures rows per second for loading the bundled capture from disk, comparing the
+ * memory-mapped byte parser, the binary tick store and the compressed tick archive with a
+ * {@link BufferedReader} + {@code String.split} baseline. The buffer variants compare loading into a columnar buffer
+ * on one thread and with the {@link ParallelTickCsvReader} on the common pool.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@OperationsPerInvocation(StreamingResamplerBenchmark.TICK_COUNT)
+public class CsvLoaderBenchmark {
+
+    private Path file;
+    private Path store;
+    private Path archive;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        file = Files.createTempFile("ticks", ".csv");
+        try (InputStream in = CsvLoaderBenchmark.class.getResourceAsStream(TickData.BUNDLED_TICKS)) {
+            Files.copy(in, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+        store = Files.createTempFile("ticks", ".ticks");
+        TickStoreConverter.convert(file, store, "ES");
+        archive = Files.createTempFile("ticks", ".wtcz");
+        TickStoreConverter.compress(file, archive, "ES", new PriceScale(4));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+        Files.deleteIfExists(store);
+        Files.deleteIfExists(archive);
+    }
+
+    @Benchmark
+    public long bufferedReader(Blackhole blackhole) throws IOException {
+        long rows = 0;
+        try (BufferedReader reader = Files.newBufferedReader(file)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.split(",");
+                blackhole.consume(Long.parseLong(fields[0]));
+                blackhole.consume(fields[1].charAt(0));
+                blackhole.consume(Integer.parseInt(fields[2]));
+                blackhole.consume(Double.parseDouble(fields[3]));
+                rows++;
+            }
+        }
+        return rows;
+    }
+
+    @Benchmark
+    public long mapped(Blackhole blackhole) throws IOException {
+        return MappedTickCsvReader.read(file, (timestamp, price, volume, side) -> {
+            blackhole.consume(timestamp);
+            blackhole.consume(side);
+            blackhole.consume(volume);
+            blackhole.consume(price);
+        });
+    }
+
+    @Benchmark
+    public long binaryStore(Blackhole blackhole) throws IOException {
+        try (BinaryTickReader reader = BinaryTickReader.open(store)) {
+            return reader.streamAll((timestamp, price, volume, side) -> {
+                blackhole.consume(timestamp);
+                blackhole.consume(side);
+                blackhole.consume(volume);
+                blackhole.consume(price);
+            });
+        }
+    }
+
+    @Benchmark
+    public long compressedStore(Blackhole blackhole) throws IOException {
+        try (CompressedTickReader reader = CompressedTickReader.open(archive)) {
+            return reader.streamAll((timestamp, price, volume, side) -> {
+                blackhole.consume(timestamp);
+                blackhole.consume(side);
+                blackhole.consume(volume);
+                blackhole.consume(price);
+            });
+        }
+    }
+
+    @Benchmark
+    public long compressedIntoResampler(Blackhole blackhole) throws IOException {
+        Resampler resampler = new Resampler(ResampleType.VOLUME, 1_000, blackhole::consume);
+        long rows;
+        try (CompressedTickReader reader = CompressedTickReader.open(archive)) {
+            rows = reader.streamAll(resampler);
+        }
+        resampler.flush();
+        return rows;
+    }
+
+    @Benchmark
+    public TickBuffer mappedBuffer() throws IOException {
+        return MappedTickCsvReader.readBuffer(file);
+    }
+
+    @Benchmark
+    public TickBuffer parallelBuffer() throws IOException {
+        return ParallelTickCsvReader.readBuffer(file);
+    }
+
+    @Benchmark
+    public long mappedIntoResampler(Blackhole blackhole) throws IOException {
+        Resampler resampler = new Resampler(ResampleType.VOLUME, 1_000, blackhole::consume);
+        long rows = MappedTickCsvReader.read(file, (timestamp, price, volume, side) -> resampler.onTick(timestamp, price, volume));
+        resampler.flush();
+        return rows;
+    }
+}
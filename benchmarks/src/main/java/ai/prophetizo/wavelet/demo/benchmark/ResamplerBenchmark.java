@@ -0,0 +1,100 @@
+package ai.prophetizo.wavelet.demo.benchmark;
+
+import ai.prophetizo.wavelet.demo.model.Bar;
+import ai.prophetizo.wavelet.demo.model.ResampleType;
+import ai.prophetizo.wavelet.demo.model.Resampler;
+import ai.prophetizo.wavelet.demo.model.TickBuffer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Baseline suite for the {@link Resampler}, covering every {@link ResampleType} over the bundled
+ * capture and synthetic ticks, for several input sizes and bar sizes.
+ * <p>
+ * {@link #onTick()} pushes one tick per operation, cycling through the input, so its score is
+ * ns/tick and {@code gc.alloc.rate.norm} under {@code -prof gc} is bytes/tick. {@link #resample()}
+ * measures a whole batch call; divide its score by {@code tickCount} for ns/tick. For example:
+ * <pre>
+ *   java -jar benchmarks/target/benchmarks.jar ResamplerBenchmark -prof gc -p type=TICK,DOLLAR
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResamplerBenchmark {
+
+    @Param({"TIME", "TICK", "VOLUME", "DOLLAR", "TICK_IMBALANCE", "VOLUME_IMBALANCE", "DOLLAR_IMBALANCE",
+            "TICK_RUNS", "VOLUME_RUNS", "DOLLAR_RUNS", "RANGE", "RENKO"})
+    public ResampleType type;
+
+    @Param({"CSV", "SYNTHETIC"})
+    public TickData.Source source;
+
+    @Param({"100000", "1000000"})
+    public int tickCount;
+
+    /**
+     * Multiplies the per-type base threshold (1s, 100 ticks, 100 lots or $600k per bar; 100 ticks
+     * for the first imbalance or runs bar; a range or brick of one unit of price).
+     */
+    @Param({"1", "100"})
+    public long thresholdScale;
+
+    private TickBuffer ticks;
+    private Resampler resampler;
+    private long[] timestamps;
+    private double[] prices;
+    private int[] volumes;
+    private byte[] sides;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp(Blackhole blackhole) {
+        ticks = TickData.ticks(source, tickCount);
+        timestamps = ticks.timestamps();
+        prices = ticks.prices();
+        volumes = ticks.volumes();
+        sides = ticks.sides();
+        long threshold = thresholdScale * switch (type) {
+            case TIME -> 1_000L;
+            case DOLLAR -> 600_000L;
+            case RANGE, RENKO -> 1L;
+            default -> 100L;
+        };
+        resampler = new Resampler(type, threshold, blackhole::consume);
+    }
+
+    @Benchmark
+    public void onTick() {
+        int i = next;
+        resampler.onTick(timestamps[i], prices[i], volumes[i], sides[i]);
+        if (++i == tickCount) {
+            // Timestamps restart at the beginning of the input, so the open bar must not span the wrap
+            resampler.flush();
+            i = 0;
+        }
+        next = i;
+    }
+
+    @Benchmark
+    public List<Bar> resample() {
+        return resampler.resampleBuffer(ticks);
+    }
+}
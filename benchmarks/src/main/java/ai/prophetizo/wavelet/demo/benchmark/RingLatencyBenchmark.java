@@ -0,0 +1,120 @@
+package ai.prophetizo.wavelet.demo.benchmark;
+
+import ai.prophetizo.wavelet.demo.model.Bar;
+import ai.prophetizo.wavelet.demo.model.ResampleType;
+import ai.prophetizo.wavelet.demo.model.Resampler;
+import ai.prophetizo.wavelet.demo.model.TickRing;
+import ai.prophetizo.wavelet.demo.model.WaitStrategy;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Measures the tick-to-bar-close latency of a feed thread publishing into a {@link TickRing} that
+ * a second thread drains into a streaming {@link Resampler}: the time from publishing the tick
+ * that completes a bar to the bar reaching the bar listener. Latency is not a throughput figure,
+ * so this is a plain program rather than a JMH benchmark. The feed is paced at a fixed rate,
+ * every bar of TICK bars of 100 ticks is one sample, and the percentiles and a log2 histogram of
+ * the samples are printed per wait strategy:
+ * <pre>
+ *   java -cp benchmarks/target/benchmarks.jar ai.prophetizo.wavelet.demo.benchmark.RingLatencyBenchmark \
+ *       [ticksPerSecond=1000000] [ticks=20000000] [strategies=BUSY_SPIN,YIELD,PARK]
+ * </pre>
+ * BUSY_SPIN needs a core for each thread; pin them (e.g. with taskset) on an otherwise idle box.
+ */
+public class RingLatencyBenchmark {
+
+    private static final int BAR_TICKS = 100;
+    private static final int RING_CAPACITY = 1 << 16;
+    private static final int DRAIN_BATCH = 1024;
+
+    public static void main(String[] args) throws InterruptedException {
+        long ticksPerSecond = args.length > 0 ? Long.parseLong(args[0]) : 1_000_000L;
+        int ticks = args.length > 1 ? Integer.parseInt(args[1]) : 20_000_000;
+        String strategies = args.length > 2 ? args[2] : "BUSY_SPIN,YIELD,PARK";
+
+        for (String strategy : strategies.split(",")) {
+            WaitStrategy waitStrategy = WaitStrategy.valueOf(strategy.trim());
+            // The first run warms up the JIT and is not reported
+            run(waitStrategy, ticksPerSecond, ticks / 10);
+            long[] latencies = run(waitStrategy, ticksPerSecond, ticks);
+            report(waitStrategy, ticksPerSecond, latencies);
+        }
+    }
+
+    /**
+     * Runs one feed through a ring and returns the latency of every bar in nanoseconds.
+     */
+    private static long[] run(WaitStrategy waitStrategy, long ticksPerSecond, int ticks) throws InterruptedException {
+        TickRing ring = new TickRing(RING_CAPACITY, waitStrategy);
+        long[] latencies = new long[ticks / BAR_TICKS];
+        Recorder recorder = new Recorder(latencies);
+        // The tick timestamps carry the nanoTime of publication, which TICK bars report as their close timestamp
+        Resampler resampler = new Resampler(ResampleType.TICK, BAR_TICKS, recorder);
+
+        Thread consumer = new Thread(() -> {
+            while (ring.take(resampler, DRAIN_BATCH) >= 0) {
+                // Bars are recorded by the listener
+            }
+        }, "ring-consumer");
+        consumer.start();
+
+        long interval = 1_000_000_000L / ticksPerSecond;
+        long due = System.nanoTime();
+        for (int i = 0; i < ticks; i++) {
+            due += interval;
+            long now;
+            while ((now = System.nanoTime()) < due) {
+                Thread.onSpinWait();
+            }
+            ring.onTick(now, 100.0 + (i & 7) * 0.25, 1, (byte) ((i & 1) * 2 - 1));
+        }
+        ring.close();
+        consumer.join();
+        return Arrays.copyOf(latencies, recorder.count);
+    }
+
+    private static void report(WaitStrategy waitStrategy, long ticksPerSecond, long[] latencies) {
+        Arrays.sort(latencies);
+        System.out.printf("%s at %,d ticks/s, %,d bars%n", waitStrategy, ticksPerSecond, latencies.length);
+        for (String percentile : new String[]{"50", "90", "99", "99.9", "99.99"}) {
+            int index = index(latencies.length, Double.parseDouble(percentile));
+            System.out.printf("  p%-6s %,10d ns%n", percentile, latencies[index]);
+        }
+        System.out.printf("  max     %,10d ns%n", latencies[latencies.length - 1]);
+
+        int[] buckets = new int[64];
+        for (long latency : latencies) {
+            buckets[63 - Long.numberOfLeadingZeros(Math.max(latency, 1))]++;
+        }
+        for (int bucket = 0; bucket < buckets.length; bucket++) {
+            if (buckets[bucket] > 0) {
+                System.out.printf("  [%,d, %,d) ns: %,d%n", 1L << bucket, 1L << (bucket + 1), buckets[bucket]);
+            }
+        }
+    }
+
+    private static int index(int count, double percentile) {
+        return (int) Math.min(count - 1, Math.ceil(count * percentile / 100) - 1);
+    }
+
+    /**
+     * Records the latency of every bar into a preallocated array.
+     */
+    private static final class Recorder implements Consumer<Bar> {
+        private final long[] latencies;
+        private int count;
+
+        Recorder(long[] latencies) {
+            this.latencies = latencies;
+        }
+
+        @Override
+        public void accept(Bar bar) {
+            long latency = System.nanoTime() - bar.closeTimestamp();
+            if (count < latencies.length) {
+                latencies[count++] = latency;
+            }
+        }
+    }
+}
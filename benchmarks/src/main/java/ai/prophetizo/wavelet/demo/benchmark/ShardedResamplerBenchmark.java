@@ -0,0 +1,91 @@
+package ai.prophetizo.wavelet.demo.benchmark;
+
+import ai.prophetizo.wavelet.demo.model.ResampleType;
+import ai.prophetizo.wavelet.demo.model.ShardedResampler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the aggregate throughput of the {@link ShardedResampler} for a feed of many symbols,
+ * from the first tick to the last bar delivered by {@code close()}. Scores are ns/tick across
+ * all symbols, so 100 ns/tick is 10M ticks/s; compare shard counts up to the number of cores:
+ * <pre>
+ *   java -jar benchmarks/target/benchmarks.jar ShardedResamplerBenchmark -p symbols=5000
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@OperationsPerInvocation(ShardedResamplerBenchmark.TICK_COUNT)
+public class ShardedResamplerBenchmark {
+
+    static final int TICK_COUNT = 2_000_000;
+
+    @Param({"1", "2", "4", "8"})
+    public int shards;
+
+    @Param({"100", "5000"})
+    public int symbols;
+
+    @Param({"TIME", "VOLUME"})
+    public ResampleType type;
+
+    private long[] symbolIds;
+    private long[] timestamps;
+    private double[] prices;
+    private int[] volumes;
+    private byte[] sides;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        symbolIds = new long[TICK_COUNT];
+        timestamps = new long[TICK_COUNT];
+        prices = new double[TICK_COUNT];
+        volumes = new int[TICK_COUNT];
+        sides = new byte[TICK_COUNT];
+        double[] lastPrices = new double[symbols];
+        Arrays.fill(lastPrices, 100.0);
+        long timestamp = 1_734_964_200_000L;
+        for (int i = 0; i < TICK_COUNT; i++) {
+            int symbol = random.nextInt(symbols);
+            timestamp += random.nextInt(2);
+            lastPrices[symbol] += (random.nextInt(3) - 1) * 0.25;
+            symbolIds[i] = symbol;
+            timestamps[i] = timestamp;
+            prices[i] = lastPrices[symbol];
+            volumes[i] = 1 + random.nextInt(10);
+            sides[i] = random.nextBoolean() ? (byte) 1 : (byte) -1;
+        }
+    }
+
+    @Benchmark
+    public void resample(Blackhole blackhole) {
+        long threshold = type == ResampleType.TIME ? 1_000L : 100L;
+        try (ShardedResampler engine = new ShardedResampler(type, threshold, shards,
+                (symbol, bar) -> blackhole.consume(bar))) {
+            for (int i = 0; i < TICK_COUNT; i++) {
+                engine.onTick(symbolIds[i], timestamps[i], prices[i], volumes[i], sides[i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package ai.prophetizo.wavelet.demo.benchmark;
+
+import ai.prophetizo.wavelet.demo.model.Bar;
+import ai.prophetizo.wavelet.demo.model.BarSink;
+import ai.prophetizo.wavelet.demo.model.PriceScale;
+import ai.prophetizo.wavelet.demo.model.ResampleType;
+import ai.prophetizo.wavelet.demo.model.Resampler;
+import ai.prophetizo.wavelet.demo.model.Tick;
+import ai.prophetizo.wavelet.demo.model.TickBuffer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the original list-based resampler with the streaming engine on the bundled capture,
+ * and the streaming engine with its fixed-point mode fed with price ticks. The sink and
+ * reusable-list variants show what is left once neither a list nor, for the sink, a Bar is
+ * allocated per resampling.
+ * <p>
+ * Run with {@code -prof gc}: {@code gc.alloc.rate.norm} is reported per tick, so the streaming
+ * variants should only show the amortized cost of the closed bars, while the legacy variant pays
+ * for one Bar per tick.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@OperationsPerInvocation(StreamingResamplerBenchmark.TICK_COUNT)
+public class StreamingResamplerBenchmark {
+
+    /**
+     * Number of rows in the bundled capture, used to normalize results per tick.
+     */
+    static final int TICK_COUNT = 239_216;
+
+    @Param({"TIME", "TICK", "VOLUME", "DOLLAR"})
+    public ResampleType type;
+
+    private List<Tick> ticks;
+    private TickBuffer columnarTicks;
+    private long threshold;
+    private LegacyResampler legacy;
+    private Resampler streaming;
+    private long[] priceTicks;
+    private Resampler fixedPoint;
+    private BarSink sink;
+    private List<Bar> reusableBars;
+
+    @Setup(Level.Trial)
+    public void setUp(Blackhole blackhole) {
+        ticks = TickData.bundledTicks();
+        if (ticks.size() != TICK_COUNT) {
+            throw new IllegalStateException("Expected " + TICK_COUNT + " ticks but read " + ticks.size());
+        }
+        columnarTicks = TickBuffer.of(ticks);
+        threshold = switch (type) {
+            case TIME -> 60_000L;
+            case DOLLAR -> 6_000_000L;
+            default -> 1_000L;
+        };
+        legacy = new LegacyResampler(type, threshold);
+        streaming = new Resampler(type, threshold, blackhole::consume);
+        PriceScale scale = PriceScale.ofIncrement(0.25);
+        priceTicks = new long[columnarTicks.size()];
+        for (int i = 0; i < priceTicks.length; i++) {
+            priceTicks[i] = scale.toTicks(columnarTicks.price(i));
+        }
+        fixedPoint = Resampler.builder(type, threshold).fixedPoint(scale).onBar(blackhole::consume).build();
+        sink = (openTimestamp, open, high, low, close, volume) -> {
+            blackhole.consume(openTimestamp);
+            blackhole.consume(close);
+            blackhole.consume(volume);
+        };
+        reusableBars = new ArrayList<>();
+    }
+
+    @Benchmark
+    public List<Bar> legacyResample() {
+        return legacy.resample(ticks);
+    }
+
+    @Benchmark
+    public List<Bar> batchResample() {
+        return streaming.resample(ticks);
+    }
+
+    @Benchmark
+    public List<Bar> columnarResample() {
+        return streaming.resampleBuffer(columnarTicks);
+    }
+
+    @Benchmark
+    public void sinkResample() {
+        streaming.resampleBuffer(columnarTicks, 0, columnarTicks.size(), sink);
+    }
+
+    @Benchmark
+    public List<Bar> resampleInto() {
+        return streaming.resampleBufferInto(columnarTicks, reusableBars);
+    }
+
+    @Benchmark
+    public void streamingOnTick() {
+        Resampler resampler = streaming;
+        List<Tick> input = ticks;
+        for (int i = 0, n = input.size(); i < n; i++) {
+            Tick tick = input.get(i);
+            resampler.onTick(tick.timestamp(), tick.price(), tick.volume());
+        }
+        resampler.flush();
+    }
+
+    @Benchmark
+    public void fixedPointOnTick() {
+        Resampler resampler = fixedPoint;
+        long[] timestamps = columnarTicks.timestamps();
+        int[] volumes = columnarTicks.volumes();
+        byte[] sides = columnarTicks.sides();
+        for (int i = 0; i < priceTicks.length; i++) {
+            resampler.onPriceTicks(timestamps[i], priceTicks[i], volumes[i], sides[i]);
+        }
+        resampler.flush();
+    }
+}
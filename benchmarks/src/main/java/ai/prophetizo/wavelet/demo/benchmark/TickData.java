@@ -0,0 +1,119 @@
+package ai.prophetizo.wavelet.demo.benchmark;
+
+import ai.prophetizo.wavelet.demo.model.Side;
+import ai.prophetizo.wavelet.demo.model.Tick;
+import ai.prophetizo.wavelet.demo.model.TickBuffer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Supplies benchmark input: the bundled tick capture, or synthetic ticks of any length.
+ */
+public final class TickData {
+
+    /**
+     * Classpath location of the bundled ES capture (timestamp,side,size,price).
+     */
+    public static final String BUNDLED_TICKS = "/ticks_1734964200000L.csv";
+
+    /**
+     * Where benchmark ticks come from.
+     */
+    public enum Source {
+        /**
+         * The bundled capture, repeated back to back (timestamps shifted) to reach the requested count.
+         */
+        CSV,
+        /**
+         * A seeded random walk on a 0.25 tick grid with ES-like volumes and inter-arrival times.
+         */
+        SYNTHETIC
+    }
+
+    private static final double TICK_SIZE = 0.25;
+
+    private TickData() {
+    }
+
+    /**
+     * Builds a columnar buffer of exactly {@code count} ticks from a source.
+     */
+    public static TickBuffer ticks(Source source, int count) {
+        return switch (source) {
+            case CSV -> repeated(bundledTicks(), count);
+            case SYNTHETIC -> synthetic(count, 42L);
+        };
+    }
+
+    /**
+     * Generates a random-walk tick stream. The same seed always yields the same ticks.
+     *
+     * @param count The number of ticks.
+     * @param seed  The random seed.
+     */
+    public static TickBuffer synthetic(int count, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        TickBuffer buffer = TickBuffer.fixed(count);
+        long timestamp = 1_734_964_200_000L;
+        long priceTicks = 24_000;
+        for (int i = 0; i < count; i++) {
+            // Mostly same-millisecond bursts with occasional gaps, as in the bundled capture
+            int gap = random.nextInt(100);
+            timestamp += gap < 60 ? 0 : gap < 95 ? random.nextInt(1, 50) : random.nextInt(50, 2_000);
+            int move = random.nextInt(10);
+            priceTicks += move == 0 ? -1 : move == 9 ? 1 : 0;
+            // Geometric volumes: mostly single lots with a long tail
+            int volume = 1;
+            while (volume < 500 && random.nextInt(3) == 0) {
+                volume <<= 1;
+            }
+            Side side = random.nextBoolean() ? Side.ASK : Side.BID;
+            buffer.add(timestamp, priceTicks * TICK_SIZE, volume, side.code());
+        }
+        return buffer;
+    }
+
+    /**
+     * Concatenates copies of a capture, shifting each copy's timestamps past the previous one.
+     */
+    private static TickBuffer repeated(List<Tick> ticks, int count) {
+        TickBuffer buffer = TickBuffer.fixed(count);
+        long span = ticks.getLast().timestamp() - ticks.getFirst().timestamp() + 1;
+        for (int i = 0; i < count; i++) {
+            Tick tick = ticks.get(i % ticks.size());
+            long shift = (i / ticks.size()) * span;
+            buffer.add(tick.timestamp() + shift, tick.price(), tick.volume(), tick.side().code());
+        }
+        return buffer;
+    }
+
+    /**
+     * Reads the bundled capture into a list of ticks.
+     */
+    public static List<Tick> bundledTicks() {
+        try (InputStream in = TickData.class.getResourceAsStream(BUNDLED_TICKS)) {
+            if (in == null) {
+                throw new IllegalStateException("Missing resource " + BUNDLED_TICKS);
+            }
+            BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.US_ASCII));
+            List<Tick> ticks = new ArrayList<>();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.split(",");
+                ticks.add(new Tick(Long.parseLong(fields[0]), Double.parseDouble(fields[3]), Integer.parseInt(fields[2]),
+                        Side.valueOf(fields[1])));
+            }
+            return ticks;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package ai.prophetizo.wavelet.demo.io;
+
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteOrder;
+
+/**
+ * Layout constants of the binary tick store written by {@link BinaryTickWriter} and read by
+ * {@link BinaryTickReader}. All values are little-endian.
+ * <pre>
+ * offset  size  field
+ *      0     4  magic "WTCK"
+ *      4     2  format version
+ *      6     2  record size in bytes
+ *      8    16  symbol, US-ASCII, zero padded
+ *     24     8  record count
+ *     32     8  timestamp of the first record
+ *     40     8  timestamp of the last record
+ *     48     8  offset of the sparse timestamp index
+ *     56     4  index interval (records per index entry)
+ *     60     4  reserved
+ *     64     .  records: timestamp (8), price (8), volume (4), side (1), padding (3)
+ *      .     .  index: timestamp of every index-interval-th record (8 each)
+ * </pre>
+ */
+final class BinaryTickFormat {
+
+    static final int MAGIC = 0x4B435457; // "WTCK" read as a little-endian int
+    static final short VERSION = 1;
+
+    static final int HEADER_SIZE = 64;
+    static final int SYMBOL_BYTES = 16;
+    static final int RECORD_SIZE = 24;
+    static final int DEFAULT_INDEX_INTERVAL = 4096;
+
+    // Header field offsets
+    static final int MAGIC_OFFSET = 0;
+    static final int VERSION_OFFSET = 4;
+    static final int RECORD_SIZE_OFFSET = 6;
+    static final int SYMBOL_OFFSET = 8;
+    static final int COUNT_OFFSET = 24;
+    static final int START_OFFSET = 32;
+    static final int END_OFFSET = 40;
+    static final int INDEX_OFFSET_OFFSET = 48;
+    static final int INDEX_INTERVAL_OFFSET = 56;
+
+    // Record field offsets
+    static final int TIMESTAMP_FIELD = 0;
+    static final int PRICE_FIELD = 8;
+    static final int VOLUME_FIELD = 16;
+    static final int SIDE_FIELD = 20;
+
+    static final ValueLayout.OfLong LONG = ValueLayout.JAVA_LONG_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+    static final ValueLayout.OfDouble DOUBLE = ValueLayout.JAVA_DOUBLE_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+    static final ValueLayout.OfInt INT = ValueLayout.JAVA_INT_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+    static final ValueLayout.OfShort SHORT = ValueLayout.JAVA_SHORT_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+    static final ValueLayout.OfByte BYTE = ValueLayout.JAVA_BYTE;
+
+    private BinaryTickFormat() {
+    }
+}
@@ -0,0 +1,213 @@
+package ai.prophetizo.wavelet.demo.io;
+
+import ai.prophetizo.wavelet.demo.model.Side;
+import ai.prophetizo.wavelet.demo.model.Tick;
+import ai.prophetizo.wavelet.demo.model.TickSink;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+
+import static ai.prophetizo.wavelet.demo.io.BinaryTickFormat.*;
+
+/**
+ * Reads a binary tick store written by {@link BinaryTickWriter}.
+ * <p>
+ * The whole file is memory-mapped, so opening a store costs no parsing and records are
+ * read at page-cache speed. {@link #seek(long)} locates the first tick at or after a
+ * timestamp in O(log n): a binary search over the sparse index picks the block, and a
+ * second binary search over the fixed-width records of that block finds the tick.
+ * The mapping is released by {@link #close()}; a reader must only be used by the thread
+ * that opened it.
+ */
+public final class BinaryTickReader implements AutoCloseable {
+
+    private final Arena arena;
+    private final MemorySegment data;
+    private final String symbol;
+    private final long count;
+    private final long startTimestamp;
+    private final long endTimestamp;
+    private final long indexOffset;
+    private final int indexInterval;
+    private final long indexSize;
+
+    private BinaryTickReader(Arena arena, MemorySegment data) {
+        this.arena = arena;
+        this.data = data;
+        if (data.byteSize() < HEADER_SIZE || data.get(INT, MAGIC_OFFSET) != MAGIC) {
+            throw new IllegalArgumentException("Not a binary tick store.");
+        }
+        short version = data.get(SHORT, VERSION_OFFSET);
+        if (version != VERSION || data.get(SHORT, RECORD_SIZE_OFFSET) != RECORD_SIZE) {
+            throw new IllegalArgumentException("Unsupported binary tick store version " + version + ".");
+        }
+        byte[] symbolBytes = data.asSlice(SYMBOL_OFFSET, SYMBOL_BYTES).toArray(BYTE);
+        int symbolLength = 0;
+        while (symbolLength < SYMBOL_BYTES && symbolBytes[symbolLength] != 0) {
+            symbolLength++;
+        }
+        this.symbol = new String(symbolBytes, 0, symbolLength, StandardCharsets.US_ASCII);
+        this.count = data.get(LONG, COUNT_OFFSET);
+        this.startTimestamp = data.get(LONG, START_OFFSET);
+        this.endTimestamp = data.get(LONG, END_OFFSET);
+        this.indexOffset = data.get(LONG, INDEX_OFFSET_OFFSET);
+        this.indexInterval = data.get(INT, INDEX_INTERVAL_OFFSET);
+        if (count < 0 || indexInterval <= 0) {
+            throw new IllegalArgumentException("Corrupt binary tick store header.");
+        }
+        this.indexSize = (count + indexInterval - 1) / indexInterval;
+        if (indexOffset != HEADER_SIZE + count * RECORD_SIZE || indexOffset + indexSize * Long.BYTES > data.byteSize()) {
+            throw new IllegalArgumentException("Truncated binary tick store.");
+        }
+    }
+
+    /**
+     * Opens and memory-maps a tick store.
+     *
+     * @param file The file written by a {@link BinaryTickWriter}.
+     * @return An open reader.
+     * @throws IOException              if the file cannot be mapped.
+     * @throws IllegalArgumentException if the file is not a supported tick store.
+     */
+    public static BinaryTickReader open(Path file) throws IOException {
+        Arena arena = Arena.ofConfined();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return new BinaryTickReader(arena, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size(), arena));
+        } catch (IOException | RuntimeException e) {
+            arena.close();
+            throw e;
+        }
+    }
+
+    public String symbol() {
+        return symbol;
+    }
+
+    public long count() {
+        return count;
+    }
+
+    public long startTimestamp() {
+        return startTimestamp;
+    }
+
+    public long endTimestamp() {
+        return endTimestamp;
+    }
+
+    public long timestamp(long index) {
+        return data.get(LONG, recordOffset(Objects.checkIndex(index, count)) + TIMESTAMP_FIELD);
+    }
+
+    public double price(long index) {
+        return data.get(DOUBLE, recordOffset(Objects.checkIndex(index, count)) + PRICE_FIELD);
+    }
+
+    public int volume(long index) {
+        return data.get(INT, recordOffset(Objects.checkIndex(index, count)) + VOLUME_FIELD);
+    }
+
+    public byte side(long index) {
+        return data.get(BYTE, recordOffset(Objects.checkIndex(index, count)) + SIDE_FIELD);
+    }
+
+    /**
+     * Materializes the tick at an index as a record.
+     */
+    public Tick get(long index) {
+        return new Tick(timestamp(index), price(index), volume(index), Side.fromCode(side(index)));
+    }
+
+    /**
+     * Finds the first tick whose timestamp is at or after the given timestamp.
+     *
+     * @param timestamp The timestamp to seek to.
+     * @return The index of that tick, or {@link #count()} if every tick is older.
+     */
+    public long seek(long timestamp) {
+        // Last index block whose first timestamp is strictly before the target
+        long low = 0;
+        long high = indexSize - 1;
+        long block = -1;
+        while (low <= high) {
+            long mid = (low + high) >>> 1;
+            if (data.get(LONG, indexOffset + mid * Long.BYTES) < timestamp) {
+                block = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        if (block < 0) {
+            return 0;
+        }
+
+        // Within that block, the first record at or after the target
+        low = block * indexInterval;
+        high = Math.min(low + indexInterval, count);
+        while (low < high) {
+            long mid = (low + high) >>> 1;
+            if (data.get(LONG, recordOffset(mid)) < timestamp) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Streams the ticks in {@code [from, to)} into a sink.
+     *
+     * @return The number of ticks streamed.
+     * @throws IndexOutOfBoundsException if the range is not within the store.
+     */
+    public long stream(long from, long to, TickSink sink) {
+        Objects.checkFromToIndex(from, to, count);
+        for (long offset = recordOffset(from), end = recordOffset(to); offset < end; offset += RECORD_SIZE) {
+            sink.onTick(data.get(LONG, offset + TIMESTAMP_FIELD),
+                    data.get(DOUBLE, offset + PRICE_FIELD),
+                    data.get(INT, offset + VOLUME_FIELD),
+                    data.get(BYTE, offset + SIDE_FIELD));
+        }
+        return to - from;
+    }
+
+    /**
+     * Streams every tick with {@code fromTimestamp <= timestamp < toTimestamp} into a sink.
+     *
+     * @return The number of ticks streamed.
+     */
+    public long streamBetween(long fromTimestamp, long toTimestamp, TickSink sink) {
+        long from = seek(fromTimestamp);
+        long to = Math.max(from, seek(toTimestamp));
+        return stream(from, to, sink);
+    }
+
+    /**
+     * Streams every tick of the store into a sink.
+     *
+     * @return The number of ticks streamed.
+     */
+    public long streamAll(TickSink sink) {
+        return stream(0, count, sink);
+    }
+
+    private long recordOffset(long index) {
+        return HEADER_SIZE + index * RECORD_SIZE;
+    }
+
+    /**
+     * Unmaps the file. Ticks must not be read after closing.
+     */
+    @Override
+    public void close() {
+        arena.close();
+    }
+}
@@ -0,0 +1,153 @@
+package ai.prophetizo.wavelet.demo.io;
+
+import ai.prophetizo.wavelet.demo.model.TickSink;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import static ai.prophetizo.wavelet.demo.io.BinaryTickFormat.*;
+
+/**
+ * Writes ticks into the fixed-width binary tick store described by {@link BinaryTickFormat}.
+ * <p>
+ * Records are appended through {@link #onTick}, so the writer can be fed directly by a
+ * loader such as {@link MappedTickCsvReader}. The header and the sparse timestamp index are
+ * written when the writer is closed. Ticks must be appended in chronological order, which is
+ * what makes timestamp seeks possible. A BinaryTickWriter is not thread-safe.
+ */
+public final class BinaryTickWriter implements TickSink, AutoCloseable {
+
+    private static final int BUFFER_RECORDS = 4096;
+
+    private final FileChannel channel;
+    private final String symbol;
+    private final int indexInterval;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_RECORDS * RECORD_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+
+    private long[] index = new long[64];
+    private int indexSize;
+    private long count;
+    private long startTimestamp;
+    private long endTimestamp;
+    private boolean closed;
+
+    /**
+     * Creates (or truncates) a tick store file.
+     *
+     * @param file   The file to write.
+     * @param symbol The instrument symbol recorded in the header, at most 16 ASCII characters.
+     * @throws IOException if the file cannot be created.
+     */
+    public BinaryTickWriter(Path file, String symbol) throws IOException {
+        this(file, symbol, DEFAULT_INDEX_INTERVAL);
+    }
+
+    /**
+     * Creates (or truncates) a tick store file.
+     *
+     * @param file          The file to write.
+     * @param symbol        The instrument symbol recorded in the header, at most 16 ASCII characters.
+     * @param indexInterval The number of records between two sparse index entries.
+     * @throws IOException if the file cannot be created.
+     */
+    public BinaryTickWriter(Path file, String symbol, int indexInterval) throws IOException {
+        if (symbol.getBytes(StandardCharsets.US_ASCII).length > SYMBOL_BYTES) {
+            throw new IllegalArgumentException("Symbol must be at most " + SYMBOL_BYTES + " characters.");
+        }
+        if (indexInterval <= 0) {
+            throw new IllegalArgumentException("Index interval must be positive.");
+        }
+        this.symbol = symbol;
+        this.indexInterval = indexInterval;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        this.channel.position(HEADER_SIZE);
+    }
+
+    /**
+     * Appends a tick.
+     *
+     * @throws IllegalArgumentException if the tick is older than the previous one.
+     * @throws UncheckedIOException     if the tick cannot be written.
+     */
+    @Override
+    public void onTick(long timestamp, double price, int volume, byte side) {
+        if (count == 0) {
+            startTimestamp = timestamp;
+        } else if (timestamp < endTimestamp) {
+            throw new IllegalArgumentException("Ticks must be chronological: " + timestamp + " after " + endTimestamp);
+        }
+        if (count % indexInterval == 0) {
+            if (indexSize == index.length) {
+                index = Arrays.copyOf(index, indexSize * 2);
+            }
+            index[indexSize++] = timestamp;
+        }
+        if (!buffer.hasRemaining()) {
+            flushBuffer();
+        }
+        buffer.putLong(timestamp).putDouble(price).putInt(volume).put(side).put((byte) 0).putShort((short) 0);
+        endTimestamp = timestamp;
+        count++;
+    }
+
+    /**
+     * @return The number of ticks written so far.
+     */
+    public long count() {
+        return count;
+    }
+
+    /**
+     * Writes the sparse index and the header, and closes the file.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try (channel) {
+            flushBuffer();
+            long indexOffset = channel.position();
+            ByteBuffer indexBytes = ByteBuffer.allocate(indexSize * Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            indexBytes.asLongBuffer().put(index, 0, indexSize);
+            writeFully(indexBytes);
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC_OFFSET, MAGIC)
+                    .putShort(VERSION_OFFSET, VERSION)
+                    .putShort(RECORD_SIZE_OFFSET, (short) RECORD_SIZE)
+                    .put(SYMBOL_OFFSET, symbol.getBytes(StandardCharsets.US_ASCII))
+                    .putLong(COUNT_OFFSET, count)
+                    .putLong(START_OFFSET, startTimestamp)
+                    .putLong(END_OFFSET, endTimestamp)
+                    .putLong(INDEX_OFFSET_OFFSET, indexOffset)
+                    .putInt(INDEX_INTERVAL_OFFSET, indexInterval);
+            channel.position(0);
+            writeFully(header);
+        }
+    }
+
+    private void flushBuffer() {
+        buffer.flip();
+        try {
+            writeFully(buffer);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        buffer.clear();
+    }
+
+    private void writeFully(ByteBuffer bytes) throws IOException {
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+    }
+}
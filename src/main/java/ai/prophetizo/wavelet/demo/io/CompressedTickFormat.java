@@ -0,0 +1,103 @@
+package ai.prophetizo.wavelet.demo.io;
+
+/**
+ * Layout constants and varint helpers of the compressed tick archive written by
+ * {@link CompressedTickWriter} and read by {@link CompressedTickReader}. All fixed-width values
+ * are little-endian and share the value layouts of {@link BinaryTickFormat}.
+ * <p>
+ * Ticks are stored in blocks of up to a fixed number of ticks, column by column. Prices are
+ * integer counts of price ticks, see {@link ai.prophetizo.wavelet.demo.model.PriceScale}; every column is encoded relative
+ * to its previous value, so the small numbers that dominate real captures take a single byte, and
+ * the zeros of unchanged prices and of evenly spaced timestamps take less than a byte each.
+ * <pre>
+ * offset  size  field
+ *      0     4  magic "WTCZ"
+ *      4     2  format version
+ *      6     2  reserved
+ *      8    16  symbol, US-ASCII, zero padded
+ *     24     8  tick count
+ *     32     8  timestamp of the first tick
+ *     40     8  timestamp of the last tick
+ *     48     8  offset of the block index
+ *     56     4  price ticks per unit of price (e.g. 4 for a 0.25 grid)
+ *     60     4  maximum ticks per block
+ *     64     .  blocks
+ *      .     .  block index: first timestamp (8) and offset (8) of every block
+ *
+ * block:
+ *      0     4  tick count n
+ *      4     4  payload size in bytes
+ *      8     8  timestamp of the first tick
+ *     16     8  price of the first tick, in price ticks
+ *     24     1  flags: bit 0 set if the sides are stored as bytes
+ *     25     3  reserved
+ *     28     .  payload:
+ *               n - 1 timestamp delta-of-deltas, zero runs
+ *               n - 1 price deltas in price ticks, zero runs
+ *               volume runs until n volumes are covered: volume and run length, zigzag and plain varints
+ *               sides: one bit per tick (1 = ask, 0 = bid), or one byte per tick if a block has unknown sides
+ *
+ * zero runs: for every nonzero value, the number of zeros before it as a varint and the value
+ * as a zigzag varint; then the number of trailing zeros, if any
+ * </pre>
+ */
+final class CompressedTickFormat {
+
+    static final int MAGIC = 0x5A435457; // "WTCZ" read as a little-endian int
+    static final short VERSION = 1;
+
+    static final int HEADER_SIZE = 64;
+    static final int SYMBOL_BYTES = 16;
+    static final int BLOCK_HEADER_SIZE = 28;
+    static final int INDEX_ENTRY_SIZE = 16;
+    static final int DEFAULT_BLOCK_TICKS = 4096;
+    static final int MAX_BLOCK_TICKS = 1 << 20;
+
+    // Header field offsets
+    static final int MAGIC_OFFSET = 0;
+    static final int VERSION_OFFSET = 4;
+    static final int SYMBOL_OFFSET = 8;
+    static final int COUNT_OFFSET = 24;
+    static final int START_OFFSET = 32;
+    static final int END_OFFSET = 40;
+    static final int INDEX_OFFSET_OFFSET = 48;
+    static final int TICKS_PER_UNIT_OFFSET = 56;
+    static final int BLOCK_TICKS_OFFSET = 60;
+
+    // Block header field offsets
+    static final int BLOCK_COUNT_FIELD = 0;
+    static final int BLOCK_PAYLOAD_FIELD = 4;
+    static final int BLOCK_TIMESTAMP_FIELD = 8;
+    static final int BLOCK_PRICE_FIELD = 16;
+    static final int BLOCK_FLAGS_FIELD = 24;
+
+    static final byte FLAG_BYTE_SIDES = 1;
+
+    // The longest varint of a 64-bit value
+    static final int MAX_VARINT_BYTES = 10;
+
+    private CompressedTickFormat() {
+    }
+
+    static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Writes an unsigned varint, seven bits per byte, least significant group first.
+     *
+     * @return The position after the varint.
+     */
+    static int writeVarint(byte[] bytes, int position, long value) {
+        while ((value & ~0x7FL) != 0) {
+            bytes[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        bytes[position++] = (byte) value;
+        return position;
+    }
+}
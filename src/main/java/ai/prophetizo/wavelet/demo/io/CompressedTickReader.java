@@ -0,0 +1,334 @@
+package ai.prophetizo.wavelet.demo.io;
+
+import ai.prophetizo.wavelet.demo.model.FixedPointTickSink;
+import ai.prophetizo.wavelet.demo.model.PriceScale;
+import ai.prophetizo.wavelet.demo.model.TickSink;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static ai.prophetizo.wavelet.demo.io.BinaryTickFormat.BYTE;
+import static ai.prophetizo.wavelet.demo.io.BinaryTickFormat.INT;
+import static ai.prophetizo.wavelet.demo.io.BinaryTickFormat.LONG;
+import static ai.prophetizo.wavelet.demo.io.BinaryTickFormat.SHORT;
+import static ai.prophetizo.wavelet.demo.io.CompressedTickFormat.*;
+
+/**
+ * Reads a compressed tick archive written by {@link CompressedTickWriter}.
+ * <p>
+ * The file is memory-mapped and decoded one block at a time: the payload of a block is copied
+ * into a reusable array, its columns are decoded into reusable primitive arrays, and the ticks
+ * are then pushed into a {@link TickSink}, so decoding allocates nothing per block and feeds a
+ * streaming {@link ai.prophetizo.wavelet.demo.model.Resampler} directly. The block index lets
+ * {@link #streamBetween(long, long, TickSink)} skip the blocks before a timestamp. The mapping is
+ * released by {@link #close()}; a reader must only be used by the thread that opened it.
+ */
+public final class CompressedTickReader implements AutoCloseable {
+
+    private final Arena arena;
+    private final MemorySegment data;
+    private final String symbol;
+    private final long count;
+    private final long startTimestamp;
+    private final long endTimestamp;
+    private final long indexOffset;
+    private final PriceScale priceScale;
+    private final long blockCount;
+
+    // Decoding buffers, reused for every block
+    private final long[] timestamps;
+    private final long[] priceTicks;
+    private final int[] volumes;
+    private final byte[] sides;
+    private byte[] payload = new byte[0];
+    private int position;
+    // The payload length and file offset of the block being decoded; payload may be longer
+    private int limit;
+    private long blockOffset;
+
+    private CompressedTickReader(Arena arena, MemorySegment data) {
+        this.arena = arena;
+        this.data = data;
+        if (data.byteSize() < HEADER_SIZE || data.get(INT, MAGIC_OFFSET) != MAGIC) {
+            throw new IllegalArgumentException("Not a compressed tick archive.");
+        }
+        short version = data.get(SHORT, VERSION_OFFSET);
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported compressed tick archive version " + version + ".");
+        }
+        byte[] symbolBytes = data.asSlice(SYMBOL_OFFSET, SYMBOL_BYTES).toArray(ValueLayout.JAVA_BYTE);
+        int symbolLength = 0;
+        while (symbolLength < SYMBOL_BYTES && symbolBytes[symbolLength] != 0) {
+            symbolLength++;
+        }
+        this.symbol = new String(symbolBytes, 0, symbolLength, StandardCharsets.US_ASCII);
+        this.count = data.get(LONG, COUNT_OFFSET);
+        this.startTimestamp = data.get(LONG, START_OFFSET);
+        this.endTimestamp = data.get(LONG, END_OFFSET);
+        this.indexOffset = data.get(LONG, INDEX_OFFSET_OFFSET);
+        int ticksPerUnit = data.get(INT, TICKS_PER_UNIT_OFFSET);
+        int blockTicks = data.get(INT, BLOCK_TICKS_OFFSET);
+        if (count < 0 || ticksPerUnit <= 0 || blockTicks <= 0 || blockTicks > MAX_BLOCK_TICKS) {
+            throw new IllegalArgumentException("Corrupt compressed tick archive header.");
+        }
+        this.priceScale = new PriceScale(ticksPerUnit);
+        this.blockCount = (count + blockTicks - 1) / blockTicks;
+        if (indexOffset < HEADER_SIZE || indexOffset + blockCount * INDEX_ENTRY_SIZE > data.byteSize()) {
+            throw new IllegalArgumentException("Truncated compressed tick archive.");
+        }
+        this.timestamps = new long[blockTicks];
+        this.priceTicks = new long[blockTicks];
+        this.volumes = new int[blockTicks];
+        this.sides = new byte[blockTicks];
+    }
+
+    /**
+     * Opens and memory-maps a compressed tick archive.
+     *
+     * @param file The file written by a {@link CompressedTickWriter}.
+     * @return An open reader.
+     * @throws IOException              if the file cannot be mapped.
+     * @throws IllegalArgumentException if the file is not a supported compressed tick archive.
+     */
+    public static CompressedTickReader open(Path file) throws IOException {
+        Arena arena = Arena.ofConfined();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return new CompressedTickReader(arena, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size(), arena));
+        } catch (IOException | RuntimeException e) {
+            arena.close();
+            throw e;
+        }
+    }
+
+    public String symbol() {
+        return symbol;
+    }
+
+    public long count() {
+        return count;
+    }
+
+    public long startTimestamp() {
+        return startTimestamp;
+    }
+
+    public long endTimestamp() {
+        return endTimestamp;
+    }
+
+    /**
+     * @return The price grid the prices are stored on.
+     */
+    public PriceScale priceScale() {
+        return priceScale;
+    }
+
+    /**
+     * Streams every tick of the archive into a sink.
+     *
+     * @return The number of ticks streamed.
+     * @throws IllegalArgumentException if a block is corrupt.
+     */
+    public long streamAll(TickSink sink) {
+        long streamed = 0;
+        for (long block = 0; block < blockCount; block++) {
+            int n = decodeBlock(block);
+            for (int i = 0; i < n; i++) {
+                sink.onTick(timestamps[i], priceScale.toPrice(priceTicks[i]), volumes[i], sides[i]);
+            }
+            streamed += n;
+        }
+        return streamed;
+    }
+
+    /**
+     * Streams every tick of the archive into a fixed-point sink, with prices as the stored numbers
+     * of price ticks, see {@link #priceScale()}.
+     *
+     * @return The number of ticks streamed.
+     * @throws IllegalArgumentException if a block is corrupt.
+     */
+    public long streamAllFixedPoint(FixedPointTickSink sink) {
+        long streamed = 0;
+        for (long block = 0; block < blockCount; block++) {
+            int n = decodeBlock(block);
+            for (int i = 0; i < n; i++) {
+                sink.onPriceTicks(timestamps[i], priceTicks[i], volumes[i], sides[i]);
+            }
+            streamed += n;
+        }
+        return streamed;
+    }
+
+    /**
+     * Streams every tick with {@code fromTimestamp <= timestamp < toTimestamp} into a sink,
+     * decoding only the blocks that may hold such ticks.
+     *
+     * @return The number of ticks streamed.
+     * @throws IllegalArgumentException if a block is corrupt.
+     */
+    public long streamBetween(long fromTimestamp, long toTimestamp, TickSink sink) {
+        // Last block whose first timestamp is strictly before the start, as earlier ones end before it
+        long low = 0;
+        long high = blockCount - 1;
+        long block = 0;
+        while (low <= high) {
+            long mid = (low + high) >>> 1;
+            if (blockTimestamp(mid) < fromTimestamp) {
+                block = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+
+        long streamed = 0;
+        for (; block < blockCount && blockTimestamp(block) < toTimestamp; block++) {
+            int n = decodeBlock(block);
+            for (int i = 0; i < n; i++) {
+                long timestamp = timestamps[i];
+                if (timestamp >= fromTimestamp && timestamp < toTimestamp) {
+                    sink.onTick(timestamp, priceScale.toPrice(priceTicks[i]), volumes[i], sides[i]);
+                    streamed++;
+                }
+            }
+        }
+        return streamed;
+    }
+
+    private long blockTimestamp(long block) {
+        return data.get(LONG, indexOffset + block * INDEX_ENTRY_SIZE);
+    }
+
+    /**
+     * Decodes a block into the column buffers.
+     *
+     * @return The number of ticks in the block.
+     */
+    private int decodeBlock(long block) {
+        long offset = data.get(LONG, indexOffset + block * INDEX_ENTRY_SIZE + Long.BYTES);
+        if (offset < HEADER_SIZE || offset + BLOCK_HEADER_SIZE > indexOffset) {
+            throw corrupt(offset);
+        }
+        int n = data.get(INT, offset + BLOCK_COUNT_FIELD);
+        int length = data.get(INT, offset + BLOCK_PAYLOAD_FIELD);
+        if (n <= 0 || n > timestamps.length || length < 0 || offset + BLOCK_HEADER_SIZE + length > indexOffset) {
+            throw corrupt(offset);
+        }
+        if (payload.length < length) {
+            payload = new byte[length];
+        }
+        MemorySegment.copy(data, BYTE, offset + BLOCK_HEADER_SIZE, payload, 0, length);
+        byte[] bytes = payload;
+        position = 0;
+        limit = length;
+        blockOffset = offset;
+
+        readZeroRuns(bytes, timestamps, 1, n);
+        long timestamp = data.get(LONG, offset + BLOCK_TIMESTAMP_FIELD);
+        long delta = 0;
+        timestamps[0] = timestamp;
+        for (int i = 1; i < n; i++) {
+            delta += timestamps[i];
+            timestamp += delta;
+            timestamps[i] = timestamp;
+        }
+
+        readZeroRuns(bytes, priceTicks, 1, n);
+        long ticks = data.get(LONG, offset + BLOCK_PRICE_FIELD);
+        priceTicks[0] = ticks;
+        for (int i = 1; i < n; i++) {
+            ticks += priceTicks[i];
+            priceTicks[i] = ticks;
+        }
+
+        for (int i = 0; i < n; ) {
+            int volume = (int) unzigzag(readVarint(bytes));
+            long run = readVarint(bytes);
+            if (run <= 0 || run > n - i) {
+                throw corrupt(offset);
+            }
+            for (long end = i + run; i < end; i++) {
+                volumes[i] = volume;
+            }
+        }
+
+        int pos = position;
+        boolean byteSides = (data.get(BYTE, offset + BLOCK_FLAGS_FIELD) & FLAG_BYTE_SIDES) != 0;
+        if (length - pos != (byteSides ? n : (n + 7) / 8)) {
+            throw corrupt(offset);
+        }
+        if (byteSides) {
+            System.arraycopy(bytes, pos, sides, 0, n);
+        } else {
+            for (int i = 0; i < n; i++) {
+                sides[i] = (byte) (((bytes[pos + (i >>> 3)] >>> (i & 7)) & 1) * 2 - 1);
+            }
+        }
+        return n;
+    }
+
+    /**
+     * Reads the zero-run coded values {@code [from, to)} of a column, see {@link CompressedTickFormat}.
+     */
+    private void readZeroRuns(byte[] bytes, long[] values, int from, int to) {
+        for (int i = from; i < to; ) {
+            long zeros = readVarint(bytes);
+            if (zeros < 0 || zeros > to - i) {
+                throw corrupt(blockOffset);
+            }
+            for (long end = i + zeros; i < end; i++) {
+                values[i] = 0;
+            }
+            if (i < to) {
+                values[i++] = unzigzag(readVarint(bytes));
+            }
+        }
+    }
+
+    /**
+     * Reads an unsigned varint at the decoding position and advances past it.
+     *
+     * @throws IllegalArgumentException if the varint runs past the payload of the block or past 64 bits.
+     */
+    private long readVarint(byte[] bytes) {
+        int pos = position;
+        if (pos >= limit) {
+            throw corrupt(blockOffset);
+        }
+        long value = bytes[pos++];
+        if (value < 0) {
+            value &= 0x7F;
+            for (int shift = 7; ; shift += 7) {
+                if (pos >= limit || shift > 63) {
+                    throw corrupt(blockOffset);
+                }
+                byte b = bytes[pos++];
+                value |= (long) (b & 0x7F) << shift;
+                if (b >= 0) {
+                    break;
+                }
+            }
+        }
+        position = pos;
+        return value;
+    }
+
+    private static IllegalArgumentException corrupt(long offset) {
+        return new IllegalArgumentException("Corrupt compressed tick block at byte offset " + offset + ".");
+    }
+
+    /**
+     * Unmaps the file. Ticks must not be read after closing.
+     */
+    @Override
+    public void close() {
+        arena.close();
+    }
+}
@@ -0,0 +1,266 @@
+package ai.prophetizo.wavelet.demo.io;
+
+import ai.prophetizo.wavelet.demo.model.FixedPointTickSink;
+import ai.prophetizo.wavelet.demo.model.PriceScale;
+import ai.prophetizo.wavelet.demo.model.TickSink;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Objects;
+
+import static ai.prophetizo.wavelet.demo.io.CompressedTickFormat.*;
+
+/**
+ * Writes ticks into the compressed tick archive described by {@link CompressedTickFormat}.
+ * <p>
+ * Ticks are appended through {@link #onTick}, or {@link #onPriceTicks} as price ticks, so the
+ * writer can be fed directly by a loader such as {@link MappedTickCsvReader}. They are collected
+ * column by column until a block is full, then encoded: timestamps as delta-of-deltas, which are zero for the evenly spaced and
+ * duplicate millisecond timestamps of a busy capture, and prices as deltas in price ticks, both
+ * with runs of zeros collapsed into a count; volumes as runs; and sides as a bitmap. Prices given
+ * as doubles are converted with the archive's {@link PriceScale}, which rejects a price off the
+ * grid rather than rounding it. The header and the block index are written when the writer is
+ * closed. A CompressedTickWriter is not thread-safe.
+ */
+public final class CompressedTickWriter implements TickSink, FixedPointTickSink, AutoCloseable {
+
+    private final FileChannel channel;
+    private final String symbol;
+    private final PriceScale priceScale;
+    private final int blockTicks;
+
+    // The ticks of the block being collected
+    private final long[] timestamps;
+    private final long[] prices;
+    private final int[] volumes;
+    private final byte[] sides;
+    private int size;
+
+    private final long[] deltas;
+    private final byte[] encoded;
+    private long[] index = new long[64];
+    private int indexSize;
+    private long position = HEADER_SIZE;
+    private long count;
+    private long startTimestamp;
+    private long endTimestamp;
+    private boolean closed;
+
+    /**
+     * Creates (or truncates) a compressed tick archive.
+     *
+     * @param file         The file to write.
+     * @param symbol       The instrument symbol recorded in the header, at most 16 ASCII characters.
+     * @param priceScale The price grid of the instrument.
+     * @throws IOException if the file cannot be created.
+     */
+    public CompressedTickWriter(Path file, String symbol, PriceScale priceScale) throws IOException {
+        this(file, symbol, priceScale, DEFAULT_BLOCK_TICKS);
+    }
+
+    /**
+     * Creates (or truncates) a compressed tick archive.
+     *
+     * @param file         The file to write.
+     * @param symbol       The instrument symbol recorded in the header, at most 16 ASCII characters.
+     * @param priceScale The price grid of the instrument.
+     * @param blockTicks The maximum number of ticks per block, and so the granularity of seeks.
+     * @throws IOException if the file cannot be created.
+     */
+    public CompressedTickWriter(Path file, String symbol, PriceScale priceScale, int blockTicks) throws IOException {
+        if (symbol.getBytes(StandardCharsets.US_ASCII).length > SYMBOL_BYTES) {
+            throw new IllegalArgumentException("Symbol must be at most " + SYMBOL_BYTES + " characters.");
+        }
+        if (blockTicks <= 0 || blockTicks > MAX_BLOCK_TICKS) {
+            throw new IllegalArgumentException("Block size must be between 1 and " + MAX_BLOCK_TICKS + " ticks.");
+        }
+        this.symbol = symbol;
+        this.priceScale = Objects.requireNonNull(priceScale, "priceScale");
+        this.blockTicks = blockTicks;
+        this.timestamps = new long[blockTicks];
+        this.prices = new long[blockTicks];
+        this.volumes = new int[blockTicks];
+        this.sides = new byte[blockTicks];
+        this.deltas = new long[blockTicks];
+        // Worst case: an empty zero run and a full varint per timestamp and price, a run per volume and a byte per side
+        this.encoded = new byte[BLOCK_HEADER_SIZE + blockTicks * (2 * (1 + MAX_VARINT_BYTES) + MAX_VARINT_BYTES + 1)];
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        this.channel.position(HEADER_SIZE);
+    }
+
+    /**
+     * Appends a tick.
+     *
+     * @throws IllegalArgumentException if the tick is older than the previous one, or its price is
+     *                                  not on the price grid.
+     * @throws UncheckedIOException     if the tick cannot be written.
+     */
+    @Override
+    public void onTick(long timestamp, double price, int volume, byte side) {
+        onPriceTicks(timestamp, priceScale.toTicks(price), volume, side);
+    }
+
+    /**
+     * Appends a tick whose price is a number of price ticks.
+     *
+     * @throws IllegalArgumentException if the tick is older than the previous one.
+     * @throws UncheckedIOException     if the tick cannot be written.
+     */
+    @Override
+    public void onPriceTicks(long timestamp, long priceTicks, int volume, byte side) {
+        if (count == 0) {
+            startTimestamp = timestamp;
+        } else if (timestamp < endTimestamp) {
+            throw new IllegalArgumentException("Ticks must be chronological: " + timestamp + " after " + endTimestamp);
+        }
+        timestamps[size] = timestamp;
+        prices[size] = priceTicks;
+        volumes[size] = volume;
+        sides[size] = side;
+        size++;
+        endTimestamp = timestamp;
+        count++;
+        if (size == blockTicks) {
+            writeBlock();
+        }
+    }
+
+    /**
+     * @return The number of ticks written so far.
+     */
+    public long count() {
+        return count;
+    }
+
+    /**
+     * Writes the last block, the block index and the header, and closes the file.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try (channel) {
+            if (size > 0) {
+                writeBlock();
+            }
+            ByteBuffer indexBytes = ByteBuffer.allocate(indexSize * Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            indexBytes.asLongBuffer().put(index, 0, indexSize);
+            writeFully(indexBytes);
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC_OFFSET, MAGIC)
+                    .putShort(VERSION_OFFSET, VERSION)
+                    .put(SYMBOL_OFFSET, symbol.getBytes(StandardCharsets.US_ASCII))
+                    .putLong(COUNT_OFFSET, count)
+                    .putLong(START_OFFSET, startTimestamp)
+                    .putLong(END_OFFSET, endTimestamp)
+                    .putLong(INDEX_OFFSET_OFFSET, position)
+                    .putInt(TICKS_PER_UNIT_OFFSET, priceScale.ticksPerUnit())
+                    .putInt(BLOCK_TICKS_OFFSET, blockTicks);
+            channel.position(0);
+            writeFully(header);
+        }
+    }
+
+    private void writeBlock() {
+        int n = size;
+        int pos = BLOCK_HEADER_SIZE;
+
+        long previousDelta = 0;
+        for (int i = 1; i < n; i++) {
+            long delta = timestamps[i] - timestamps[i - 1];
+            deltas[i - 1] = delta - previousDelta;
+            previousDelta = delta;
+        }
+        pos = writeZeroRuns(deltas, n - 1, pos);
+        for (int i = 1; i < n; i++) {
+            deltas[i - 1] = prices[i] - prices[i - 1];
+        }
+        pos = writeZeroRuns(deltas, n - 1, pos);
+        for (int i = 0; i < n; ) {
+            int run = 1;
+            while (i + run < n && volumes[i + run] == volumes[i]) {
+                run++;
+            }
+            pos = writeVarint(encoded, pos, zigzag(volumes[i]));
+            pos = writeVarint(encoded, pos, run);
+            i += run;
+        }
+        boolean byteSides = false;
+        for (int i = 0; i < n; i++) {
+            byteSides |= sides[i] == 0;
+        }
+        if (byteSides) {
+            System.arraycopy(sides, 0, encoded, pos, n);
+            pos += n;
+        } else {
+            Arrays.fill(encoded, pos, pos + (n + 7) / 8, (byte) 0);
+            for (int i = 0; i < n; i++) {
+                if (sides[i] > 0) {
+                    encoded[pos + (i >>> 3)] |= (byte) (1 << (i & 7));
+                }
+            }
+            pos += (n + 7) / 8;
+        }
+
+        ByteBuffer block = ByteBuffer.wrap(encoded, 0, pos).order(ByteOrder.LITTLE_ENDIAN);
+        block.putInt(BLOCK_COUNT_FIELD, n)
+                .putInt(BLOCK_PAYLOAD_FIELD, pos - BLOCK_HEADER_SIZE)
+                .putLong(BLOCK_TIMESTAMP_FIELD, timestamps[0])
+                .putLong(BLOCK_PRICE_FIELD, prices[0])
+                .put(BLOCK_FLAGS_FIELD, byteSides ? FLAG_BYTE_SIDES : 0)
+                .put(BLOCK_FLAGS_FIELD + 1, (byte) 0)
+                .putShort(BLOCK_FLAGS_FIELD + 2, (short) 0);
+
+        if (indexSize + 2 > index.length) {
+            index = Arrays.copyOf(index, index.length * 2);
+        }
+        index[indexSize++] = timestamps[0];
+        index[indexSize++] = position;
+        try {
+            writeFully(block);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        position += pos;
+        size = 0;
+    }
+
+    /**
+     * Writes each nonzero value as the number of zeros before it and the zigzag value, followed
+     * by the number of trailing zeros if there are any.
+     *
+     * @return The position after the values.
+     */
+    private int writeZeroRuns(long[] values, int count, int pos) {
+        int zeros = 0;
+        for (int i = 0; i < count; i++) {
+            if (values[i] == 0) {
+                zeros++;
+            } else {
+                pos = writeVarint(encoded, pos, zeros);
+                pos = writeVarint(encoded, pos, zigzag(values[i]));
+                zeros = 0;
+            }
+        }
+        if (zeros > 0) {
+            pos = writeVarint(encoded, pos, zeros);
+        }
+        return pos;
+    }
+
+    private void writeFully(ByteBuffer bytes) throws IOException {
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+    }
+}
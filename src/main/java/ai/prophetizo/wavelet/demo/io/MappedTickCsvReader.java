@@ -0,0 +1,268 @@
+package ai.prophetizo.wavelet.demo.io;
+
+import ai.prophetizo.wavelet.demo.model.Side;
+import ai.prophetizo.wavelet.demo.model.Tick;
+import ai.prophetizo.wavelet.demo.model.TickBuffer;
+import ai.prophetizo.wavelet.demo.model.TickSink;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads tick capture files in the {@code timestamp,side,size,price} CSV format, e.g.
+ * {@code 1734964200001,ASK,1,5998.75}.
+ * <p>
+ * The file is memory-mapped through {@link FileChannel#map} and every field is parsed
+ * directly from the mapped bytes, without creating Strings or calling
+ * {@link Double#parseDouble}. Rows are pushed into a {@link TickSink}, so loading a
+ * capture into a streaming Resampler does not allocate per row. An optional header
+ * line is skipped, and both LF and CRLF line endings are accepted.
+ */
+public final class MappedTickCsvReader {
+
+    private static final ValueLayout.OfByte BYTE = ValueLayout.JAVA_BYTE;
+    private static final int CHUNK_SIZE = 64 * 1024;
+    private static final int ESTIMATED_ROW_BYTES = 28;
+    private static final byte BID = Side.BID.code();
+    private static final byte ASK = Side.ASK.code();
+    private static final byte UNKNOWN = Side.UNKNOWN.code();
+
+    // Exact powers of ten; dividing a mantissa of up to 2^53 by one of them yields the correctly rounded price
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+            1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18
+    };
+    // Keeps the mantissa within a long and the fraction digits within POWERS_OF_TEN
+    private static final int MAX_PRICE_DIGITS = POWERS_OF_TEN.length - 1;
+
+    private MappedTickCsvReader() {
+    }
+
+    /**
+     * Streams every row of a capture file into a sink.
+     *
+     * @param file The CSV file to read.
+     * @param sink Receives one call per row, in file order.
+     * @return The number of rows read.
+     * @throws IOException              if the file cannot be mapped.
+     * @throws IllegalArgumentException if a row is malformed.
+     */
+    public static long read(Path file, TickSink sink) throws IOException {
+        try (Arena arena = Arena.ofConfined();
+             FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MemorySegment data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size(), arena);
+            return parse(data, firstRowOffset(data), data.byteSize(), sink);
+        }
+    }
+
+    /**
+     * Reads a capture file into a list of ticks.
+     *
+     * @param file The CSV file to read.
+     * @return The ticks in file order.
+     * @throws IOException              if the file cannot be mapped.
+     * @throws IllegalArgumentException if a row is malformed.
+     */
+    public static List<Tick> readTicks(Path file) throws IOException {
+        List<Tick> ticks = new ArrayList<>();
+        read(file, (timestamp, price, volume, side) -> ticks.add(new Tick(timestamp, price, volume, Side.fromCode(side))));
+        return ticks;
+    }
+
+    /**
+     * Reads a capture file into a columnar tick buffer, sized from the file length.
+     *
+     * @param file The CSV file to read.
+     * @return A growable buffer holding the ticks in file order.
+     * @throws IOException              if the file cannot be mapped.
+     * @throws IllegalArgumentException if a row is malformed.
+     */
+    public static TickBuffer readBuffer(Path file) throws IOException {
+        long estimatedRows = Files.size(file) / ESTIMATED_ROW_BYTES + 1;
+        TickBuffer buffer = TickBuffer.growable((int) Math.min(estimatedRows, Integer.MAX_VALUE - 8));
+        read(file, buffer);
+        return buffer;
+    }
+
+    /**
+     * Returns the offset of the first data row, skipping a header line if present.
+     */
+    static long firstRowOffset(MemorySegment data) {
+        if (data.byteSize() == 0 || isDigit(data.get(BYTE, 0))) {
+            return 0;
+        }
+        return nextLine(data, 0, data.byteSize());
+    }
+
+    /**
+     * Returns the offset just past the next line feed at or after {@code from}, or {@code to} if there is none.
+     */
+    static long nextLine(MemorySegment data, long from, long to) {
+        long pos = from;
+        while (pos < to && data.get(BYTE, pos) != '\n') {
+            pos++;
+        }
+        return Math.min(pos + 1, to);
+    }
+
+    /**
+     * Parses all rows starting in {@code [from, to)}; {@code from} must be the start of a row
+     * and {@code to} the end of one (or the end of the data).
+     * <p>
+     * The mapped bytes are bulk-copied into a small reusable chunk and parsed from there,
+     * which lets the JIT drop most bounds checks from the per-byte loops.
+     *
+     * @return The number of rows parsed.
+     */
+    static long parse(MemorySegment data, long from, long to, TickSink sink) {
+        byte[] chunk = new byte[CHUNK_SIZE];
+        long rows = 0;
+        long offset = from;
+        while (offset < to) {
+            int length = (int) Math.min(CHUNK_SIZE, to - offset);
+            MemorySegment.copy(data, BYTE, offset, chunk, 0, length);
+            int end = length;
+            if (offset + length < to) {
+                // Only parse complete rows; the partial last row is re-read with the next chunk
+                while (end > 0 && chunk[end - 1] != '\n') {
+                    end--;
+                }
+                if (end == 0) {
+                    throw new IllegalArgumentException("Malformed tick row: no line break within " + CHUNK_SIZE + " bytes at byte offset " + offset);
+                }
+            }
+            rows += parseChunk(chunk, end, offset, sink);
+            offset += end;
+        }
+        return rows;
+    }
+
+    /**
+     * Parses the complete rows held in {@code chunk[0, end)}.
+     * <p>
+     * Every field is bounded by the row: a row that ends before its fourth field, an empty
+     * numeric field, or a number that does not fit its column is rejected with the byte offset
+     * of the offending field.
+     */
+    private static long parseChunk(byte[] chunk, int end, long chunkOffset, TickSink sink) {
+        long rows = 0;
+        int pos = 0;
+        while (pos < end) {
+            byte b = chunk[pos];
+            if (b == '\n' || b == '\r') {
+                // Blank line or trailing line terminator
+                pos++;
+                continue;
+            }
+
+            // Timestamp
+            int comma = fieldEnd(chunk, pos, end, chunkOffset);
+            long timestamp = parseNumber(chunk, pos, comma, Long.MAX_VALUE, chunkOffset, "timestamp");
+            pos = comma + 1;
+
+            // Side, identified by its first letter
+            comma = fieldEnd(chunk, pos, end, chunkOffset);
+            byte side = pos == comma ? UNKNOWN : switch (chunk[pos]) {
+                case 'B' -> BID;
+                case 'A' -> ASK;
+                default -> UNKNOWN;
+            };
+            pos = comma + 1;
+
+            // Size
+            comma = fieldEnd(chunk, pos, end, chunkOffset);
+            int volume = (int) parseNumber(chunk, pos, comma, Integer.MAX_VALUE, chunkOffset, "size");
+            pos = comma + 1;
+
+            // Price, as an exact decimal mantissa and a count of fraction digits
+            int fieldStart = pos;
+            boolean negative = pos < end && chunk[pos] == '-';
+            if (negative) {
+                pos++;
+            }
+            long mantissa = 0;
+            int digits = 0;
+            int fractionDigits = -1;
+            while (pos < end && (b = chunk[pos]) != '\n' && b != '\r') {
+                if (b == '.' && fractionDigits < 0) {
+                    fractionDigits = 0;
+                } else {
+                    if (++digits > MAX_PRICE_DIGITS) {
+                        throw new IllegalArgumentException("Malformed tick row: price has more than " + MAX_PRICE_DIGITS + " digits at byte offset " + (chunkOffset + fieldStart));
+                    }
+                    mantissa = mantissa * 10 + digit(b, chunkOffset + pos);
+                    if (fractionDigits >= 0) {
+                        fractionDigits++;
+                    }
+                }
+                pos++;
+            }
+            if (digits == 0) {
+                throw new IllegalArgumentException("Malformed tick row: empty price at byte offset " + (chunkOffset + fieldStart));
+            }
+            double price = fractionDigits > 0 ? mantissa / POWERS_OF_TEN[fractionDigits] : mantissa;
+
+            sink.onTick(timestamp, negative ? -price : price, volume, side);
+            rows++;
+        }
+        return rows;
+    }
+
+    /**
+     * Returns the index of the comma ending the field that starts at {@code pos}.
+     *
+     * @throws IllegalArgumentException if the row or the chunk ends first.
+     */
+    private static int fieldEnd(byte[] chunk, int pos, int end, long chunkOffset) {
+        for (int i = pos; i < end; i++) {
+            byte b = chunk[i];
+            if (b == ',') {
+                return i;
+            }
+            if (b == '\n' || b == '\r') {
+                break;
+            }
+        }
+        throw new IllegalArgumentException("Malformed tick row: missing field at byte offset " + (chunkOffset + pos));
+    }
+
+    /**
+     * Parses the non-negative decimal number held in {@code chunk[from, to)}.
+     *
+     * @throws IllegalArgumentException if the field is empty, holds a non-digit, or exceeds {@code max}.
+     */
+    private static long parseNumber(byte[] chunk, int from, int to, long max, long chunkOffset, String field) {
+        if (from == to) {
+            throw new IllegalArgumentException("Malformed tick row: empty " + field + " at byte offset " + (chunkOffset + from));
+        }
+        long value = 0;
+        for (int i = from; i < to; i++) {
+            int digit = digit(chunk[i], chunkOffset + i);
+            if (value > (max - digit) / 10) {
+                throw new IllegalArgumentException("Malformed tick row: " + field + " out of range at byte offset " + (chunkOffset + from));
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private static int digit(byte b, long pos) {
+        int digit = b - '0';
+        if (digit < 0 || digit > 9) {
+            throw new IllegalArgumentException("Malformed tick row: unexpected character '" + (char) b + "' at byte offset " + pos);
+        }
+        return digit;
+    }
+
+    private static boolean isDigit(byte b) {
+        return b >= '0' && b <= '9';
+    }
+}
@@ -0,0 +1,139 @@
+package ai.prophetizo.wavelet.demo.io;
+
+import ai.prophetizo.wavelet.demo.model.TickBuffer;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Reads tick capture files in the format of {@link MappedTickCsvReader} on several threads.
+ * <p>
+ * The file is memory-mapped once and cut into byte ranges of about equal size. Each cut is
+ * moved forward to just past the next line feed, so that every row lies entirely within one
+ * range; the ranges are then parsed concurrently, with the same parser as
+ * {@link MappedTickCsvReader}, into one columnar buffer each. Finally the buffers are stitched
+ * together in file order with one bulk copy per column, so the result is identical to
+ * {@link MappedTickCsvReader#readBuffer(Path)}.
+ */
+public final class ParallelTickCsvReader {
+
+    // Smaller ranges cost more in task overhead than they gain in parallelism
+    private static final long MIN_RANGE_BYTES = 1 << 20;
+    private static final int ESTIMATED_ROW_BYTES = 28;
+
+    private ParallelTickCsvReader() {
+    }
+
+    /**
+     * Reads a capture file into a columnar tick buffer, using the common pool.
+     *
+     * @param file The CSV file to read.
+     * @return A buffer holding the ticks in file order.
+     * @throws IOException              if the file cannot be mapped.
+     * @throws IllegalArgumentException if a row is malformed.
+     */
+    public static TickBuffer readBuffer(Path file) throws IOException {
+        return readBuffer(file, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Reads a capture file into a columnar tick buffer, parsing up to four ranges per thread of a pool.
+     *
+     * @param file The CSV file to read.
+     * @param pool The pool that parses the ranges.
+     * @return A buffer holding the ticks in file order.
+     * @throws IOException              if the file cannot be mapped.
+     * @throws IllegalArgumentException if a row is malformed.
+     */
+    public static TickBuffer readBuffer(Path file, ForkJoinPool pool) throws IOException {
+        try (Arena arena = Arena.ofShared();
+             FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MemorySegment data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size(), arena);
+            long[] cuts = cuts(data, pool.getParallelism() * 4);
+
+            List<Callable<Part>> tasks = new ArrayList<>(cuts.length - 1);
+            for (int range = 0; range < cuts.length - 1; range++) {
+                long from = cuts[range];
+                long to = cuts[range + 1];
+                tasks.add(() -> parse(data, from, to));
+            }
+
+            List<TickBuffer> parts = new ArrayList<>(tasks.size());
+            long rows = 0;
+            for (Future<Part> future : pool.invokeAll(tasks)) {
+                Part part = join(future);
+                if (part.failure() != null) {
+                    throw part.failure();
+                }
+                parts.add(part.ticks());
+                rows += part.ticks().size();
+            }
+            if (rows > Integer.MAX_VALUE - 8) {
+                throw new IllegalArgumentException("Too many rows for a TickBuffer: " + rows);
+            }
+
+            TickBuffer ticks = TickBuffer.fixed((int) rows);
+            parts.forEach(ticks::addAll);
+            return ticks;
+        }
+    }
+
+    /**
+     * Cuts the data rows into at most {@code ranges} ranges that each start at the beginning of a row.
+     *
+     * @return The start of every range followed by the end of the data.
+     */
+    static long[] cuts(MemorySegment data, int ranges) {
+        long start = MappedTickCsvReader.firstRowOffset(data);
+        long end = data.byteSize();
+        int count = (int) Math.max(1, Math.min(ranges, (end - start) / MIN_RANGE_BYTES));
+        long[] cuts = new long[count + 1];
+        cuts[0] = start;
+        for (int range = 1; range < count; range++) {
+            long cut = start + (end - start) * range / count;
+            // The row that contains the cut belongs to the previous range
+            cuts[range] = Math.max(cuts[range - 1], MappedTickCsvReader.nextLine(data, cut - 1, end));
+        }
+        cuts[count] = end;
+        return cuts;
+    }
+
+    private static Part parse(MemorySegment data, long from, long to) {
+        try {
+            TickBuffer ticks = TickBuffer.growable((int) Math.min((to - from) / ESTIMATED_ROW_BYTES + 1,
+                    Integer.MAX_VALUE - 8));
+            MappedTickCsvReader.parse(data, from, to, ticks);
+            return new Part(ticks, null);
+        } catch (RuntimeException e) {
+            // Handed back as is: the pool would wrap an exception thrown across threads in a copy
+            return new Part(null, e);
+        }
+    }
+
+    private static Part join(Future<Part> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while parsing.", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Parsing failed.", e.getCause());
+        }
+    }
+
+    /**
+     * The ticks of one range, or the reason they could not be parsed.
+     */
+    private record Part(TickBuffer ticks, RuntimeException failure) {
+    }
+}
@@ -0,0 +1,216 @@
+package ai.prophetizo.wavelet.demo.io;
+
+import ai.prophetizo.wavelet.demo.model.Resampler;
+import ai.prophetizo.wavelet.demo.model.TickSink;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Periodically checkpoints the streaming state of a set of Resamplers fed by the same ticks, e.g.
+ * every bar type of one symbol, so that a restarted service only replays the ticks received after
+ * the last checkpoint instead of the whole session.
+ * <p>
+ * A ResamplerCheckpoint is a {@link TickSink} that forwards every tick to its Resamplers and
+ * writes a checkpoint file every {@code intervalTicks} ticks and when it is closed. A checkpoint is
+ * written to a temporary file that then atomically replaces the previous one, so a crash leaves
+ * either the old or the new checkpoint, never a torn one. On restart, {@link #restore(Path, List)}
+ * loads the state into Resamplers of the same configurations, in the same order, and returns the
+ * index of the first tick to replay into them:
+ * <pre>{@code
+ * long resumeAt = ResamplerCheckpoint.restore(file, resamplers);
+ * reader.stream(resumeAt, reader.count(), new ResamplerCheckpoint(file, resamplers, 100_000));
+ * }</pre>
+ * The file is little-endian:
+ * <pre>
+ * offset  size  field
+ *      0     4  magic "WTRS"
+ *      4     2  format version
+ *      6     2  reserved
+ *      8     4  number of Resamplers
+ *     12     4  state size of one Resampler in bytes
+ *     16     8  number of ticks received by every Resampler
+ *     24     .  the state of each Resampler, see {@link Resampler#writeState(ByteBuffer)}
+ *      .     4  CRC-32 of all preceding bytes
+ * </pre>
+ * A ResamplerCheckpoint is not thread-safe.
+ */
+public final class ResamplerCheckpoint implements TickSink, AutoCloseable {
+
+    static final int MAGIC = 0x53525457; // "WTRS" read as a little-endian int
+    static final short VERSION = 1;
+    static final int HEADER_SIZE = 24;
+
+    private final Path file;
+    private final List<Resampler> resamplers;
+    private final long intervalTicks;
+    private final ByteBuffer buffer;
+
+    private long ticksSinceCheckpoint;
+    private long checkpoints;
+    private boolean closed;
+
+    /**
+     * Creates a checkpointing sink; no file is written until the first checkpoint.
+     *
+     * @param file          The checkpoint file, replaced by every checkpoint.
+     * @param resamplers    The Resamplers to feed and checkpoint, which must all have received the same ticks.
+     * @param intervalTicks The number of ticks between two checkpoints.
+     * @throws IllegalArgumentException if there are no Resamplers or the interval is not positive.
+     */
+    public ResamplerCheckpoint(Path file, List<Resampler> resamplers, long intervalTicks) {
+        if (resamplers.isEmpty()) {
+            throw new IllegalArgumentException("At least one Resampler is required.");
+        }
+        if (intervalTicks <= 0) {
+            throw new IllegalArgumentException("Checkpoint interval must be positive.");
+        }
+        this.file = file;
+        this.resamplers = List.copyOf(resamplers);
+        this.intervalTicks = intervalTicks;
+        this.buffer = ByteBuffer.allocate(fileSize(resamplers.size())).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Forwards a tick to every Resampler, and writes a checkpoint once the interval has elapsed.
+     *
+     * @throws UncheckedIOException if the checkpoint cannot be written.
+     */
+    @Override
+    public void onTick(long timestamp, double price, int volume, byte side) {
+        for (int i = 0, n = resamplers.size(); i < n; i++) {
+            resamplers.get(i).onTick(timestamp, price, volume, side);
+        }
+        if (++ticksSinceCheckpoint >= intervalTicks) {
+            try {
+                checkpoint();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Writes a checkpoint of the current state now.
+     *
+     * @throws IOException if the file cannot be written.
+     */
+    public void checkpoint() throws IOException {
+        write(file, resamplers, buffer);
+        ticksSinceCheckpoint = 0;
+        checkpoints++;
+    }
+
+    /**
+     * @return The number of checkpoints written so far.
+     */
+    public long checkpoints() {
+        return checkpoints;
+    }
+
+    /**
+     * Writes a final checkpoint, so that a restart after a clean shutdown replays nothing.
+     * The Resamplers are not flushed: their open bars are part of the checkpoint.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        checkpoint();
+    }
+
+    /**
+     * Atomically writes a checkpoint of a set of Resamplers.
+     *
+     * @param file       The checkpoint file to create or replace.
+     * @param resamplers The Resamplers, which must all have received the same ticks.
+     * @throws IllegalArgumentException if there are no Resamplers or they have received different numbers of ticks.
+     * @throws IOException              if the file cannot be written.
+     */
+    public static void write(Path file, List<Resampler> resamplers) throws IOException {
+        write(file, resamplers, ByteBuffer.allocate(fileSize(resamplers.size())).order(ByteOrder.LITTLE_ENDIAN));
+    }
+
+    /**
+     * Restores the state of a checkpoint into a set of freshly built Resamplers.
+     *
+     * @param file       The checkpoint file.
+     * @param resamplers Resamplers with the configurations of the checkpointed ones, in the same order.
+     *                   If restoring fails they may hold a partially restored state and should be discarded.
+     * @return The index of the first tick the Resamplers expect, i.e. the number of ticks they had
+     * received when the checkpoint was written.
+     * @throws IllegalArgumentException if the file is not a valid checkpoint or the Resamplers do not match it.
+     * @throws IOException              if the file cannot be read.
+     */
+    public static long restore(Path file, List<Resampler> resamplers) throws IOException {
+        ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(file)).order(ByteOrder.LITTLE_ENDIAN);
+        if (bytes.remaining() < HEADER_SIZE + Integer.BYTES || bytes.getInt(0) != MAGIC) {
+            throw new IllegalArgumentException("Not a Resampler checkpoint: " + file);
+        }
+        if (bytes.getShort(4) != VERSION) {
+            throw new IllegalArgumentException("Unsupported checkpoint version " + bytes.getShort(4) + ": " + file);
+        }
+        int count = bytes.getInt(8);
+        if (bytes.getInt(12) != Resampler.STATE_BYTES || bytes.remaining() != fileSize(count)) {
+            throw new IllegalArgumentException("Corrupt Resampler checkpoint: " + file);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(bytes.array(), 0, bytes.limit() - Integer.BYTES);
+        if ((int) crc.getValue() != bytes.getInt(bytes.limit() - Integer.BYTES)) {
+            throw new IllegalArgumentException("Corrupt Resampler checkpoint: " + file);
+        }
+        if (count != resamplers.size()) {
+            throw new IllegalArgumentException("Checkpoint holds " + count + " Resamplers, not " + resamplers.size() + ".");
+        }
+        bytes.position(HEADER_SIZE);
+        for (Resampler resampler : resamplers) {
+            resampler.readState(bytes);
+        }
+        return bytes.getLong(16);
+    }
+
+    private static void write(Path file, List<Resampler> resamplers, ByteBuffer bytes) throws IOException {
+        if (resamplers.isEmpty()) {
+            throw new IllegalArgumentException("At least one Resampler is required.");
+        }
+        long ticksReceived = resamplers.getFirst().ticksReceived();
+        bytes.clear();
+        bytes.putInt(MAGIC).putShort(VERSION).putShort((short) 0)
+                .putInt(resamplers.size()).putInt(Resampler.STATE_BYTES).putLong(ticksReceived);
+        for (Resampler resampler : resamplers) {
+            if (resampler.ticksReceived() != ticksReceived) {
+                throw new IllegalArgumentException("Checkpointed Resamplers must have received the same ticks.");
+            }
+            resampler.writeState(bytes);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(bytes.array(), 0, bytes.position());
+        bytes.putInt((int) crc.getValue());
+        bytes.flip();
+
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+            channel.force(false);
+        }
+        Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static int fileSize(int count) {
+        return HEADER_SIZE + count * Resampler.STATE_BYTES + Integer.BYTES;
+    }
+}
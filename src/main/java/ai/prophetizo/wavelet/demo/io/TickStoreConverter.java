@@ -0,0 +1,92 @@
+package ai.prophetizo.wavelet.demo.io;
+
+import ai.prophetizo.wavelet.demo.model.PriceScale;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Converts tick capture CSV files into the binary tick store format, or into a compressed tick
+ * archive when a price grid is given.
+ * <p>
+ * The output is written to a temporary file that replaces the target only once the whole capture
+ * has been converted, so a malformed row never leaves a truncated store that reads as a valid one.
+ * <p>
+ * Usage: {@code TickStoreConverter <input.csv> <output.ticks> <symbol> [ticksPerUnit]}
+ */
+public final class TickStoreConverter {
+
+    private TickStoreConverter() {
+    }
+
+    /**
+     * Converts a {@code timestamp,side,size,price} CSV capture into a binary tick store.
+     *
+     * @param csv    The chronological CSV capture to read.
+     * @param store  The binary store to create or overwrite.
+     * @param symbol The instrument symbol recorded in the store header.
+     * @return The number of ticks converted.
+     * @throws IOException              if either file cannot be accessed.
+     * @throws IllegalArgumentException if a row is malformed; the store is then left untouched.
+     */
+    public static long convert(Path csv, Path store, String symbol) throws IOException {
+        return replace(store, temp -> {
+            try (BinaryTickWriter writer = new BinaryTickWriter(temp, symbol)) {
+                return MappedTickCsvReader.read(csv, writer);
+            }
+        });
+    }
+
+    /**
+     * Converts a {@code timestamp,side,size,price} CSV capture into a compressed tick archive.
+     *
+     * @param csv        The chronological CSV capture to read.
+     * @param archive    The compressed archive to create or overwrite.
+     * @param symbol     The instrument symbol recorded in the archive header.
+     * @param priceScale The price grid of the instrument.
+     * @return The number of ticks converted.
+     * @throws IOException              if either file cannot be accessed.
+     * @throws IllegalArgumentException if a row is malformed or a price is not on the price grid; the
+     *                                  archive is then left untouched.
+     */
+    public static long compress(Path csv, Path archive, String symbol, PriceScale priceScale) throws IOException {
+        return replace(archive, temp -> {
+            try (CompressedTickWriter writer = new CompressedTickWriter(temp, symbol, priceScale)) {
+                return MappedTickCsvReader.read(csv, writer);
+            }
+        });
+    }
+
+    /**
+     * Writes a file through a temporary sibling that atomically replaces it once the writing has
+     * succeeded, and is deleted otherwise.
+     */
+    private static long replace(Path target, Conversion conversion) throws IOException {
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try {
+            long ticks = conversion.writeTo(temp);
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            return ticks;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Conversion {
+        long writeTo(Path file) throws IOException;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 3 && args.length != 4) {
+            System.err.println("Usage: TickStoreConverter <input.csv> <output.ticks> <symbol> [ticksPerUnit]");
+            System.exit(2);
+        }
+        long ticks = args.length == 3
+                ? convert(Path.of(args[0]), Path.of(args[1]), args[2])
+                : compress(Path.of(args[0]), Path.of(args[1]), args[2], new PriceScale(Integer.parseInt(args[3])));
+        System.out.println("Converted " + ticks + " ticks to " + args[1]);
+    }
+}
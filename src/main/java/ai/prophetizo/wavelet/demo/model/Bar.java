@@ -1,14 +1,41 @@
 package ai.prophetizo.wavelet.demo.model;
 
 /**
- * A record to represent a single OHLCV bar.
+ * A record to represent a single OHLCV bar, along with the order-flow statistics gathered
+ * while it was built, so that consumers do not need a second pass over the ticks.
  *
- * @param openTimestamp The starting timestamp of the bar.
- * @param open          The opening price of the bar.
- * @param high          The highest price during the bar's duration.
- * @param low           The lowest price during the bar's duration.
- * @param close         The closing price of the bar.
- * @param totalVolume   The total traded volume during the bar's duration.
+ * @param openTimestamp  The starting timestamp of the bar.
+ * @param open           The opening price of the bar.
+ * @param high           The highest price during the bar's duration.
+ * @param low            The lowest price during the bar's duration.
+ * @param close          The closing price of the bar.
+ * @param totalVolume    The total traded volume during the bar's duration.
+ * @param closeTimestamp The timestamp of the bar's last tick.
+ * @param tradeCount     The number of ticks in the bar.
+ * @param buyVolume      The volume of ticks whose aggressor was a buyer (ASK side).
+ * @param sellVolume     The volume of ticks whose aggressor was a seller (BID side); ticks of unknown
+ *                       side count in neither.
+ * @param dollarValue    The sum of price * volume over the bar's ticks.
+ * @param firstTickIndex The index of the bar's first tick in the resampled input.
+ * @param lastTickIndex  The index of the bar's last tick in the resampled input.
  */
-public record Bar(long openTimestamp, double open, double high, double low, double close, long totalVolume) {
+public record Bar(long openTimestamp, double open, double high, double low, double close, long totalVolume,
+                  long closeTimestamp, long tradeCount, long buyVolume, long sellVolume, double dollarValue,
+                  long firstTickIndex, long lastTickIndex) {
+
+    /**
+     * Creates a plain OHLCV bar without order-flow statistics: the close timestamp equals the open
+     * timestamp, the counts and volumes are 0, the dollar value is NaN and the tick indexes are -1.
+     */
+    public Bar(long openTimestamp, double open, double high, double low, double close, long totalVolume) {
+        this(openTimestamp, open, high, low, close, totalVolume, openTimestamp, 0, 0, 0, Double.NaN, -1, -1);
+    }
+
+    /**
+     * @return The volume-weighted average price, dollarValue / totalVolume; NaN if the bar has no
+     * statistics or no volume.
+     */
+    public double vwap() {
+        return totalVolume == 0 ? Double.NaN : dollarValue / totalVolume;
+    }
 }
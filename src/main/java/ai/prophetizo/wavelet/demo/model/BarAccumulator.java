@@ -0,0 +1,325 @@
+package ai.prophetizo.wavelet.demo.model;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A mutable, primitive-backed accumulator for the bar that is currently being built.
+ * <p>
+ * Updating the accumulator never allocates; a {@link Bar} record is only materialized
+ * through {@link #toBar()} once the bar is complete, and {@link #emit(BarSink)} avoids even that.
+ * <p>
+ * A fixed-point accumulator, see {@link #BarAccumulator(PriceScale)}, is fed whole numbers of
+ * price ticks through {@link #startTicks} and {@link #addTicks}: its open, high, low, close and
+ * dollar value are integer maxima, minima and sums, exact in any order, and are only converted to
+ * doubles when the bar is emitted.
+ */
+final class BarAccumulator {
+
+    // The price grid of a fixed-point accumulator, null if prices are doubles
+    private final PriceScale scale;
+
+    private boolean active;
+    private long openTimestamp;
+    private long closeTimestamp;
+    private double open;
+    private double high;
+    private double low;
+    private double close;
+    private long volume;
+    private long tickCount;
+    private double dollarValue;
+    private long buyVolume;
+    private long sellVolume;
+    private long firstTickIndex;
+    // The prices and dollar value of a fixed-point bar, in price ticks
+    private long openTicks;
+    private long highTicks;
+    private long lowTicks;
+    private long closeTicks;
+    private long dollarTicks;
+
+    /**
+     * Creates an accumulator for prices given as doubles.
+     */
+    BarAccumulator() {
+        this(null);
+    }
+
+    /**
+     * Creates a fixed-point accumulator for prices given as price ticks of a scale.
+     */
+    BarAccumulator(PriceScale scale) {
+        this.scale = scale;
+    }
+
+    /**
+     * Starts a new bar with its first tick.
+     *
+     * @param openTimestamp The timestamp reported as the bar's opening time.
+     * @param timestamp     The timestamp of the first tick.
+     * @param price         The price of the first tick.
+     * @param volume        The volume of the first tick.
+     * @param side          The aggressor side of the first tick as a {@link Side#code()}.
+     * @param index         The index of the first tick in the input; later ticks must follow it contiguously.
+     */
+    void start(long openTimestamp, long timestamp, double price, int volume, byte side, long index) {
+        this.active = true;
+        this.openTimestamp = openTimestamp;
+        this.closeTimestamp = timestamp;
+        this.open = price;
+        this.high = price;
+        this.low = price;
+        this.close = price;
+        this.volume = volume;
+        this.tickCount = 1;
+        this.dollarValue = price * volume;
+        this.buyVolume = side > 0 ? volume : 0;
+        this.sellVolume = side < 0 ? volume : 0;
+        this.firstTickIndex = index;
+    }
+
+    /**
+     * Adds the next tick to the bar that is currently open.
+     */
+    void add(long timestamp, double price, int volume, byte side) {
+        high = Math.max(high, price);
+        low = Math.min(low, price);
+        close = price;
+        closeTimestamp = timestamp;
+        this.volume += volume;
+        tickCount++;
+        dollarValue += price * volume;
+        buyVolume += side > 0 ? volume : 0;
+        sellVolume += side < 0 ? volume : 0;
+    }
+
+    /**
+     * Starts a new fixed-point bar with its first tick, see {@link #start(long, long, double, int, byte, long)}.
+     *
+     * @param priceTicks The price of the first tick, in price ticks.
+     */
+    void startTicks(long openTimestamp, long timestamp, long priceTicks, int volume, byte side, long index) {
+        this.active = true;
+        this.openTimestamp = openTimestamp;
+        this.closeTimestamp = timestamp;
+        this.openTicks = priceTicks;
+        this.highTicks = priceTicks;
+        this.lowTicks = priceTicks;
+        this.closeTicks = priceTicks;
+        this.volume = volume;
+        this.tickCount = 1;
+        this.dollarTicks = priceTicks * volume;
+        this.buyVolume = side > 0 ? volume : 0;
+        this.sellVolume = side < 0 ? volume : 0;
+        this.firstTickIndex = index;
+    }
+
+    /**
+     * Adds the next tick, priced in price ticks, to the fixed-point bar that is currently open.
+     */
+    void addTicks(long timestamp, long priceTicks, int volume, byte side) {
+        highTicks = Math.max(highTicks, priceTicks);
+        lowTicks = Math.min(lowTicks, priceTicks);
+        closeTicks = priceTicks;
+        closeTimestamp = timestamp;
+        this.volume += volume;
+        tickCount++;
+        dollarTicks += priceTicks * volume;
+        buyVolume += side > 0 ? volume : 0;
+        sellVolume += side < 0 ? volume : 0;
+    }
+
+    /**
+     * Starts a new bar from a closed finer-grained bar.
+     *
+     * @param openTimestamp The timestamp reported as the bar's opening time.
+     * @param finer         The accumulator holding the finer bar.
+     */
+    void start(long openTimestamp, BarAccumulator finer) {
+        this.active = true;
+        this.openTimestamp = openTimestamp;
+        this.closeTimestamp = finer.closeTimestamp;
+        this.open = finer.open;
+        this.high = finer.high;
+        this.low = finer.low;
+        this.close = finer.close;
+        this.volume = finer.volume;
+        this.tickCount = finer.tickCount;
+        this.dollarValue = finer.dollarValue;
+        this.buyVolume = finer.buyVolume;
+        this.sellVolume = finer.sellVolume;
+        this.firstTickIndex = finer.firstTickIndex;
+    }
+
+    /**
+     * Merges the next closed finer-grained bar into the bar that is currently open.
+     */
+    void add(BarAccumulator finer) {
+        high = Math.max(high, finer.high);
+        low = Math.min(low, finer.low);
+        close = finer.close;
+        closeTimestamp = finer.closeTimestamp;
+        volume += finer.volume;
+        tickCount += finer.tickCount;
+        dollarValue += finer.dollarValue;
+        buyVolume += finer.buyVolume;
+        sellVolume += finer.sellVolume;
+    }
+
+    /**
+     * Marks the accumulator as empty so that the next tick starts a new bar.
+     */
+    void reset() {
+        active = false;
+    }
+
+    boolean isActive() {
+        return active;
+    }
+
+    long openTimestamp() {
+        return openTimestamp;
+    }
+
+    double high() {
+        return scale != null ? scale.toPrice(highTicks) : high;
+    }
+
+    double low() {
+        return scale != null ? scale.toPrice(lowTicks) : low;
+    }
+
+    double close() {
+        return scale != null ? scale.toPrice(closeTicks) : close;
+    }
+
+    /**
+     * @return The high minus the low of a fixed-point bar, in price ticks.
+     */
+    long rangeTicks() {
+        return highTicks - lowTicks;
+    }
+
+    long volume() {
+        return volume;
+    }
+
+    long tickCount() {
+        return tickCount;
+    }
+
+    double dollarValue() {
+        return scale != null ? scale.toPrice(dollarTicks) : dollarValue;
+    }
+
+    /**
+     * @return The sum of price * volume over the ticks of a fixed-point bar, in price ticks.
+     */
+    long dollarTicks() {
+        return dollarTicks;
+    }
+
+    /**
+     * Replaces the open and close of the bar by the levels of a Renko brick, keeping its tick
+     * statistics; the high and low stay those of the ticks, widened to include both levels.
+     */
+    void setBrick(double open, double close) {
+        this.open = open;
+        this.close = close;
+        this.high = Math.max(high, Math.max(open, close));
+        this.low = Math.min(low, Math.min(open, close));
+    }
+
+    /**
+     * Replaces the open and close of a fixed-point bar by the levels of a Renko brick in price
+     * ticks, see {@link #setBrick(double, double)}.
+     */
+    void setBrickTicks(long open, long close) {
+        this.openTicks = open;
+        this.closeTicks = close;
+        this.highTicks = Math.max(highTicks, Math.max(open, close));
+        this.lowTicks = Math.min(lowTicks, Math.min(open, close));
+    }
+
+    /**
+     * The size of the state written by {@link #writeTo(ByteBuffer)}.
+     */
+    static final int BYTES = 1 + 12 * 8;
+
+    /**
+     * Writes the complete state, including whether a bar is open. A fixed-point accumulator
+     * writes its prices and dollar value in price ticks.
+     */
+    void writeTo(ByteBuffer out) {
+        out.put(active ? (byte) 1 : (byte) 0).putLong(openTimestamp).putLong(closeTimestamp);
+        if (scale != null) {
+            out.putLong(openTicks).putLong(highTicks).putLong(lowTicks).putLong(closeTicks);
+        } else {
+            out.putDouble(open).putDouble(high).putDouble(low).putDouble(close);
+        }
+        out.putLong(volume).putLong(tickCount);
+        if (scale != null) {
+            out.putLong(dollarTicks);
+        } else {
+            out.putDouble(dollarValue);
+        }
+        out.putLong(buyVolume).putLong(sellVolume).putLong(firstTickIndex);
+    }
+
+    /**
+     * Replaces the state with one written by {@link #writeTo(ByteBuffer)}.
+     */
+    void readFrom(ByteBuffer in) {
+        active = in.get() != 0;
+        openTimestamp = in.getLong();
+        closeTimestamp = in.getLong();
+        if (scale != null) {
+            openTicks = in.getLong();
+            highTicks = in.getLong();
+            lowTicks = in.getLong();
+            closeTicks = in.getLong();
+        } else {
+            open = in.getDouble();
+            high = in.getDouble();
+            low = in.getDouble();
+            close = in.getDouble();
+        }
+        volume = in.getLong();
+        tickCount = in.getLong();
+        if (scale != null) {
+            dollarTicks = in.getLong();
+        } else {
+            dollarValue = in.getDouble();
+        }
+        buyVolume = in.getLong();
+        sellVolume = in.getLong();
+        firstTickIndex = in.getLong();
+    }
+
+    /**
+     * Hands the accumulated state to a primitive sink, without materializing a bar.
+     */
+    void emit(BarSink sink) {
+        if (scale != null) {
+            sink.onBar(openTimestamp, scale.toPrice(openTicks), scale.toPrice(highTicks), scale.toPrice(lowTicks),
+                    scale.toPrice(closeTicks), volume, closeTimestamp, tickCount, buyVolume, sellVolume,
+                    scale.toPrice(dollarTicks), firstTickIndex, firstTickIndex + tickCount - 1);
+            return;
+        }
+        sink.onBar(openTimestamp, open, high, low, close, volume, closeTimestamp, tickCount,
+                buyVolume, sellVolume, dollarValue, firstTickIndex, firstTickIndex + tickCount - 1);
+    }
+
+    /**
+     * Materializes the accumulated state as an immutable bar.
+     */
+    Bar toBar() {
+        if (scale != null) {
+            return new Bar(openTimestamp, scale.toPrice(openTicks), scale.toPrice(highTicks), scale.toPrice(lowTicks),
+                    scale.toPrice(closeTicks), volume, closeTimestamp, tickCount, buyVolume, sellVolume,
+                    scale.toPrice(dollarTicks), firstTickIndex, firstTickIndex + tickCount - 1);
+        }
+        return new Bar(openTimestamp, open, high, low, close, volume, closeTimestamp, tickCount,
+                buyVolume, sellVolume, dollarValue, firstTickIndex, firstTickIndex + tickCount - 1);
+    }
+}
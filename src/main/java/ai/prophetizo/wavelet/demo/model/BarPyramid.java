@@ -0,0 +1,212 @@
+package ai.prophetizo.wavelet.demo.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds TIME bars at several nested resolutions (e.g. 1s, 5s, 1m, 5m, 15m, 1h) in a single
+ * pass over the ticks.
+ * <p>
+ * Only the finest level looks at ticks; every coarser level is built by merging the closed
+ * bars of the level below it. Because each threshold is a multiple of the previous one, the
+ * bars of every level are identical to those of a {@code Resampler(ResampleType.TIME, threshold)}
+ * run over the same ticks, except that a coarse bar's dollar value is summed from the finer bars'
+ * subtotals and so only equals the tick-by-tick sum within rounding; the ticks are scanned once
+ * instead of once per resolution.
+ * A streaming BarPyramid is not thread-safe.
+ */
+public class BarPyramid implements TickSink {
+
+    /**
+     * Receives the bars of every level as they close.
+     */
+    @FunctionalInterface
+    public interface Listener {
+
+        /**
+         * @param level The index of the bar's resolution in the pyramid's thresholds, 0 being the finest.
+         * @param bar   The closed bar.
+         */
+        void onBar(int level, Bar bar);
+    }
+
+    private final long[] thresholds;
+    private final Listener listener;
+
+    // Streaming state, one entry per level
+    private final BarAccumulator[] levels;
+    private final long[] barEndTimes;
+    private long tickIndex;
+
+    /**
+     * Constructs a BarPyramid for the given resolutions.
+     *
+     * @param thresholds The bar durations in milliseconds, finest first; each must be a multiple of the previous one.
+     * @throws IllegalArgumentException if the thresholds are empty, not positive or not nested.
+     */
+    public BarPyramid(long... thresholds) {
+        this(thresholds, null);
+    }
+
+    /**
+     * Constructs a streaming BarPyramid that reports every closed bar to a listener.
+     *
+     * @param thresholds The bar durations in milliseconds, finest first; each must be a multiple of the previous one.
+     * @param listener   Receives each bar as soon as it closes; may be null if only the batch API is used.
+     * @throws IllegalArgumentException if the thresholds are empty, not positive or not nested.
+     */
+    public BarPyramid(long[] thresholds, Listener listener) {
+        if (thresholds.length == 0) {
+            throw new IllegalArgumentException("At least one threshold is required.");
+        }
+        for (int i = 0; i < thresholds.length; i++) {
+            if (thresholds[i] <= 0) {
+                throw new IllegalArgumentException("Threshold must be positive.");
+            }
+            if (i > 0 && (thresholds[i] <= thresholds[i - 1] || thresholds[i] % thresholds[i - 1] != 0)) {
+                throw new IllegalArgumentException("Each threshold must be a larger multiple of the previous one.");
+            }
+        }
+        this.thresholds = thresholds.clone();
+        this.listener = listener;
+        this.levels = new BarAccumulator[thresholds.length];
+        for (int i = 0; i < levels.length; i++) {
+            levels[i] = new BarAccumulator();
+        }
+        this.barEndTimes = new long[thresholds.length];
+    }
+
+    /**
+     * @return The number of resolutions in the pyramid.
+     */
+    public int levelCount() {
+        return thresholds.length;
+    }
+
+    /**
+     * @return The bar duration of a level in milliseconds.
+     */
+    public long threshold(int level) {
+        return thresholds[level];
+    }
+
+    /**
+     * Resamples a list of ticks into bars at every resolution.
+     * Each call is independent of any streaming state held by this instance.
+     *
+     * @param ticks A chronological list of Tick objects.
+     * @return One list of bars per level, in the order of the thresholds.
+     */
+    public List<List<Bar>> resample(List<Tick> ticks) {
+        List<List<Bar>> bars = emptyLevels();
+        if (ticks == null || ticks.isEmpty()) {
+            return bars;
+        }
+        BarPyramid stream = new BarPyramid(thresholds, (level, bar) -> bars.get(level).add(bar));
+        for (Tick tick : ticks) {
+            stream.onTick(tick.timestamp(), tick.price(), tick.volume(), tick.side().code());
+        }
+        stream.flush();
+        return bars;
+    }
+
+    /**
+     * Resamples the ticks held in a columnar buffer into bars at every resolution.
+     *
+     * @param ticks A buffer of chronologically ordered ticks.
+     * @return One list of bars per level, in the order of the thresholds.
+     */
+    public List<List<Bar>> resampleBuffer(TickBuffer ticks) {
+        List<List<Bar>> bars = emptyLevels();
+        BarPyramid stream = new BarPyramid(thresholds, (level, bar) -> bars.get(level).add(bar));
+        long[] timestamps = ticks.timestamps();
+        double[] prices = ticks.prices();
+        int[] volumes = ticks.volumes();
+        byte[] sides = ticks.sides();
+        for (int i = 0, n = ticks.size(); i < n; i++) {
+            stream.onTick(timestamps[i], prices[i], volumes[i], sides[i]);
+        }
+        stream.flush();
+        return bars;
+    }
+
+    private List<List<Bar>> emptyLevels() {
+        List<List<Bar>> bars = new ArrayList<>(thresholds.length);
+        for (int i = 0; i < thresholds.length; i++) {
+            bars.add(new ArrayList<>());
+        }
+        return bars;
+    }
+
+    /**
+     * Pushes a single tick into the finest level. Closing a bar cascades into the coarser levels.
+     *
+     * @param timestamp The tick timestamp in milliseconds; ticks must arrive in chronological order.
+     * @param price     The traded price.
+     * @param volume    The traded volume.
+     */
+    public void onTick(long timestamp, double price, int volume) {
+        onTick(timestamp, price, volume, Side.UNKNOWN.code());
+    }
+
+    /**
+     * Pushes a single tick with its aggressor side into the finest level, see {@link #onTick(long, double, int)}.
+     *
+     * @param side The aggressor side as a {@link Side#code()}.
+     */
+    @Override
+    public void onTick(long timestamp, double price, int volume, byte side) {
+        BarAccumulator finest = levels[0];
+        if (finest.isActive() && timestamp >= barEndTimes[0]) {
+            closeLevel(0);
+        }
+        if (finest.isActive()) {
+            finest.add(timestamp, price, volume, side);
+        } else {
+            long barStartTime = timestamp - (timestamp % thresholds[0]);
+            barEndTimes[0] = barStartTime + thresholds[0];
+            finest.start(barStartTime, timestamp, price, volume, side, tickIndex);
+        }
+        tickIndex++;
+    }
+
+    /**
+     * Emits the open bar of every level, finest first, even though they have not reached their end time.
+     */
+    public void flush() {
+        for (int level = 0; level < levels.length; level++) {
+            if (levels[level].isActive()) {
+                closeLevel(level);
+            }
+        }
+    }
+
+    /**
+     * Emits the open bar of a level and merges it into the next coarser level.
+     */
+    private void closeLevel(int level) {
+        BarAccumulator closed = levels[level];
+        if (listener != null) {
+            listener.onBar(level, closed.toBar());
+        }
+        if (level + 1 < levels.length) {
+            mergeInto(level + 1, closed);
+        }
+        closed.reset();
+    }
+
+    private void mergeInto(int level, BarAccumulator finer) {
+        BarAccumulator coarser = levels[level];
+        long finerOpenTime = finer.openTimestamp();
+        if (coarser.isActive() && finerOpenTime >= barEndTimes[level]) {
+            closeLevel(level);
+        }
+        if (coarser.isActive()) {
+            coarser.add(finer);
+        } else {
+            long barStartTime = finerOpenTime - (finerOpenTime % thresholds[level]);
+            barEndTimes[level] = barStartTime + thresholds[level];
+            coarser.start(barStartTime, finer);
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package ai.prophetizo.wavelet.demo.model;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Reduces a range of ticks whose bar boundaries are already known into a single {@link Bar}.
+ * <p>
+ * The high, low and volume are order-independent reductions, so they are computed with the
+ * {@code jdk.incubator.vector} API: one lane-wise max, min and sum per vector of prices and
+ * volumes, followed by a single cross-lane reduction per bar. The dollar value and the buy and
+ * sell volumes are summed by a scalar loop in tick order, so every bar is bit-for-bit identical
+ * to the one a {@link Resampler} builds tick by tick.
+ * <p>
+ * The vector kernel is used when the {@code jdk.incubator.vector} module is resolved (run with
+ * {@code --add-modules jdk.incubator.vector}) and the platform has vectors of at least two
+ * doubles; otherwise, and for bars shorter than a few vectors, the reduction falls back to scalar loops.
+ */
+public final class BarReduction {
+
+    private static final boolean VECTORIZED = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()
+            && VectorKernel.isSupported();
+
+    private BarReduction() {
+    }
+
+    /**
+     * @return Whether {@link #reduce(TickBuffer, int, int)} runs the vector kernel on this JVM.
+     */
+    public static boolean isVectorized() {
+        return VECTORIZED;
+    }
+
+    /**
+     * Reduces the ticks {@code [from, to)} of a buffer into one bar, using the vector kernel when available.
+     *
+     * @param ticks The buffer holding the ticks.
+     * @param from  The index of the first tick of the bar.
+     * @param to    The index after the last tick of the bar; must be greater than {@code from}.
+     * @return The bar, opened at the timestamp of its first tick, with tick indexes relative to the buffer.
+     * @throws IndexOutOfBoundsException if the range is empty or outside the buffer.
+     */
+    public static Bar reduce(TickBuffer ticks, int from, int to) {
+        return reduce(ticks, from, to, VECTORIZED);
+    }
+
+    /**
+     * Reduces the ticks {@code [from, to)} of a buffer into one bar with scalar loops only,
+     * see {@link #reduce(TickBuffer, int, int)}.
+     */
+    public static Bar reduceScalar(TickBuffer ticks, int from, int to) {
+        return reduce(ticks, from, to, false);
+    }
+
+    private static Bar reduce(TickBuffer ticks, int from, int to, boolean vectorized) {
+        if (from < 0 || from >= to || to > ticks.size()) {
+            throw new IndexOutOfBoundsException("Invalid tick range [" + from + ", " + to + ").");
+        }
+        long[] timestamps = ticks.timestamps();
+        double[] prices = ticks.prices();
+        int[] volumes = ticks.volumes();
+        byte[] sides = ticks.sides();
+
+        double high;
+        double low;
+        long volume;
+        if (vectorized && to - from >= VectorKernel.MIN_LENGTH) {
+            high = VectorKernel.max(prices, from, to);
+            low = VectorKernel.min(prices, from, to);
+            volume = VectorKernel.sum(volumes, from, to);
+        } else {
+            high = max(prices, from, to);
+            low = min(prices, from, to);
+            volume = sum(volumes, from, to);
+        }
+
+        // Floating-point addition is not associative, so the dollar value keeps the tick order
+        double dollarValue = 0.0;
+        long buyVolume = 0;
+        long sellVolume = 0;
+        for (int i = from; i < to; i++) {
+            int v = volumes[i];
+            dollarValue += prices[i] * v;
+            buyVolume += sides[i] > 0 ? v : 0;
+            sellVolume += sides[i] < 0 ? v : 0;
+        }
+
+        return new Bar(timestamps[from], prices[from], high, low, prices[to - 1], volume, timestamps[to - 1],
+                to - from, buyVolume, sellVolume, dollarValue, from, to - 1);
+    }
+
+    private static double max(double[] values, int from, int to) {
+        double max = values[from];
+        for (int i = from + 1; i < to; i++) {
+            max = Math.max(max, values[i]);
+        }
+        return max;
+    }
+
+    private static double min(double[] values, int from, int to) {
+        double min = values[from];
+        for (int i = from + 1; i < to; i++) {
+            min = Math.min(min, values[i]);
+        }
+        return min;
+    }
+
+    private static long sum(int[] values, int from, int to) {
+        long sum = 0;
+        for (int i = from; i < to; i++) {
+            sum += values[i];
+        }
+        return sum;
+    }
+
+    /**
+     * The vector kernels. Kept in a nested class so that the incubator classes are only loaded
+     * once the module is known to be present.
+     */
+    private static final class VectorKernel {
+
+        private static final VectorSpecies<Double> DOUBLES = DoubleVector.SPECIES_PREFERRED;
+        private static final VectorSpecies<Long> LONGS = LongVector.SPECIES_PREFERRED;
+        // Half the shape of the longs, so that one vector of volumes widens into one vector of longs
+        private static final VectorSpecies<Integer> INTS = VectorSpecies.of(int.class,
+                VectorShape.forBitSize(Math.max(LONGS.vectorBitSize() / 2, 64)));
+        static final int LANES = DOUBLES.length();
+        // Below a few vectors the cross-lane reductions cost more than the scalar loops
+        static final int MIN_LENGTH = 4 * LANES;
+
+        static boolean isSupported() {
+            return LANES >= 2 && INTS.length() == LONGS.length();
+        }
+
+        static double max(double[] values, int from, int to) {
+            DoubleVector max = DoubleVector.fromArray(DOUBLES, values, from);
+            int i = from + LANES;
+            for (int bound = from + DOUBLES.loopBound(to - from); i < bound; i += LANES) {
+                max = max.max(DoubleVector.fromArray(DOUBLES, values, i));
+            }
+            double result = max.reduceLanes(VectorOperators.MAX);
+            for (; i < to; i++) {
+                result = Math.max(result, values[i]);
+            }
+            return result;
+        }
+
+        static double min(double[] values, int from, int to) {
+            DoubleVector min = DoubleVector.fromArray(DOUBLES, values, from);
+            int i = from + LANES;
+            for (int bound = from + DOUBLES.loopBound(to - from); i < bound; i += LANES) {
+                min = min.min(DoubleVector.fromArray(DOUBLES, values, i));
+            }
+            double result = min.reduceLanes(VectorOperators.MIN);
+            for (; i < to; i++) {
+                result = Math.min(result, values[i]);
+            }
+            return result;
+        }
+
+        static long sum(int[] values, int from, int to) {
+            int lanes = INTS.length();
+            LongVector sum = LongVector.zero(LONGS);
+            int i = from;
+            for (int bound = from + INTS.loopBound(to - from); i < bound; i += lanes) {
+                // Widen before adding: a long bar can overflow int lanes
+                sum = sum.add(IntVector.fromArray(INTS, values, i).convertShape(VectorOperators.I2L, LONGS, 0));
+            }
+            long result = sum.reduceLanes(VectorOperators.ADD);
+            for (; i < to; i++) {
+                result += values[i];
+            }
+            return result;
+        }
+    }
+}
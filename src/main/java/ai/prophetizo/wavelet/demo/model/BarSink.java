@@ -0,0 +1,36 @@
+package ai.prophetizo.wavelet.demo.model;
+
+/**
+ * A primitive consumer of OHLCV bars, used to fuse resampling with whatever consumes the bars
+ * without materializing a {@link Bar} per bar or collecting the bars into a list.
+ * <p>
+ * The Resampler delivers every bar through {@link #onBar(long, double, double, double, double, long,
+ * long, long, long, long, double, long, long)}, which carries all the components of a {@link Bar}
+ * and by default forwards the OHLCV to the abstract method; sinks that store the full bar, such as
+ * {@link OffHeapBarBuffer}, override it.
+ */
+@FunctionalInterface
+public interface BarSink {
+
+    /**
+     * Receives a single closed bar.
+     *
+     * @param openTimestamp The starting timestamp of the bar.
+     * @param open          The opening price of the bar.
+     * @param high          The highest price during the bar's duration.
+     * @param low           The lowest price during the bar's duration.
+     * @param close         The closing price of the bar.
+     * @param volume        The total traded volume during the bar's duration.
+     */
+    void onBar(long openTimestamp, double open, double high, double low, double close, long volume);
+
+    /**
+     * Receives a single closed bar with all of its components, as described by {@link Bar}.
+     * The default implementation forwards the OHLCV to {@link #onBar(long, double, double, double, double, long)}.
+     */
+    default void onBar(long openTimestamp, double open, double high, double low, double close, long volume,
+                       long closeTimestamp, long tradeCount, long buyVolume, long sellVolume, double dollarValue,
+                       long firstTickIndex, long lastTickIndex) {
+        onBar(openTimestamp, open, high, low, close, volume);
+    }
+}
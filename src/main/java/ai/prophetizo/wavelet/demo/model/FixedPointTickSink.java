@@ -0,0 +1,20 @@
+package ai.prophetizo.wavelet.demo.model;
+
+/**
+ * A primitive consumer of ticks whose prices are whole numbers of price ticks, see
+ * {@link PriceScale}. The fixed-point counterpart of {@link TickSink}, whose method it does not
+ * overload, so that a price given as an int literal never passes for a number of price ticks.
+ */
+@FunctionalInterface
+public interface FixedPointTickSink {
+
+    /**
+     * Receives a single tick.
+     *
+     * @param timestamp  The tick timestamp in milliseconds.
+     * @param priceTicks The traded price as a number of price ticks.
+     * @param volume     The traded volume.
+     * @param side       The aggressor side as a {@link Side#code()}.
+     */
+    void onPriceTicks(long timestamp, long priceTicks, int volume, byte side);
+}
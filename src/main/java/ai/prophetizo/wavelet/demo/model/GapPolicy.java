@@ -0,0 +1,13 @@
+package ai.prophetizo.wavelet.demo.model;
+
+/**
+ * What a TIME {@link Resampler} emits for intervals in which no tick traded.
+ * <p>
+ * Filled bars have no ticks: their volumes, trade count and dollar value are 0, their close
+ * timestamp is their open timestamp and their tick indexes are -1.
+ */
+public enum GapPolicy {
+    SKIP,         // Emit nothing; the next bar opens in the interval of the next tick.
+    FORWARD_FILL, // Emit a flat bar at the previous close for every empty interval.
+    EMPTY_NAN     // Emit a bar with NaN prices for every empty interval.
+}
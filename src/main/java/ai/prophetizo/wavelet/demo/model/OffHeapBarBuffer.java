@@ -0,0 +1,250 @@
+package ai.prophetizo.wavelet.demo.model;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.util.Objects;
+
+import static java.lang.foreign.ValueLayout.JAVA_DOUBLE;
+import static java.lang.foreign.ValueLayout.JAVA_LONG;
+
+/**
+ * A columnar store of bars held outside the Java heap, holding every {@link Bar} component in
+ * its own column of 8-byte values.
+ * <p>
+ * The buffer is a {@link BarSink}, so it can be passed directly to the Resampler's sink variants;
+ * the bars' primitive components are written straight into the columns as the bars close, and the
+ * buffer doubles its capacity as needed. The memory belongs to an {@link Arena}, as for
+ * {@link OffHeapTickBuffer}: a buffer that owns its arena uses a confined one, which can only be
+ * accessed by the thread that allocated the buffer and is cheap to replace when growing, and frees
+ * it on {@link #close()}; a buffer allocated from a caller's arena leaves outgrown columns, at most
+ * as large as the current ones, to be freed with that arena. An OffHeapBarBuffer is not thread-safe.
+ */
+public final class OffHeapBarBuffer implements BarSink, AutoCloseable {
+
+    private static final int COLUMNS = 13;
+    private static final int OPEN_TIMESTAMP = 0;
+    private static final int OPEN = 1;
+    private static final int HIGH = 2;
+    private static final int LOW = 3;
+    private static final int CLOSE = 4;
+    private static final int TOTAL_VOLUME = 5;
+    private static final int CLOSE_TIMESTAMP = 6;
+    private static final int TRADE_COUNT = 7;
+    private static final int BUY_VOLUME = 8;
+    private static final int SELL_VOLUME = 9;
+    private static final int DOLLAR_VALUE = 10;
+    private static final int FIRST_TICK_INDEX = 11;
+    private static final int LAST_TICK_INDEX = 12;
+
+    private static final long DEFAULT_CAPACITY = 1024;
+
+    private final Arena callerArena;
+    private Arena ownedArena;
+    private MemorySegment data;
+    private long capacity;
+    private long size;
+
+    private OffHeapBarBuffer(Arena callerArena, Arena ownedArena, long capacity) {
+        this.callerArena = callerArena;
+        this.ownedArena = ownedArena;
+        this.capacity = capacity;
+        this.data = allocateColumns(callerArena != null ? callerArena : ownedArena, capacity);
+    }
+
+    /**
+     * Allocates a growable buffer in its own arena, freed by {@link #close()}.
+     */
+    public static OffHeapBarBuffer allocate() {
+        return allocate(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Allocates a growable buffer in its own arena, freed by {@link #close()}.
+     *
+     * @param initialCapacity The number of bars to allocate room for up front.
+     * @throws IllegalArgumentException if the capacity is negative.
+     */
+    public static OffHeapBarBuffer allocate(long initialCapacity) {
+        checkCapacity(initialCapacity);
+        Arena arena = Arena.ofConfined();
+        try {
+            return new OffHeapBarBuffer(null, arena, initialCapacity);
+        } catch (RuntimeException | Error e) {
+            arena.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Allocates a growable buffer in a caller-owned arena; the memory is freed when that arena is closed.
+     *
+     * @param arena           The arena that owns the memory.
+     * @param initialCapacity The number of bars to allocate room for up front.
+     * @throws IllegalArgumentException if the capacity is negative.
+     */
+    public static OffHeapBarBuffer allocate(Arena arena, long initialCapacity) {
+        checkCapacity(initialCapacity);
+        return new OffHeapBarBuffer(Objects.requireNonNull(arena, "arena"), null, initialCapacity);
+    }
+
+    private static void checkCapacity(long capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity must not be negative.");
+        }
+    }
+
+    private static MemorySegment allocateColumns(Arena arena, long capacity) {
+        return arena.allocate(COLUMNS * capacity * Long.BYTES, Long.BYTES);
+    }
+
+    /**
+     * Appends a bar.
+     *
+     * @throws IllegalStateException if the buffer's memory was freed.
+     */
+    public void add(Bar bar) {
+        onBar(bar.openTimestamp(), bar.open(), bar.high(), bar.low(), bar.close(), bar.totalVolume(),
+                bar.closeTimestamp(), bar.tradeCount(), bar.buyVolume(), bar.sellVolume(), bar.dollarValue(),
+                bar.firstTickIndex(), bar.lastTickIndex());
+    }
+
+    /**
+     * Appends an OHLCV bar, filling the remaining components as {@link Bar}'s OHLCV constructor does.
+     *
+     * @throws IllegalStateException if the buffer's memory was freed.
+     */
+    @Override
+    public void onBar(long openTimestamp, double open, double high, double low, double close, long volume) {
+        onBar(openTimestamp, open, high, low, close, volume, openTimestamp, 0, 0, 0, Double.NaN, -1, -1);
+    }
+
+    /**
+     * Appends a bar from its components.
+     *
+     * @throws IllegalStateException if the buffer's memory was freed.
+     */
+    @Override
+    public void onBar(long openTimestamp, double open, double high, double low, double close, long volume,
+                      long closeTimestamp, long tradeCount, long buyVolume, long sellVolume, double dollarValue,
+                      long firstTickIndex, long lastTickIndex) {
+        if (size == capacity) {
+            grow();
+        }
+        setLong(OPEN_TIMESTAMP, size, openTimestamp);
+        setDouble(OPEN, size, open);
+        setDouble(HIGH, size, high);
+        setDouble(LOW, size, low);
+        setDouble(CLOSE, size, close);
+        setLong(TOTAL_VOLUME, size, volume);
+        setLong(CLOSE_TIMESTAMP, size, closeTimestamp);
+        setLong(TRADE_COUNT, size, tradeCount);
+        setLong(BUY_VOLUME, size, buyVolume);
+        setLong(SELL_VOLUME, size, sellVolume);
+        setDouble(DOLLAR_VALUE, size, dollarValue);
+        setLong(FIRST_TICK_INDEX, size, firstTickIndex);
+        setLong(LAST_TICK_INDEX, size, lastTickIndex);
+        size++;
+    }
+
+    /**
+     * Moves the bars into columns of twice the capacity. An owned buffer allocates them in a new
+     * arena and only closes the old one once the bars are copied, so a failed allocation or copy
+     * leaves the buffer as it was.
+     */
+    private void grow() {
+        long newCapacity = Math.max(DEFAULT_CAPACITY, capacity << 1);
+        Arena arena = callerArena != null ? callerArena : Arena.ofConfined();
+        MemorySegment grown;
+        try {
+            grown = allocateColumns(arena, newCapacity);
+            for (int column = 0; column < COLUMNS; column++) {
+                MemorySegment.copy(data, column * capacity * Long.BYTES, grown, column * newCapacity * Long.BYTES,
+                        size * Long.BYTES);
+            }
+        } catch (RuntimeException | Error e) {
+            if (arena != callerArena) {
+                arena.close();
+            }
+            throw e;
+        }
+        if (arena != callerArena) {
+            ownedArena.close();
+            ownedArena = arena;
+        }
+        data = grown;
+        capacity = newCapacity;
+    }
+
+    /**
+     * Removes all bars while keeping the allocated memory.
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    public long size() {
+        return size;
+    }
+
+    public long capacity() {
+        return capacity;
+    }
+
+    /**
+     * Materializes the bar at an index as a record.
+     */
+    public Bar get(long index) {
+        Objects.checkIndex(index, size);
+        return new Bar(getLong(OPEN_TIMESTAMP, index), getDouble(OPEN, index), getDouble(HIGH, index),
+                getDouble(LOW, index), getDouble(CLOSE, index), getLong(TOTAL_VOLUME, index),
+                getLong(CLOSE_TIMESTAMP, index), getLong(TRADE_COUNT, index), getLong(BUY_VOLUME, index),
+                getLong(SELL_VOLUME, index), getDouble(DOLLAR_VALUE, index), getLong(FIRST_TICK_INDEX, index),
+                getLong(LAST_TICK_INDEX, index));
+    }
+
+    public long openTimestamp(long index) {
+        return getLong(OPEN_TIMESTAMP, Objects.checkIndex(index, size));
+    }
+
+    public double close(long index) {
+        return getDouble(CLOSE, Objects.checkIndex(index, size));
+    }
+
+    public long totalVolume(long index) {
+        return getLong(TOTAL_VOLUME, Objects.checkIndex(index, size));
+    }
+
+    /**
+     * @return The close prices as a {@code JAVA_DOUBLE} segment of {@link #size()} entries, valid until
+     * the buffer grows or is closed.
+     */
+    public MemorySegment closes() {
+        return data.asSlice(CLOSE * capacity * Long.BYTES, size * Long.BYTES);
+    }
+
+    private long getLong(int column, long index) {
+        return data.getAtIndex(JAVA_LONG, column * capacity + index);
+    }
+
+    private double getDouble(int column, long index) {
+        return data.getAtIndex(JAVA_DOUBLE, column * capacity + index);
+    }
+
+    private void setLong(int column, long index, long value) {
+        data.setAtIndex(JAVA_LONG, column * capacity + index, value);
+    }
+
+    private void setDouble(int column, long index, double value) {
+        data.setAtIndex(JAVA_DOUBLE, column * capacity + index, value);
+    }
+
+    /**
+     * Frees the memory if the buffer owns its arena; otherwise the memory lives until the caller's arena is closed.
+     */
+    @Override
+    public void close() {
+        if (ownedArena != null) {
+            ownedArena.close();
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package ai.prophetizo.wavelet.demo.model;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.util.Objects;
+
+import static java.lang.foreign.ValueLayout.JAVA_BYTE;
+import static java.lang.foreign.ValueLayout.JAVA_DOUBLE;
+import static java.lang.foreign.ValueLayout.JAVA_INT;
+import static java.lang.foreign.ValueLayout.JAVA_LONG;
+
+/**
+ * A columnar store of ticks held outside the Java heap, the off-heap counterpart of {@link TickBuffer}.
+ * <p>
+ * Timestamps, prices, volumes and sides live in four native {@link MemorySegment}s, so a store of
+ * billions of ticks is invisible to the garbage collector and indexed by {@code long}. The capacity
+ * is fixed at allocation. The memory belongs to an {@link Arena}: either one owned by the buffer,
+ * which {@link #close()} frees at once, or one supplied by the caller, which frees every buffer
+ * allocated from it when it is closed (for example all the symbols of one trading day).
+ * Accessing a buffer after its memory was freed throws {@link IllegalStateException}.
+ * <p>
+ * Appending is not thread-safe; once filled, a buffer owned by itself or allocated from a shared
+ * arena can be read by several threads.
+ */
+public final class OffHeapTickBuffer implements TickSink, AutoCloseable {
+
+    private final Arena ownedArena;
+    private final MemorySegment timestamps;
+    private final MemorySegment prices;
+    private final MemorySegment volumes;
+    private final MemorySegment sides;
+    private final long capacity;
+    private long size;
+
+    private OffHeapTickBuffer(Arena arena, boolean owned, long capacity) {
+        this.ownedArena = owned ? arena : null;
+        this.capacity = capacity;
+        this.timestamps = arena.allocate(JAVA_LONG.byteSize() * capacity, JAVA_LONG.byteAlignment());
+        this.prices = arena.allocate(JAVA_DOUBLE.byteSize() * capacity, JAVA_DOUBLE.byteAlignment());
+        this.volumes = arena.allocate(JAVA_INT.byteSize() * capacity, JAVA_INT.byteAlignment());
+        this.sides = arena.allocate(capacity, 1);
+    }
+
+    /**
+     * Allocates a buffer in its own shared arena, freed by {@link #close()}.
+     *
+     * @param capacity The maximum number of ticks.
+     * @throws IllegalArgumentException if the capacity is negative.
+     */
+    public static OffHeapTickBuffer allocate(long capacity) {
+        checkCapacity(capacity);
+        Arena arena = Arena.ofShared();
+        try {
+            return new OffHeapTickBuffer(arena, true, capacity);
+        } catch (RuntimeException | Error e) {
+            arena.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Allocates a buffer in a caller-owned arena; the memory is freed when that arena is closed.
+     *
+     * @param arena    The arena that owns the memory.
+     * @param capacity The maximum number of ticks.
+     * @throws IllegalArgumentException if the capacity is negative.
+     */
+    public static OffHeapTickBuffer allocate(Arena arena, long capacity) {
+        checkCapacity(capacity);
+        return new OffHeapTickBuffer(arena, false, capacity);
+    }
+
+    private static void checkCapacity(long capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity must not be negative.");
+        }
+    }
+
+    /**
+     * Appends a tick.
+     *
+     * @throws IllegalStateException if the buffer is full or its memory was freed.
+     */
+    public void add(long timestamp, double price, int volume, byte side) {
+        if (size == capacity) {
+            throw new IllegalStateException("OffHeapTickBuffer is full (capacity " + capacity + ").");
+        }
+        timestamps.setAtIndex(JAVA_LONG, size, timestamp);
+        prices.setAtIndex(JAVA_DOUBLE, size, price);
+        volumes.setAtIndex(JAVA_INT, size, volume);
+        sides.set(JAVA_BYTE, size, side);
+        size++;
+    }
+
+    @Override
+    public void onTick(long timestamp, double price, int volume, byte side) {
+        add(timestamp, price, volume, side);
+    }
+
+    /**
+     * Removes all ticks while keeping the allocated memory.
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    public long size() {
+        return size;
+    }
+
+    public long capacity() {
+        return capacity;
+    }
+
+    public long timestamp(long index) {
+        return timestamps.getAtIndex(JAVA_LONG, Objects.checkIndex(index, size));
+    }
+
+    public double price(long index) {
+        return prices.getAtIndex(JAVA_DOUBLE, Objects.checkIndex(index, size));
+    }
+
+    public int volume(long index) {
+        return volumes.getAtIndex(JAVA_INT, Objects.checkIndex(index, size));
+    }
+
+    public byte side(long index) {
+        return sides.get(JAVA_BYTE, Objects.checkIndex(index, size));
+    }
+
+    /**
+     * Materializes the tick at an index as a record.
+     */
+    public Tick get(long index) {
+        return new Tick(timestamp(index), price(index), volume(index), Side.fromCode(side(index)));
+    }
+
+    /**
+     * @return The timestamp column of {@code JAVA_LONG} values; only the first {@link #size()} entries are valid.
+     */
+    public MemorySegment timestamps() {
+        return timestamps;
+    }
+
+    /**
+     * @return The price column of {@code JAVA_DOUBLE} values; only the first {@link #size()} entries are valid.
+     */
+    public MemorySegment prices() {
+        return prices;
+    }
+
+    /**
+     * @return The volume column of {@code JAVA_INT} values; only the first {@link #size()} entries are valid.
+     */
+    public MemorySegment volumes() {
+        return volumes;
+    }
+
+    /**
+     * @return The side column of {@link Side#code()} bytes; only the first {@link #size()} entries are valid.
+     */
+    public MemorySegment sides() {
+        return sides;
+    }
+
+    /**
+     * Frees the memory if the buffer owns its arena; otherwise the memory lives until the caller's arena is closed.
+     */
+    @Override
+    public void close() {
+        if (ownedArena != null) {
+            ownedArena.close();
+        }
+    }
+}
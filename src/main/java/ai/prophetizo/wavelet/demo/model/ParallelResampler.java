@@ -0,0 +1,411 @@
+package ai.prophetizo.wavelet.demo.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+/**
+ * Resamples large tick histories on a {@link ForkJoinPool}, producing exactly the bars of a
+ * sequential {@link Resampler} with the same configuration.
+ * <p>
+ * The strategies are parallelized as follows:
+ * - TIME: the input is cut into chunks at bar boundaries (where the time bucket changes) and
+ * every chunk is resampled independently.
+ * - TICK: bar boundaries are multiples of the threshold, so bars are built independently.
+ * - VOLUME and DOLLAR: per-chunk prefix sums of the volume (or dollar value) are computed in
+ * parallel and combined with a scan of the chunk totals. Every bar starts where the previous one
+ * ended, so the bar boundaries are then resolved sequentially, by searching the prefix sums at a
+ * cost of O(log n) per bar rather than O(1) per tick; only the bars are built in parallel. Since summing dollar values in a different order can round
+ * differently, every DOLLAR bar is re-checked with the sequential summation order, and the
+ * rare input where a boundary would move is finished sequentially from that bar.
+ * - Imbalance and runs types: every bar depends on the averages of all earlier bars, so they are
+ * resampled sequentially.
+ * - RANGE and RENKO: every bar starts from where the previous one ended in price, so they are
+ * resampled sequentially, with the default {@link Resampler#DEFAULT_PRICE_SCALE}.
+ * <p>
+ * Once their boundaries are known, TICK and VOLUME bars are reduced by the SIMD kernel of
+ * {@link BarReduction} rather than tick by tick.
+ * <p>
+ * Ticks must be in chronological order and volumes must not be negative. Inputs smaller than
+ * a few chunks are resampled sequentially.
+ */
+public class ParallelResampler {
+
+    private static final int MIN_CHUNK_SIZE = 1 << 16;
+
+    private final ResampleType resampleType;
+    private final long threshold;
+    private final ForkJoinPool pool;
+    private final Resampler sequential;
+
+    /**
+     * Constructs a ParallelResampler that runs on the common pool.
+     *
+     * @param resampleType The type of resampling to perform. TIME, TICK, VOLUME and DOLLAR are parallelized;
+     *                     the imbalance, runs, RANGE and RENKO types fall back to a sequential Resampler.
+     * @param threshold    The value that defines when a bar is complete, see {@link Resampler#Resampler(ResampleType, long)}.
+     * @throws IllegalArgumentException if threshold is not positive.
+     */
+    public ParallelResampler(ResampleType resampleType, long threshold) {
+        this(resampleType, threshold, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructs a ParallelResampler that runs on the given pool.
+     *
+     * @param resampleType The type of resampling to perform. TIME, TICK, VOLUME and DOLLAR are parallelized;
+     *                     the imbalance, runs, RANGE and RENKO types fall back to a sequential Resampler.
+     * @param threshold    The value that defines when a bar is complete, see {@link Resampler#Resampler(ResampleType, long)}.
+     * @param pool         The pool that executes the chunks.
+     * @throws IllegalArgumentException if threshold is not positive.
+     */
+    public ParallelResampler(ResampleType resampleType, long threshold, ForkJoinPool pool) {
+        this.sequential = new Resampler(resampleType, threshold);
+        this.resampleType = resampleType;
+        this.threshold = threshold;
+        this.pool = pool;
+    }
+
+    /**
+     * Resamples a list of ticks into a list of bars.
+     *
+     * @param ticks A chronological list of Tick objects.
+     * @return A list of Bar objects, identical to {@link Resampler#resample(List)}.
+     */
+    public List<Bar> resample(List<Tick> ticks) {
+        if (ticks == null || ticks.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return resampleBuffer(TickBuffer.of(ticks));
+    }
+
+    /**
+     * Resamples the ticks held in a columnar buffer into a list of bars.
+     *
+     * @param ticks A buffer of chronologically ordered ticks.
+     * @return A list of Bar objects, identical to {@link Resampler#resampleBuffer(TickBuffer)}.
+     */
+    public List<Bar> resampleBuffer(TickBuffer ticks) {
+        int size = ticks.size();
+        int chunks = (int) Math.min(pool.getParallelism() * 4L, size / MIN_CHUNK_SIZE);
+        if (chunks < 2) {
+            return sequential.resampleBuffer(ticks);
+        }
+
+        return switch (resampleType) {
+            case TIME -> resampleByTime(ticks, chunks);
+            case TICK -> buildBars(ticks, tickBarStarts(size));
+            case VOLUME -> buildBars(ticks, volumeBarStarts(ticks, chunks));
+            case DOLLAR -> resampleByDollar(ticks, chunks);
+            case TICK_IMBALANCE, VOLUME_IMBALANCE, DOLLAR_IMBALANCE,
+                 TICK_RUNS, VOLUME_RUNS, DOLLAR_RUNS, RANGE, RENKO -> sequential.resampleBuffer(ticks);
+        };
+    }
+
+    /**
+     * Cuts the input where the time bucket changes, so that no bar spans two chunks,
+     * and resamples every chunk independently.
+     */
+    private List<Bar> resampleByTime(TickBuffer ticks, int chunks) {
+        long[] timestamps = ticks.timestamps();
+        int size = ticks.size();
+        int[] cuts = new int[chunks + 1];
+        cuts[chunks] = size;
+        for (int chunk = 1; chunk < chunks; chunk++) {
+            int cut = Math.max(cuts[chunk - 1], taskStart(chunk, chunks, size));
+            while (cut > 0 && cut < size && bucket(timestamps[cut]) == bucket(timestamps[cut - 1])) {
+                cut++;
+            }
+            cuts[chunk] = cut;
+        }
+
+        List<List<Bar>> parts = new ArrayList<>(chunks);
+        for (int chunk = 0; chunk < chunks; chunk++) {
+            parts.add(null);
+        }
+        parallelFor(chunks, chunk -> parts.set(chunk, sequential.resampleBuffer(ticks, cuts[chunk], cuts[chunk + 1])));
+
+        List<Bar> bars = new ArrayList<>();
+        parts.forEach(bars::addAll);
+        return bars;
+    }
+
+    private long bucket(long timestamp) {
+        return timestamp - (timestamp % threshold);
+    }
+
+    /**
+     * Returns the start index of every bar followed by the input size.
+     */
+    private int[] tickBarStarts(int size) {
+        int barCount = (int) ((size - 1) / threshold + 1);
+        int[] starts = new int[barCount + 1];
+        for (int bar = 0; bar < barCount; bar++) {
+            starts[bar] = (int) (bar * threshold);
+        }
+        starts[barCount] = size;
+        return starts;
+    }
+
+    private int[] volumeBarStarts(TickBuffer ticks, int chunks) {
+        int size = ticks.size();
+        int[] volumes = ticks.volumes();
+        long[] prefix = new long[size + 1];
+        long[] chunkTotals = new long[chunks];
+        int[] cuts = evenCuts(size, chunks);
+
+        // Local prefix sums per chunk, then the chunk offsets, then the global prefix sums
+        parallelFor(chunks, chunk -> {
+            long sum = 0;
+            for (int i = cuts[chunk]; i < cuts[chunk + 1]; i++) {
+                sum += volumes[i];
+                prefix[i + 1] = sum;
+            }
+            chunkTotals[chunk] = sum;
+        });
+        long[] offsets = exclusiveScan(chunkTotals);
+        parallelFor(chunks, chunk -> {
+            long offset = offsets[chunk];
+            for (int i = cuts[chunk] + 1; i <= cuts[chunk + 1]; i++) {
+                prefix[i] += offset;
+            }
+        });
+
+        // A bar starting at s ends with the first tick e for which prefix[e + 1] - prefix[s] >= threshold
+        BarStarts starts = new BarStarts();
+        int start = 0;
+        while (start < size) {
+            starts.add(start);
+            long target = prefix[start] > Long.MAX_VALUE - threshold ? Long.MAX_VALUE : prefix[start] + threshold;
+            start = firstReaching(prefix, start, target);
+        }
+        return starts.finish(size);
+    }
+
+    private List<Bar> resampleByDollar(TickBuffer ticks, int chunks) {
+        int size = ticks.size();
+        double[] prices = ticks.prices();
+        int[] volumes = ticks.volumes();
+        double[] prefix = new double[size + 1];
+        double[] chunkTotals = new double[chunks];
+        int[] cuts = evenCuts(size, chunks);
+
+        parallelFor(chunks, chunk -> {
+            double sum = 0.0;
+            for (int i = cuts[chunk]; i < cuts[chunk + 1]; i++) {
+                sum += prices[i] * volumes[i];
+                prefix[i + 1] = sum;
+            }
+            chunkTotals[chunk] = sum;
+        });
+        double[] offsets = new double[chunks];
+        for (int chunk = 1; chunk < chunks; chunk++) {
+            offsets[chunk] = offsets[chunk - 1] + chunkTotals[chunk - 1];
+        }
+        parallelFor(chunks, chunk -> {
+            double offset = offsets[chunk];
+            for (int i = cuts[chunk] + 1; i <= cuts[chunk + 1]; i++) {
+                prefix[i] += offset;
+            }
+        });
+
+        // Candidate boundaries from the prefix sums
+        BarStarts candidates = new BarStarts();
+        int start = 0;
+        while (start < size) {
+            candidates.add(start);
+            start = firstReaching(prefix, start, prefix[start] + threshold);
+        }
+        int[] starts = candidates.finish(size);
+
+        // Verify every candidate with the sequential summation order
+        int barCount = starts.length - 1;
+        Bar[] bars = new Bar[barCount];
+        boolean[] exact = new boolean[barCount];
+        long[] timestamps = ticks.timestamps();
+        byte[] sides = ticks.sides();
+        int tasks = Math.min(barCount, chunks);
+        parallelFor(tasks, task -> {
+            BarAccumulator accumulator = new BarAccumulator();
+            for (int bar = taskStart(task, tasks, barCount), end = taskStart(task + 1, tasks, barCount); bar < end; bar++) {
+                int from = starts[bar];
+                int to = starts[bar + 1];
+                accumulator.start(timestamps[from], timestamps[from], prices[from], volumes[from], sides[from], from);
+                boolean reachedEarly = accumulator.dollarValue() >= threshold && to - from > 1;
+                for (int i = from + 1; i < to && !reachedEarly; i++) {
+                    accumulator.add(timestamps[i], prices[i], volumes[i], sides[i]);
+                    reachedEarly = accumulator.dollarValue() >= threshold && i < to - 1;
+                }
+                boolean isLast = bar == barCount - 1;
+                exact[bar] = !reachedEarly && (isLast || accumulator.dollarValue() >= threshold);
+                bars[bar] = accumulator.toBar();
+            }
+        });
+
+        List<Bar> result = new ArrayList<>(barCount);
+        for (int bar = 0; bar < barCount; bar++) {
+            if (!exact[bar]) {
+                // Rounding moved a boundary: finish the remaining ticks sequentially
+                result.addAll(sequential.resampleBuffer(ticks, starts[bar], size));
+                return result;
+            }
+            result.add(bars[bar]);
+        }
+        return result;
+    }
+
+    /**
+     * Builds one bar per range {@code [starts[i], starts[i + 1])} in parallel, see {@link BarReduction}.
+     */
+    private List<Bar> buildBars(TickBuffer ticks, int[] starts) {
+        int barCount = starts.length - 1;
+        Bar[] bars = new Bar[barCount];
+        int tasks = Math.min(barCount, pool.getParallelism() * 4);
+        parallelFor(tasks, task -> {
+            for (int bar = taskStart(task, tasks, barCount), end = taskStart(task + 1, tasks, barCount); bar < end; bar++) {
+                bars[bar] = BarReduction.reduce(ticks, starts[bar], starts[bar + 1]);
+            }
+        });
+        return new ArrayList<>(Arrays.asList(bars));
+    }
+
+    /**
+     * Returns the index after the first tick {@code e >= start} with {@code prefix[e + 1] >= target},
+     * or {@code prefix.length - 1} if the target is never reached. Uses an exponential search, so the
+     * cost is logarithmic in the length of the bar rather than in the size of the input.
+     */
+    private static int firstReaching(long[] prefix, int start, long target) {
+        int size = prefix.length - 1;
+        int step = 1;
+        int low = start + 1;
+        int high = start + 1;
+        while (high <= size && prefix[high] < target) {
+            low = high + 1;
+            high = start + (step <<= 1);
+        }
+        if (high > size) {
+            if (prefix[size] < target) {
+                return size;
+            }
+            high = size;
+        }
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (prefix[mid] < target) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static int firstReaching(double[] prefix, int start, double target) {
+        int size = prefix.length - 1;
+        int step = 1;
+        int low = start + 1;
+        int high = start + 1;
+        while (high <= size && prefix[high] < target) {
+            low = high + 1;
+            high = start + (step <<= 1);
+        }
+        if (high > size) {
+            if (prefix[size] < target) {
+                return size;
+            }
+            high = size;
+        }
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (prefix[mid] < target) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static int[] evenCuts(int size, int chunks) {
+        int[] cuts = new int[chunks + 1];
+        for (int chunk = 0; chunk <= chunks; chunk++) {
+            cuts[chunk] = taskStart(chunk, chunks, size);
+        }
+        return cuts;
+    }
+
+    /**
+     * Returns the first of {@code count} items handled by a task when they are split evenly over {@code tasks} tasks.
+     */
+    private static int taskStart(int task, int tasks, int count) {
+        return (int) ((long) count * task / tasks);
+    }
+
+    private static long[] exclusiveScan(long[] values) {
+        long[] scan = new long[values.length];
+        for (int i = 1; i < values.length; i++) {
+            scan[i] = scan[i - 1] + values[i - 1];
+        }
+        return scan;
+    }
+
+    private void parallelFor(int tasks, IntConsumer body) {
+        pool.invoke(new RangeTask(0, tasks, body));
+    }
+
+    /**
+     * Runs a body for every index of a range, splitting the range in halves.
+     */
+    private static final class RangeTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+        private final transient IntConsumer body;
+
+        RangeTask(int from, int to, IntConsumer body) {
+            this.from = from;
+            this.to = to;
+            this.body = body;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= 1) {
+                if (to > from) {
+                    body.accept(from);
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new RangeTask(from, mid, body), new RangeTask(mid, to, body));
+        }
+    }
+
+    /**
+     * A growable list of bar start indexes.
+     */
+    private static final class BarStarts {
+        private int[] starts = new int[1024];
+        private int size;
+
+        void add(int start) {
+            if (size == starts.length) {
+                starts = Arrays.copyOf(starts, size * 2);
+            }
+            starts[size++] = start;
+        }
+
+        /**
+         * @return The start indexes followed by the end of the input.
+         */
+        int[] finish(int end) {
+            int[] result = Arrays.copyOf(starts, size + 1);
+            result[size] = end;
+            return result;
+        }
+    }
+}
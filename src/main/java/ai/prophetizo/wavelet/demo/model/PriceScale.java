@@ -0,0 +1,95 @@
+package ai.prophetizo.wavelet.demo.model;
+
+/**
+ * The price grid of an instrument, used to represent prices as whole numbers of price ticks.
+ * <p>
+ * A scale is given as the number of price ticks per unit of price, e.g. 4 for an instrument that
+ * trades in 0.25 steps or 100 for one quoted in cents. Converting a count of price ticks back
+ * divides by that number, which yields exactly the double that parsing the decimal price yields;
+ * for power-of-two scales the division is replaced by an equally exact multiplication.
+ */
+public final class PriceScale {
+
+    private final int ticksPerUnit;
+    // Exact, and cheaper than a division, only for power-of-two scales; 0 otherwise
+    private final double reciprocal;
+
+    /**
+     * @param ticksPerUnit The number of price ticks per unit of price.
+     * @throws IllegalArgumentException if the number is not positive.
+     */
+    public PriceScale(int ticksPerUnit) {
+        if (ticksPerUnit <= 0) {
+            throw new IllegalArgumentException("Ticks per unit must be positive.");
+        }
+        this.ticksPerUnit = ticksPerUnit;
+        this.reciprocal = Integer.bitCount(ticksPerUnit) == 1 ? 1.0 / ticksPerUnit : 0.0;
+    }
+
+    /**
+     * Creates the scale of a price increment, e.g. 4 ticks per unit for an increment of 0.25.
+     *
+     * @param increment The smallest price change of the instrument.
+     * @return The scale whose price tick is the increment.
+     * @throws IllegalArgumentException if the increment does not divide one unit of price.
+     */
+    public static PriceScale ofIncrement(double increment) {
+        if (!(increment > 0.0) || increment > 1.0) {
+            throw new IllegalArgumentException("Price increment must be in (0, 1]: " + increment);
+        }
+        long ticksPerUnit = Math.round(1.0 / increment);
+        if (ticksPerUnit > Integer.MAX_VALUE || 1.0 / ticksPerUnit != increment) {
+            throw new IllegalArgumentException("Price increment " + increment + " does not divide one unit of price.");
+        }
+        return new PriceScale((int) ticksPerUnit);
+    }
+
+    /**
+     * @return The number of price ticks per unit of price.
+     */
+    public int ticksPerUnit() {
+        return ticksPerUnit;
+    }
+
+    /**
+     * Converts a price to a whole number of price ticks.
+     *
+     * @throws IllegalArgumentException if the price is not on the grid.
+     */
+    public long toTicks(double price) {
+        long priceTicks = roundToTicks(price);
+        if (toPrice(priceTicks) != price) {
+            throw new IllegalArgumentException("Price " + price + " is not a multiple of 1/" + ticksPerUnit + ".");
+        }
+        return priceTicks;
+    }
+
+    /**
+     * Converts a price to the nearest whole number of price ticks, accepting prices off the grid.
+     */
+    public long roundToTicks(double price) {
+        return Math.round(price * ticksPerUnit);
+    }
+
+    /**
+     * Converts a number of price ticks, or of price ticks times a volume, to units of price.
+     */
+    public double toPrice(long priceTicks) {
+        return reciprocal != 0.0 ? priceTicks * reciprocal : priceTicks / (double) ticksPerUnit;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof PriceScale other && ticksPerUnit == other.ticksPerUnit;
+    }
+
+    @Override
+    public int hashCode() {
+        return ticksPerUnit;
+    }
+
+    @Override
+    public String toString() {
+        return "PriceScale[ticksPerUnit=" + ticksPerUnit + "]";
+    }
+}
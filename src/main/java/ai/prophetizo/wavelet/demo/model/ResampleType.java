@@ -1,8 +1,16 @@
 package ai.prophetizo.wavelet.demo.model;
 
 public enum ResampleType {
-    TIME,   // Bars based on fixed time intervals (e.g., 1 minute).
-    TICK,   // Bars based on a fixed number of ticks (trades).
-    VOLUME, // Bars based on a fixed amount of traded volume.
-    DOLLAR  // Bars based on a fixed dollar value (Price * Volume).
+    TIME,             // Bars based on fixed time intervals (e.g., 1 minute).
+    TICK,             // Bars based on a fixed number of ticks (trades).
+    VOLUME,           // Bars based on a fixed amount of traded volume.
+    DOLLAR,           // Bars based on a fixed dollar value (Price * Volume).
+    TICK_IMBALANCE,   // Bars that close when the signed tick count exceeds its expected value.
+    VOLUME_IMBALANCE, // Bars that close when the signed volume exceeds its expected value.
+    DOLLAR_IMBALANCE, // Bars that close when the signed dollar value exceeds its expected value.
+    TICK_RUNS,        // Bars that close when the ticks on one side exceed their expected count.
+    VOLUME_RUNS,      // Bars that close when the volume on one side exceeds its expected value.
+    DOLLAR_RUNS,      // Bars that close when the dollar value on one side exceeds its expected value.
+    RANGE,            // Bars that close when their high-low range reaches a fixed number of price ticks.
+    RENKO             // Bricks that close when the price moves a fixed number of price ticks from the last brick close.
 }
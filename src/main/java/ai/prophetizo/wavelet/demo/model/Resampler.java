@@ -1,220 +1,991 @@
 package ai.prophetizo.wavelet.demo.model;
 
+import java.lang.foreign.MemorySegment;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static java.lang.foreign.ValueLayout.JAVA_BYTE;
+import static java.lang.foreign.ValueLayout.JAVA_DOUBLE;
+import static java.lang.foreign.ValueLayout.JAVA_INT;
+import static java.lang.foreign.ValueLayout.JAVA_LONG;
 
 /**
  * The Resampler class aggregates a list of Tick data into Bar objects
- * using different resampling strategies: TIME, TICK, VOLUME, or DOLLAR.
+ * using different resampling strategies: TIME, TICK, VOLUME, DOLLAR, one of the imbalance or runs types, RANGE or RENKO.
+ * <p>
+ * Besides the batch {@link #resample(List)} API, a Resampler can be used as a streaming
+ * engine: ticks are pushed one at a time through {@link #onTick(long, double, int)} and
+ * accumulated into primitive state. A {@link Bar} is only allocated when a bar closes,
+ * at which point it is handed to the bar listener supplied at construction. Besides OHLCV,
+ * every bar carries its trade count, buy and sell volume, dollar value (hence VWAP), close
+ * timestamp and the indexes of its first and last tick, counted from the first tick the
+ * Resampler received (for the batch API, the index in the input).
+ * <p>
+ * Imbalance bars (TICK_IMBALANCE, VOLUME_IMBALANCE, DOLLAR_IMBALANCE) follow López de Prado:
+ * every tick contributes its trade sign b (from the reported {@link Side}, or from the tick rule
+ * when the side is unknown) times 1, its volume, or its dollar value to the bar's imbalance θ.
+ * A bar closes once {@code |θ| >= E[T] * |E[b v]|}, where E[T] is an exponentially weighted
+ * average of the ticks per bar and E[b v] one of the mean signed flow per tick of past bars.
+ * The first bar has no estimates yet and closes after {@code threshold} ticks. Left unbounded,
+ * E[T] tends to collapse to single-tick bars or to run away when the flow is nearly balanced, so
+ * it is kept within bounds, by default a factor of {@value #DEFAULT_BOUNDS_FACTOR} around the
+ * threshold (see {@link Builder#expectedTicksBounds(long, long)}). Likewise, |E[b v]| vanishes in
+ * a balanced market, which would close a bar on every tick, so the target is never below
+ * {@code sqrt(E[T]) * E[|v|]}, the imbalance that E[T] balanced ticks of mean unsigned flow E[|v|]
+ * reach by chance; and since a balanced bar may then never reach its target, a bar also closes
+ * once it holds the upper bound of E[T] ticks.
+ * <p>
+ * Runs bars (TICK_RUNS, VOLUME_RUNS, DOLLAR_RUNS) split the same flow by sign instead of netting
+ * it: a bar closes once {@code max(buy flow, sell flow) >= E[T] * max(P[b=1] E[v|b=1], P[b=-1] E[v|b=-1])},
+ * with the share of buys and the mean flow per buy and per sell averaged over past bars like E[T],
+ * and the same floor and length limit as imbalance bars.
+ * Both families only keep primitive state, so they cost a few arithmetic operations per tick
+ * on top of a VOLUME bar.
+ * <p>
+ * RANGE and RENKO bars are driven by price alone, so they thin out quiet periods. Their threshold
+ * is a number of price ticks of the {@link PriceScale} set through {@link Builder#priceScale(PriceScale)},
+ * by default whole units of price. Prices are measured in whole price ticks: a price that is not on
+ * the grid, such as a fractional price under the default scale, is rounded to the nearest price tick
+ * (see {@link PriceScale#roundToTicks(double)}), while the bars keep the prices of the ticks. A RANGE bar closes after the tick that brings its
+ * high-low range to the threshold. A RENKO brick closes once the price has moved the threshold up
+ * or down from the close of the previous brick (initially from the first price); its open and close
+ * are the brick levels, while its high and low are the extremes of its ticks, widened to include
+ * both levels, and volume, trade count and timestamps are those of its ticks. A tick that jumps
+ * several bricks closes them all at once: the first brick holds the ticks, the others follow it as
+ * empty bricks with the tick's timestamp, like the bars of a {@link GapPolicy}.
+ * <p>
+ * A Resampler built with {@link Builder#fixedPoint(PriceScale)} keeps prices as whole numbers of
+ * price ticks of a {@link PriceScale}. Ticks arrive either as price ticks through
+ * {@link #onPriceTicks(long, long, int, byte)}, e.g. straight from a
+ * {@link ai.prophetizo.wavelet.demo.io.CompressedTickReader}, or as doubles, which are converted
+ * once and rejected if they are off the grid. The open bar is accumulated with integer max, min and
+ * sums only: in particular the dollar value is an exact sum of price ticks times volume, so DOLLAR
+ * bars close on exactly the tick whose running total reaches the threshold, with none of the
+ * rounding drift of summing doubles. Prices are converted back to doubles once per bar, when the
+ * bar is emitted.
+ * <p>
+ * Bars can also be delivered as primitives to a {@link BarSink}, set through
+ * {@link Builder#barSink(BarSink)} or passed to the sink variants of the batch API, in which case
+ * no {@link Bar} is allocated at all; {@code resampleInto} variants instead refill a caller-owned
+ * list, so that repeated batches reuse its backing array.
+ * <p>
+ * For data that keeps growing, such as an intraday refresh, {@link #append(List)} pushes only
+ * the new ticks into the streaming state and returns the bars they closed, while
+ * {@link #partialBar()} exposes the bar still open. Together they yield the same bars as
+ * re-resampling everything received so far, at a cost proportional to the new ticks.
+ * <p>
+ * The complete streaming state, i.e. the open bar, the tick counter and the imbalance and runs
+ * averages, can be saved with {@link #writeState(ByteBuffer)} and restored into a Resampler of
+ * the same configuration with {@link #readState(ByteBuffer)}, which then continues exactly as
+ * the saved one would have. See {@code ResamplerCheckpoint} for periodic checkpoint files.
+ * <p>
+ * TIME bars skip intervals without ticks by default. A {@link GapPolicy} set through
+ * {@link Builder#gapPolicy(GapPolicy)} instead emits one bar per empty interval as the next tick
+ * arrives, so the bars form a uniformly spaced series without a second pass. Gaps are only
+ * filled between bars of the same series: {@link #flush()} ends the series.
+ * A streaming Resampler is not thread-safe.
  */
-public class Resampler {
+public class Resampler implements TickSink, FixedPointTickSink {
+
+    /**
+     * The default span, in bars, of the averages that drive imbalance and runs bars.
+     */
+    public static final int DEFAULT_EWMA_SPAN = 20;
+
+    /**
+     * The default factor between the threshold and the bounds of the expected ticks per imbalance or runs bar.
+     */
+    public static final long DEFAULT_BOUNDS_FACTOR = 4;
+
+    /**
+     * The default price grid of RANGE and RENKO thresholds: whole units of price.
+     */
+    public static final PriceScale DEFAULT_PRICE_SCALE = new PriceScale(1);
+
+    /**
+     * The size in bytes of the state written by {@link #writeState(ByteBuffer)}.
+     */
+    public static final int STATE_BYTES = 3 + 2 * 4 + 3 * 8 + BarAccumulator.BYTES + 17 * 8 + 1;
+
+    // Marks the absence of a Renko anchor before the first tick
+    private static final long NO_ANCHOR = Long.MIN_VALUE;
 
     private final ResampleType resampleType;
     private final long threshold;
+    private final int ewmaSpan;
+    private final GapPolicy gapPolicy;
+    private final PriceScale priceScale;
+    private final boolean fixedPoint;
+    // The DOLLAR threshold in price ticks times volume, for fixed-point prices
+    private final long dollarThreshold;
+    private final Consumer<Bar> barListener;
+    private final BarSink barSink;
+
+    // Streaming state
+    private final BarAccumulator currentBar;
+    private long barEndTime;
+    private long tickIndex;
+    // Collects the bars closed during an append, null otherwise
+    private List<Bar> appendedBars;
+    // The close of the last Renko brick, in price ticks
+    private long renkoAnchor = NO_ANCHOR;
+
+    // Imbalance and runs state; expectedTicks stays 0 until the first bar has closed, which
+    // happens after threshold ticks; every bar closes after at most tickLimit ticks.
+    // flowTarget caches the expected flow that closes a bar.
+    private final double ewmaAlpha;
+    private final long minExpectedTicks;
+    private final long maxExpectedTicks;
+    private long tickLimit;
+    private double flowTarget = Double.POSITIVE_INFINITY;
+    private double expectedTicks;
+    private double expectedAbsFlow;
+    private double lastPrice = Double.NaN;
+    private byte tickRuleSign;
+    private double imbalance;
+    private double expectedFlow;
+    private double buyFlow;
+    private double sellFlow;
+    private long buyTicks;
+    private long sellTicks;
+    private double expectedBuyShare;
+    private double expectedBuyFlow;
+    private double expectedSellFlow;
 
     /**
      * Constructs a Resampler with a specific configuration.
      *
-     * @param resampleType The type of resampling to perform (TIME, TICK, VOLUME, DOLLAR).
+     * @param resampleType The type of resampling to perform (TIME, TICK, VOLUME, DOLLAR, an imbalance or runs type, RANGE or RENKO).
      * @param threshold    The value that defines when a bar is complete.
      *                     - For TIME: The duration in milliseconds (e.g., 60000 for 1-minute bars).
      *                     - For TICK: The number of ticks per bar (e.g., 1000).
      *                     - For VOLUME: The total volume per bar.
      *                     - For DOLLAR: The total dollar value per bar.
+     *                     - For the imbalance and runs types: The number of ticks of the first bar, which seeds
+     *                     the expected number of ticks per bar.
+     *                     - For RANGE and RENKO: The bar range or brick size in price ticks, see
+     *                     {@link Builder#priceScale(PriceScale)}.
      * @throws IllegalArgumentException if threshold is not positive.
      */
     public Resampler(ResampleType resampleType, long threshold) {
+        this(resampleType, threshold, null);
+    }
+
+    /**
+     * Constructs a streaming Resampler that reports every closed bar to a listener.
+     *
+     * @param resampleType The type of resampling to perform (TIME, TICK, VOLUME, DOLLAR).
+     * @param threshold    The value that defines when a bar is complete, see {@link #Resampler(ResampleType, long)}.
+     * @param barListener  Receives each bar as soon as it closes; may be null if only the batch API is used.
+     * @throws IllegalArgumentException if threshold is not positive.
+     */
+    public Resampler(ResampleType resampleType, long threshold, Consumer<Bar> barListener) {
+        this(resampleType, threshold, DEFAULT_EWMA_SPAN, defaultMinExpectedTicks(threshold),
+                defaultMaxExpectedTicks(threshold), GapPolicy.SKIP, DEFAULT_PRICE_SCALE, false, barListener, null);
+    }
+
+    private Resampler(ResampleType resampleType, long threshold, int ewmaSpan, long minExpectedTicks,
+                      long maxExpectedTicks, GapPolicy gapPolicy, PriceScale priceScale, boolean fixedPoint,
+                      Consumer<Bar> barListener, BarSink barSink) {
         if (threshold <= 0) {
             throw new IllegalArgumentException("Threshold must be positive.");
         }
+        if (ewmaSpan < 1) {
+            throw new IllegalArgumentException("EWMA span must be positive.");
+        }
+        if (minExpectedTicks < 1 || maxExpectedTicks < minExpectedTicks) {
+            throw new IllegalArgumentException("Expected ticks bounds must be positive and ordered.");
+        }
         this.resampleType = resampleType;
         this.threshold = threshold;
+        this.ewmaSpan = ewmaSpan;
+        this.ewmaAlpha = 2.0 / (ewmaSpan + 1);
+        this.minExpectedTicks = minExpectedTicks;
+        this.maxExpectedTicks = maxExpectedTicks;
+        this.tickLimit = threshold;
+        this.gapPolicy = Objects.requireNonNull(gapPolicy, "gapPolicy");
+        this.priceScale = Objects.requireNonNull(priceScale, "priceScale");
+        this.fixedPoint = fixedPoint;
+        long ticksPerUnit = priceScale.ticksPerUnit();
+        this.dollarThreshold = threshold > Long.MAX_VALUE / ticksPerUnit ? Long.MAX_VALUE : threshold * ticksPerUnit;
+        this.currentBar = new BarAccumulator(fixedPoint ? priceScale : null);
+        this.barListener = barListener;
+        this.barSink = barSink;
+    }
+
+    private static long defaultMinExpectedTicks(long threshold) {
+        return Math.max(1, threshold / DEFAULT_BOUNDS_FACTOR);
+    }
+
+    private static long defaultMaxExpectedTicks(long threshold) {
+        return threshold > Long.MAX_VALUE / DEFAULT_BOUNDS_FACTOR ? Long.MAX_VALUE : threshold * DEFAULT_BOUNDS_FACTOR;
+    }
+
+    /**
+     * Creates an idle Resampler with the same configuration, for the batch API.
+     */
+    private Resampler copy(Consumer<Bar> barListener, BarSink barSink) {
+        return new Resampler(resampleType, threshold, ewmaSpan, minExpectedTicks, maxExpectedTicks, gapPolicy,
+                priceScale, fixedPoint, barListener, barSink);
+    }
+
+    /**
+     * Starts building a Resampler with options beyond those of the constructors.
+     *
+     * @param resampleType The type of resampling to perform.
+     * @param threshold    The value that defines when a bar is complete, see {@link #Resampler(ResampleType, long)}.
+     */
+    public static Builder builder(ResampleType resampleType, long threshold) {
+        return new Builder(resampleType, threshold);
+    }
+
+    /**
+     * Configures and creates a {@link Resampler}.
+     */
+    public static final class Builder {
+
+        private final ResampleType resampleType;
+        private final long threshold;
+        private int ewmaSpan = DEFAULT_EWMA_SPAN;
+        private long minExpectedTicks;
+        private long maxExpectedTicks;
+        private GapPolicy gapPolicy = GapPolicy.SKIP;
+        private PriceScale priceScale = DEFAULT_PRICE_SCALE;
+        private boolean fixedPoint;
+        private Consumer<Bar> barListener;
+        private BarSink barSink;
+
+        private Builder(ResampleType resampleType, long threshold) {
+            this.resampleType = resampleType;
+            this.threshold = threshold;
+            this.minExpectedTicks = defaultMinExpectedTicks(threshold);
+            this.maxExpectedTicks = defaultMaxExpectedTicks(threshold);
+        }
+
+        /**
+         * Sets the span, in bars, of the averages of the imbalance and runs types; the weight of each
+         * new bar is {@code 2 / (span + 1)}. Ignored by the other types.
+         */
+        public Builder ewmaSpan(int ewmaSpan) {
+            this.ewmaSpan = ewmaSpan;
+            return this;
+        }
+
+        /**
+         * Sets the bounds of the expected number of ticks per imbalance or runs bar. Ignored by the other types.
+         *
+         * @param min The lower bound, at least 1.
+         * @param max The upper bound, at least {@code min}.
+         */
+        public Builder expectedTicksBounds(long min, long max) {
+            this.minExpectedTicks = min;
+            this.maxExpectedTicks = max;
+            return this;
+        }
+
+        /**
+         * Sets what TIME bars emit for intervals without ticks; {@link GapPolicy#SKIP} by default.
+         * Ignored by the other types.
+         */
+        public Builder gapPolicy(GapPolicy gapPolicy) {
+            this.gapPolicy = gapPolicy;
+            return this;
+        }
+
+        /**
+         * Sets the listener that receives each bar as soon as it closes.
+         */
+        public Builder onBar(Consumer<Bar> barListener) {
+            this.barListener = barListener;
+            return this;
+        }
+
+        /**
+         * Sets the price grid in whose price ticks the threshold of RANGE and RENKO bars is given.
+         * Defaults to whole units of price.
+         */
+        public Builder priceScale(PriceScale priceScale) {
+            this.priceScale = priceScale;
+            return this;
+        }
+
+        /**
+         * Keeps prices as whole numbers of price ticks of a scale, which also becomes the scale of
+         * {@link #priceScale(PriceScale)}: bars are accumulated in integer arithmetic and ticks off
+         * the grid are rejected, see {@link Resampler}. Floating-point prices are the default.
+         */
+        public Builder fixedPoint(PriceScale priceScale) {
+            this.priceScale = priceScale;
+            this.fixedPoint = true;
+            return this;
+        }
+
+        /**
+         * Sets a primitive sink that receives the OHLCV of each bar as soon as it closes, without
+         * a {@link Bar} being allocated. May be combined with {@link #onBar(Consumer)}.
+         */
+        public Builder barSink(BarSink barSink) {
+            this.barSink = barSink;
+            return this;
+        }
+
+        /**
+         * @throws IllegalArgumentException if the threshold or the EWMA span is not positive,
+         *                                  or the bounds are invalid.
+         * @throws NullPointerException     if the gap policy is null.
+         */
+        public Resampler build() {
+            return new Resampler(resampleType, threshold, ewmaSpan, minExpectedTicks, maxExpectedTicks, gapPolicy,
+                    priceScale, fixedPoint, barListener, barSink);
+        }
     }
 
     /**
      * Resamples a list of ticks into a list of bars based on the configuration.
+     * Each call is independent of any streaming state held by this instance.
      *
      * @param ticks A chronological list of Tick objects.
      * @return A list of Bar objects.
      */
     public List<Bar> resample(List<Tick> ticks) {
+        return resampleInto(ticks, new ArrayList<>());
+    }
+
+    /**
+     * Resamples a list of ticks into a caller-owned list, which is cleared first, so that
+     * repeated calls reuse its capacity.
+     *
+     * @param ticks A chronological list of Tick objects.
+     * @param bars  The list to refill with the bars.
+     * @return The given list.
+     */
+    public List<Bar> resampleInto(List<Tick> ticks, List<Bar> bars) {
+        bars.clear();
+        feed(ticks, copy(bars::add, null));
+        return bars;
+    }
+
+    /**
+     * Resamples a list of ticks into a primitive bar sink, without allocating any Bar.
+     *
+     * @param ticks A chronological list of Tick objects.
+     * @param sink  Receives the bars in order, including the last incomplete one.
+     */
+    public void resample(List<Tick> ticks, BarSink sink) {
+        feed(ticks, copy(null, Objects.requireNonNull(sink, "sink")));
+    }
+
+    private static void feed(List<Tick> ticks, Resampler stream) {
         if (ticks == null || ticks.isEmpty()) {
-            return new ArrayList<>();
+            return;
+        }
+        for (Tick tick : ticks) {
+            stream.onTick(tick.timestamp(), tick.price(), tick.volume(), tick.side().code());
         }
+        // Add the last incomplete bar
+        stream.flush();
+    }
 
-        // Dispatch to the appropriate resampling method based on type
-        return switch (resampleType) {
-            case TIME -> resampleByTime(ticks);
-            case TICK -> resampleByTick(ticks);
-            case VOLUME -> resampleByVolume(ticks);
-            case DOLLAR -> resampleByDollar(ticks);
-        };
+    /**
+     * Resamples the ticks held in a columnar buffer into a list of bars.
+     *
+     * @param ticks A buffer of chronologically ordered ticks.
+     * @return A list of Bar objects.
+     */
+    public List<Bar> resampleBuffer(TickBuffer ticks) {
+        return resampleBuffer(ticks, 0, ticks.size());
     }
 
     /**
-     * Groups ticks into bars by fixed time intervals.
-     * Each bar contains all ticks whose timestamps fall within the interval.
+     * Resamples a range of the ticks held in a columnar buffer into a list of bars.
+     *
+     * @param ticks A buffer of chronologically ordered ticks.
+     * @param from  The index of the first tick, inclusive.
+     * @param to    The index of the last tick, exclusive.
+     * @return A list of Bar objects.
+     * @throws IndexOutOfBoundsException if the range is not within the buffer.
      */
-    private List<Bar> resampleByTime(List<Tick> ticks) {
+    public List<Bar> resampleBuffer(TickBuffer ticks, int from, int to) {
         List<Bar> bars = new ArrayList<>();
-        Tick firstTick = ticks.get(0);
-
-        // Calculate the start and end time of the first bar
-        long barStartTime = firstTick.timestamp() - (firstTick.timestamp() % threshold);
-        long barEndTime = barStartTime + threshold;
-
-        // Initialize the first bar with the first tick
-        Bar currentBar = new Bar(barStartTime, firstTick.price(), firstTick.price(), firstTick.price(), firstTick.price(), firstTick.volume());
-
-        for (int i = 1; i < ticks.size(); i++) {
-            Tick currentTick = ticks.get(i);
-
-            if (currentTick.timestamp() < barEndTime) {
-                // Tick belongs to the current bar, update high, low, close, and volume
-                currentBar = new Bar(
-                        currentBar.openTimestamp(),
-                        currentBar.open(),
-                        Math.max(currentBar.high(), currentTick.price()),
-                        Math.min(currentBar.low(), currentTick.price()),
-                        currentTick.price(),
-                        currentBar.totalVolume() + currentTick.volume()
-                );
-            } else {
-                // Finalize the current bar and start a new one
-                bars.add(currentBar);
-
-                // Set new bar's start and end time
-                barStartTime = currentTick.timestamp() - (currentTick.timestamp() % threshold);
-                barEndTime = barStartTime + threshold;
-                currentBar = new Bar(barStartTime, currentTick.price(), currentTick.price(), currentTick.price(), currentTick.price(), currentTick.volume());
-            }
-        }
-        // Add the last bar
-        bars.add(currentBar);
+        feed(ticks, from, to, copy(bars::add, null));
         return bars;
     }
 
     /**
-     * Groups ticks into bars by a fixed number of ticks.
-     * Each bar contains up to 'threshold' number of ticks.
+     * Resamples the ticks held in a columnar buffer into a caller-owned list, which is cleared
+     * first, so that repeated calls reuse its capacity.
+     *
+     * @param ticks A buffer of chronologically ordered ticks.
+     * @param bars  The list to refill with the bars.
+     * @return The given list.
      */
-    private List<Bar> resampleByTick(List<Tick> ticks) {
+    public List<Bar> resampleBufferInto(TickBuffer ticks, List<Bar> bars) {
+        bars.clear();
+        feed(ticks, 0, ticks.size(), copy(bars::add, null));
+        return bars;
+    }
+
+    /**
+     * Resamples a range of the ticks held in a columnar buffer into a primitive bar sink,
+     * without allocating any Bar.
+     *
+     * @param ticks A buffer of chronologically ordered ticks.
+     * @param from  The index of the first tick, inclusive.
+     * @param to    The index of the last tick, exclusive.
+     * @param sink  Receives the bars in order, including the last incomplete one.
+     * @throws IndexOutOfBoundsException if the range is not within the buffer.
+     */
+    public void resampleBuffer(TickBuffer ticks, int from, int to, BarSink sink) {
+        feed(ticks, from, to, copy(null, Objects.requireNonNull(sink, "sink")));
+    }
+
+    private static void feed(TickBuffer ticks, int from, int to, Resampler stream) {
+        Objects.checkFromToIndex(from, to, ticks.size());
+        stream.tickIndex = from;
+        long[] timestamps = ticks.timestamps();
+        double[] prices = ticks.prices();
+        int[] volumes = ticks.volumes();
+        byte[] sides = ticks.sides();
+        for (int i = from; i < to; i++) {
+            stream.onTick(timestamps[i], prices[i], volumes[i], sides[i]);
+        }
+        stream.flush();
+    }
+
+    /**
+     * Resamples the ticks held in an off-heap buffer into a list of bars.
+     *
+     * @param ticks A buffer of chronologically ordered ticks.
+     * @return A list of Bar objects.
+     */
+    public List<Bar> resampleOffHeap(OffHeapTickBuffer ticks) {
         List<Bar> bars = new ArrayList<>();
-        int tickCounter = 0;
-        Bar currentBar = null;
+        resampleOffHeap(ticks, 0, ticks.size(), bars::add);
+        return bars;
+    }
 
-        for (Tick tick : ticks) {
-            if (currentBar == null) {
-                // Start a new bar with the current tick
-                currentBar = new Bar(tick.timestamp(), tick.price(), tick.price(), tick.price(), tick.price(), tick.volume());
-                tickCounter = 1;
-                continue;
-            }
+    /**
+     * Resamples a range of the ticks held in an off-heap buffer, reading the columns in place.
+     *
+     * @param ticks A buffer of chronologically ordered ticks.
+     * @param from  The index of the first tick, inclusive.
+     * @param to    The index of the last tick, exclusive.
+     * @param sink  Receives the bars in order, including the last incomplete one.
+     * @throws IndexOutOfBoundsException if the range is not within the buffer.
+     */
+    public void resampleOffHeap(OffHeapTickBuffer ticks, long from, long to, Consumer<Bar> sink) {
+        feed(ticks, from, to, copy(sink, null));
+    }
 
-            // Update the current bar with the new tick
-            currentBar = new Bar(
-                    currentBar.openTimestamp(),
-                    currentBar.open(),
-                    Math.max(currentBar.high(), tick.price()),
-                    Math.min(currentBar.low(), tick.price()),
-                    tick.price(),
-                    currentBar.totalVolume() + tick.volume()
-            );
-            tickCounter++;
-
-            // If threshold is met, finalize bar and reset
-            if (tickCounter >= threshold) {
-                bars.add(currentBar);
-                currentBar = null;
-            }
+    /**
+     * Resamples a range of the ticks held in an off-heap buffer into a primitive bar sink,
+     * reading the columns in place and allocating no Bar. Passing an {@link OffHeapBarBuffer}
+     * as the sink keeps both ticks and bars off the heap.
+     *
+     * @param ticks A buffer of chronologically ordered ticks.
+     * @param from  The index of the first tick, inclusive.
+     * @param to    The index of the last tick, exclusive.
+     * @param sink  Receives the bars in order, including the last incomplete one.
+     * @throws IndexOutOfBoundsException if the range is not within the buffer.
+     */
+    public void resampleOffHeap(OffHeapTickBuffer ticks, long from, long to, BarSink sink) {
+        feed(ticks, from, to, copy(null, Objects.requireNonNull(sink, "sink")));
+    }
+
+    private static void feed(OffHeapTickBuffer ticks, long from, long to, Resampler stream) {
+        Objects.checkFromToIndex(from, to, ticks.size());
+        stream.tickIndex = from;
+        MemorySegment timestamps = ticks.timestamps();
+        MemorySegment prices = ticks.prices();
+        MemorySegment volumes = ticks.volumes();
+        MemorySegment sides = ticks.sides();
+        for (long i = from; i < to; i++) {
+            stream.onTick(timestamps.getAtIndex(JAVA_LONG, i), prices.getAtIndex(JAVA_DOUBLE, i),
+                    volumes.getAtIndex(JAVA_INT, i), sides.get(JAVA_BYTE, i));
         }
+        stream.flush();
+    }
 
-        // Add the last incomplete bar if it exists
-        if (currentBar != null) {
-            bars.add(currentBar);
+    /**
+     * Continues resampling with ticks that follow those this Resampler has already received,
+     * without flushing: the last bar stays open for later ticks and is available through
+     * {@link #partialBar()}. The closed bars are also passed to the bar listener and sink.
+     *
+     * @param ticks The next ticks, in chronological order.
+     * @return The bars closed by these ticks, oldest first.
+     */
+    public List<Bar> append(List<Tick> ticks) {
+        List<Bar> bars = new ArrayList<>();
+        appendedBars = bars;
+        try {
+            for (Tick tick : ticks) {
+                onTick(tick.timestamp(), tick.price(), tick.volume(), tick.side().code());
+            }
+        } finally {
+            appendedBars = null;
         }
         return bars;
     }
 
     /**
-     * Groups ticks into bars by accumulated volume.
-     * Each bar contains ticks until the total volume reaches or exceeds the threshold.
+     * Continues resampling with a range of the ticks held in a columnar buffer, see {@link #append(List)}.
+     *
+     * @param ticks A buffer of chronologically ordered ticks.
+     * @param from  The index of the first tick, inclusive.
+     * @param to    The index of the last tick, exclusive.
+     * @return The bars closed by these ticks, oldest first.
+     * @throws IndexOutOfBoundsException if the range is not within the buffer.
      */
-    private List<Bar> resampleByVolume(List<Tick> ticks) {
+    public List<Bar> append(TickBuffer ticks, int from, int to) {
+        Objects.checkFromToIndex(from, to, ticks.size());
         List<Bar> bars = new ArrayList<>();
-        Bar currentBar = null;
+        appendedBars = bars;
+        try {
+            long[] timestamps = ticks.timestamps();
+            double[] prices = ticks.prices();
+            int[] volumes = ticks.volumes();
+            byte[] sides = ticks.sides();
+            for (int i = from; i < to; i++) {
+                onTick(timestamps[i], prices[i], volumes[i], sides[i]);
+            }
+        } finally {
+            appendedBars = null;
+        }
+        return bars;
+    }
 
-        for (Tick tick : ticks) {
-            if (currentBar == null) {
-                // Start a new bar with the current tick, volume starts at 0
-                currentBar = new Bar(tick.timestamp(), tick.price(), tick.price(), tick.price(), tick.price(), 0L);
+    /**
+     * Returns the bar that is currently being built, as it would be emitted by {@link #flush()}
+     * now. The bar stays open and keeps accumulating later ticks.
+     *
+     * @return The open bar, or empty if no bar is open.
+     */
+    public Optional<Bar> partialBar() {
+        return currentBar.isActive() ? Optional.of(currentBar.toBar()) : Optional.empty();
+    }
+
+    /**
+     * @return The number of ticks pushed into the streaming engine so far, which is also the
+     * index at which a Resampler restored from the current state expects the next tick.
+     */
+    public long ticksReceived() {
+        return tickIndex;
+    }
+
+    /**
+     * Writes the configuration and the complete streaming state in {@link #STATE_BYTES} bytes,
+     * in the byte order of the buffer. The listener and sink are not part of the state.
+     *
+     * @param out The buffer to write to.
+     * @throws java.nio.BufferOverflowException if fewer than {@link #STATE_BYTES} bytes remain.
+     */
+    public void writeState(ByteBuffer out) {
+        out.put((byte) resampleType.ordinal()).put((byte) gapPolicy.ordinal()).put(fixedPoint ? (byte) 1 : (byte) 0)
+                .putInt(ewmaSpan)
+                .putInt(priceScale.ticksPerUnit()).putLong(threshold).putLong(minExpectedTicks).putLong(maxExpectedTicks);
+        currentBar.writeTo(out);
+        out.putLong(barEndTime).putLong(tickIndex).putLong(renkoAnchor)
+                .putLong(tickLimit).putDouble(flowTarget).putDouble(expectedTicks).putDouble(expectedAbsFlow)
+                .putDouble(lastPrice).put(tickRuleSign)
+                .putDouble(imbalance).putDouble(expectedFlow)
+                .putDouble(buyFlow).putDouble(sellFlow).putLong(buyTicks).putLong(sellTicks)
+                .putDouble(expectedBuyShare).putDouble(expectedBuyFlow).putDouble(expectedSellFlow);
+    }
+
+    /**
+     * Replaces the streaming state with one written by {@link #writeState(ByteBuffer)}, after
+     * which the Resampler continues with the tick that followed the saved state.
+     *
+     * @param in The buffer to read from, in the byte order it was written with.
+     * @throws IllegalArgumentException if the state was written by a Resampler with a different
+     *                                  configuration; the state is then left unchanged.
+     * @throws java.nio.BufferUnderflowException if fewer than {@link #STATE_BYTES} bytes remain.
+     */
+    public void readState(ByteBuffer in) {
+        int start = in.position();
+        int savedType = in.get();
+        int savedGapPolicy = in.get();
+        boolean savedFixedPoint = in.get() != 0;
+        int savedEwmaSpan = in.getInt();
+        int savedTicksPerUnit = in.getInt();
+        long savedThreshold = in.getLong();
+        long savedMinExpectedTicks = in.getLong();
+        long savedMaxExpectedTicks = in.getLong();
+        if (savedType != resampleType.ordinal() || savedGapPolicy != gapPolicy.ordinal() || savedFixedPoint != fixedPoint
+                || savedEwmaSpan != ewmaSpan || savedTicksPerUnit != priceScale.ticksPerUnit()
+                || savedThreshold != threshold
+                || savedMinExpectedTicks != minExpectedTicks || savedMaxExpectedTicks != maxExpectedTicks) {
+            in.position(start);
+            throw new IllegalArgumentException("Saved state belongs to a Resampler with a different configuration.");
+        }
+        currentBar.readFrom(in);
+        barEndTime = in.getLong();
+        tickIndex = in.getLong();
+        renkoAnchor = in.getLong();
+        tickLimit = in.getLong();
+        flowTarget = in.getDouble();
+        expectedTicks = in.getDouble();
+        expectedAbsFlow = in.getDouble();
+        lastPrice = in.getDouble();
+        tickRuleSign = in.get();
+        imbalance = in.getDouble();
+        expectedFlow = in.getDouble();
+        buyFlow = in.getDouble();
+        sellFlow = in.getDouble();
+        buyTicks = in.getLong();
+        sellTicks = in.getLong();
+        expectedBuyShare = in.getDouble();
+        expectedBuyFlow = in.getDouble();
+        expectedSellFlow = in.getDouble();
+    }
+
+    /**
+     * Pushes a single tick into the streaming engine. If the tick completes a bar,
+     * the bar is materialized and passed to the bar listener. No objects are
+     * allocated for ticks that do not close a bar.
+     *
+     * @param timestamp The tick timestamp in milliseconds; ticks must arrive in chronological order.
+     * @param price     The traded price.
+     * @param volume    The traded volume.
+     */
+    public void onTick(long timestamp, double price, int volume) {
+        onTick(timestamp, price, volume, Side.UNKNOWN.code());
+    }
+
+    /**
+     * Pushes a single tick with its aggressor side into the streaming engine, see
+     * {@link #onTick(long, double, int)}. The side is recorded in the bar's buy and sell volume
+     * and drives the imbalance and runs types.
+     *
+     * @param side The aggressor side as a {@link Side#code()}; UNKNOWN falls back to the tick rule.
+     * @throws IllegalArgumentException if the Resampler is fixed-point and the price is not on its grid.
+     */
+    @Override
+    public void onTick(long timestamp, double price, int volume, byte side) {
+        if (fixedPoint) {
+            route(timestamp, Double.NaN, priceScale.toTicks(price), volume, side);
+        } else {
+            route(timestamp, price, 0, volume, side);
+        }
+    }
+
+    /**
+     * Pushes a single tick whose price is a whole number of price ticks of the Resampler's
+     * {@link PriceScale}, see {@link #onTick(long, double, int, byte)}. A fixed-point Resampler
+     * accumulates the price ticks as they are; any other converts them to a price first.
+     *
+     * @param timestamp  The tick timestamp in milliseconds; ticks must arrive in chronological order.
+     * @param priceTicks The traded price as a number of price ticks.
+     * @param volume     The traded volume.
+     * @param side       The aggressor side as a {@link Side#code()}.
+     */
+    @Override
+    public void onPriceTicks(long timestamp, long priceTicks, int volume, byte side) {
+        if (fixedPoint) {
+            route(timestamp, Double.NaN, priceTicks, volume, side);
+        } else {
+            route(timestamp, priceScale.toPrice(priceTicks), 0, volume, side);
+        }
+    }
+
+    /**
+     * Hands a tick to the strategy of the bar type. A fixed-point Resampler passes the price in
+     * price ticks and NaN as the price, which the types that need it derive, see {@link #unitPrice};
+     * any other passes the price and no price ticks.
+     */
+    private void route(long timestamp, double price, long priceTicks, int volume, byte side) {
+        switch (resampleType) {
+            case TIME -> onTimeTick(timestamp, price, priceTicks, volume, side);
+            case TICK -> {
+                accumulate(timestamp, price, priceTicks, volume, side);
+                if (currentBar.tickCount() >= threshold) {
+                    closeBar();
+                }
+            }
+            case VOLUME -> {
+                accumulate(timestamp, price, priceTicks, volume, side);
+                if (currentBar.volume() >= threshold) {
+                    closeBar();
+                }
             }
+            case DOLLAR -> {
+                accumulate(timestamp, price, priceTicks, volume, side);
+                if (fixedPoint ? currentBar.dollarTicks() >= dollarThreshold : currentBar.dollarValue() >= threshold) {
+                    closeBar();
+                }
+            }
+            case TICK_IMBALANCE -> onImbalanceTick(timestamp, price, priceTicks, volume, side, 1.0);
+            case VOLUME_IMBALANCE -> onImbalanceTick(timestamp, price, priceTicks, volume, side, volume);
+            case DOLLAR_IMBALANCE -> onImbalanceTick(timestamp, price, priceTicks, volume, side,
+                    unitPrice(price, priceTicks) * volume);
+            case TICK_RUNS -> onRunsTick(timestamp, price, priceTicks, volume, side, 1.0);
+            case VOLUME_RUNS -> onRunsTick(timestamp, price, priceTicks, volume, side, volume);
+            case DOLLAR_RUNS -> onRunsTick(timestamp, price, priceTicks, volume, side,
+                    unitPrice(price, priceTicks) * volume);
+            case RANGE -> {
+                accumulate(timestamp, price, priceTicks, volume, side);
+                long range = fixedPoint ? currentBar.rangeTicks()
+                        : priceScale.roundToTicks(currentBar.high()) - priceScale.roundToTicks(currentBar.low());
+                if (range >= threshold) {
+                    closeBar();
+                }
+            }
+            case RENKO -> onRenkoTick(timestamp, price, fixedPoint ? priceTicks : priceScale.roundToTicks(price),
+                    volume, side);
+        }
+        tickIndex++;
+    }
 
-            // Update the bar with the current tick's data
-            currentBar = new Bar(
-                    currentBar.openTimestamp(),
-                    currentBar.open(),
-                    Math.max(currentBar.high(), tick.price()),
-                    Math.min(currentBar.low(), tick.price()),
-                    tick.price(),
-                    currentBar.totalVolume() + tick.volume()
-            );
-
-            // If accumulated volume meets or exceeds threshold, finalize bar
-            if (currentBar.totalVolume() >= threshold) {
-                bars.add(currentBar);
-                currentBar = null;
+    /**
+     * Returns the price of a tick routed by {@link #route}, converting the price ticks of a fixed-point Resampler.
+     */
+    private double unitPrice(double price, long priceTicks) {
+        return fixedPoint ? priceScale.toPrice(priceTicks) : price;
+    }
+
+    /**
+     * Emits the bar that is currently being built, if any, even though it has not
+     * reached its threshold. Typically called at the end of a session or input file.
+     */
+    public void flush() {
+        if (currentBar.isActive()) {
+            closeBar();
+        }
+    }
+
+    /**
+     * Groups ticks into bars by fixed time intervals.
+     * Each bar contains all ticks whose timestamps fall within the interval.
+     */
+    private void onTimeTick(long timestamp, double price, long priceTicks, int volume, byte side) {
+        if (currentBar.isActive() && timestamp >= barEndTime) {
+            // Finalize the current bar, the tick starts a new one
+            double lastClose = currentBar.close();
+            closeBar();
+            if (gapPolicy != GapPolicy.SKIP) {
+                fillGap(timestamp - (timestamp % threshold), lastClose);
             }
         }
+        if (currentBar.isActive()) {
+            add(timestamp, price, priceTicks, volume, side);
+        } else {
+            long barStartTime = timestamp - (timestamp % threshold);
+            barEndTime = barStartTime + threshold;
+            start(barStartTime, timestamp, price, priceTicks, volume, side);
+        }
+    }
 
-        // Add the last incomplete bar if it exists
-        if (currentBar != null) {
-            bars.add(currentBar);
+    /**
+     * Emits one bar per empty interval between the bar that just closed and the bar that opens at {@code barStartTime}.
+     */
+    private void fillGap(long barStartTime, double lastClose) {
+        double price = gapPolicy == GapPolicy.FORWARD_FILL ? lastClose : Double.NaN;
+        for (long openTime = barEndTime; openTime < barStartTime; openTime += threshold) {
+            emitEmpty(openTime, price, price);
         }
-        return bars;
     }
 
     /**
-     * Groups ticks into bars by accumulated dollar value (price * volume).
-     * Each bar contains ticks until the total dollar value reaches or exceeds the threshold.
+     * Adds a tick to the open brick and closes as many bricks as the price has moved through.
+     *
+     * @param priceTicks The price of the tick in price ticks, rounded to the grid if the Resampler is not fixed-point.
      */
-    private List<Bar> resampleByDollar(List<Tick> ticks) {
-        List<Bar> bars = new ArrayList<>();
-        Bar currentBar = null;
-        double currentDollarValue = 0.0;
+    private void onRenkoTick(long timestamp, double price, long priceTicks, int volume, byte side) {
+        accumulate(timestamp, price, priceTicks, volume, side);
+        if (renkoAnchor == NO_ANCHOR) {
+            renkoAnchor = priceTicks;
+            return;
+        }
+        long bricks = (priceTicks - renkoAnchor) / threshold;
+        if (bricks == 0) {
+            return;
+        }
+        long step = bricks > 0 ? threshold : -threshold;
+        long openTicks = renkoAnchor;
+        renkoAnchor += step;
+        if (fixedPoint) {
+            currentBar.setBrickTicks(openTicks, renkoAnchor);
+        } else {
+            currentBar.setBrick(priceScale.toPrice(openTicks), priceScale.toPrice(renkoAnchor));
+        }
+        closeBar();
+        for (long brick = Math.abs(bricks); brick > 1; brick--) {
+            double open = priceScale.toPrice(renkoAnchor);
+            renkoAnchor += step;
+            emitEmpty(timestamp, open, priceScale.toPrice(renkoAnchor));
+        }
+    }
 
-        for (Tick tick : ticks) {
-            if (currentBar == null) {
-                // Start a new bar with the current tick, volume starts at 0
-                currentBar = new Bar(tick.timestamp(), tick.price(), tick.price(), tick.price(), tick.price(), 0L);
-                currentDollarValue = 0.0;
-            }
+    /**
+     * Emits a bar without ticks, such as a gap-filling bar or a brick jumped over by a single tick.
+     */
+    private void emitEmpty(long timestamp, double open, double close) {
+        double high = Math.max(open, close);
+        double low = Math.min(open, close);
+        if (barSink != null) {
+            barSink.onBar(timestamp, open, high, low, close, 0, timestamp, 0, 0, 0, 0.0, -1, -1);
+        }
+        if (barListener != null || appendedBars != null) {
+            emit(new Bar(timestamp, open, high, low, close, 0, timestamp, 0, 0, 0, 0.0, -1, -1));
+        }
+    }
+
+    /**
+     * Adds a tick to the current bar, starting a new bar at the tick's timestamp if none is open.
+     * Used by the TICK, VOLUME and DOLLAR strategies, whose bars close after the threshold-crossing tick.
+     */
+    private void accumulate(long timestamp, double price, long priceTicks, int volume, byte side) {
+        if (currentBar.isActive()) {
+            add(timestamp, price, priceTicks, volume, side);
+        } else {
+            start(timestamp, timestamp, price, priceTicks, volume, side);
+        }
+    }
+
+    /**
+     * Starts the current bar with a tick routed by {@link #route}, in price ticks if the Resampler is fixed-point.
+     */
+    private void start(long openTimestamp, long timestamp, double price, long priceTicks, int volume, byte side) {
+        if (fixedPoint) {
+            currentBar.startTicks(openTimestamp, timestamp, priceTicks, volume, side, tickIndex);
+        } else {
+            currentBar.start(openTimestamp, timestamp, price, volume, side, tickIndex);
+        }
+    }
+
+    /**
+     * Adds a tick routed by {@link #route} to the open bar, in price ticks if the Resampler is fixed-point.
+     */
+    private void add(long timestamp, double price, long priceTicks, int volume, byte side) {
+        if (fixedPoint) {
+            currentBar.addTicks(timestamp, priceTicks, volume, side);
+        } else {
+            currentBar.add(timestamp, price, volume, side);
+        }
+    }
+
+    /**
+     * Adds a tick's signed flow to the imbalance and closes the bar once the imbalance reaches
+     * its expected size; the closed bar then updates the expectations.
+     */
+    private void onImbalanceTick(long timestamp, double price, long priceTicks, int volume, byte side, double flow) {
+        accumulate(timestamp, price, priceTicks, volume, side);
+        imbalance += tradeSign(unitPrice(price, priceTicks), side) * flow;
+        long ticks = currentBar.tickCount();
+        if (ticks >= tickLimit || Math.abs(imbalance) >= flowTarget) {
+            double weight = observeBar(ticks);
+            expectedFlow += weight * (imbalance / ticks - expectedFlow);
+            flowTarget = Math.max(expectedTicks * Math.abs(expectedFlow), balancedFlow());
+            closeBar();
+        }
+    }
 
-            // Calculate the dollar value for this tick and accumulate
-            double tickDollarValue = tick.price() * tick.volume();
-            currentDollarValue += tickDollarValue;
-
-            // Update the bar with the current tick's data
-            currentBar = new Bar(
-                    currentBar.openTimestamp(),
-                    currentBar.open(),
-                    Math.max(currentBar.high(), tick.price()),
-                    Math.min(currentBar.low(), tick.price()),
-                    tick.price(),
-                    currentBar.totalVolume() + tick.volume()
-            );
-
-            // If accumulated dollar value meets or exceeds threshold, finalize bar
-            if (currentDollarValue >= threshold) {
-                bars.add(currentBar);
-                currentBar = null;
+    /**
+     * Adds a tick's flow to the buy or sell run of the bar and closes the bar once the larger run
+     * reaches its expected size; the closed bar then updates the expectations.
+     */
+    private void onRunsTick(long timestamp, double price, long priceTicks, int volume, byte side, double flow) {
+        accumulate(timestamp, price, priceTicks, volume, side);
+        byte sign = tradeSign(unitPrice(price, priceTicks), side);
+        if (sign > 0) {
+            buyFlow += flow;
+            buyTicks++;
+        } else if (sign < 0) {
+            sellFlow += flow;
+            sellTicks++;
+        }
+        long ticks = currentBar.tickCount();
+        if (ticks >= tickLimit || Math.max(buyFlow, sellFlow) >= flowTarget) {
+            double weight = observeBar(ticks);
+            long signedTicks = buyTicks + sellTicks;
+            if (signedTicks > 0) {
+                expectedBuyShare += weight * ((double) buyTicks / signedTicks - expectedBuyShare);
+            }
+            if (buyTicks > 0) {
+                expectedBuyFlow += weight * (buyFlow / buyTicks - expectedBuyFlow);
             }
+            if (sellTicks > 0) {
+                expectedSellFlow += weight * (sellFlow / sellTicks - expectedSellFlow);
+            }
+            flowTarget = Math.max(balancedFlow(), expectedTicks
+                    * Math.max(expectedBuyShare * expectedBuyFlow, (1 - expectedBuyShare) * expectedSellFlow));
+            closeBar();
+        }
+    }
+
+    /**
+     * Returns the floor of the flow target: the typical imbalance of a bar of E[T] balanced ticks.
+     */
+    private double balancedFlow() {
+        return Math.sqrt(expectedTicks) * expectedAbsFlow;
+    }
+
+    /**
+     * Folds the length and unsigned flow of a completed bar into the expected ticks per bar and
+     * the expected flow per tick. No bar has closed before the first one, which therefore sets
+     * every expectation outright.
+     *
+     * @return The weight of the completed bar in the other averages.
+     */
+    private double observeBar(long ticks) {
+        double barFlow = switch (resampleType) {
+            case VOLUME_IMBALANCE, VOLUME_RUNS -> currentBar.volume();
+            case DOLLAR_IMBALANCE, DOLLAR_RUNS -> currentBar.dollarValue();
+            default -> ticks;
+        };
+        double absFlow = barFlow / ticks;
+        if (expectedTicks == 0) {
+            expectedTicks = ticks;
+            expectedAbsFlow = absFlow;
+            tickLimit = maxExpectedTicks;
+            return 1.0;
         }
+        expectedTicks += ewmaAlpha * (ticks - expectedTicks);
+        expectedTicks = Math.clamp(expectedTicks, minExpectedTicks, maxExpectedTicks);
+        expectedAbsFlow += ewmaAlpha * (absFlow - expectedAbsFlow);
+        return ewmaAlpha;
+    }
 
-        // Add the last incomplete bar if it exists
-        if (currentBar != null) {
-            bars.add(currentBar);
+    /**
+     * Returns the trade sign of a tick: the reported side if known, otherwise the tick rule,
+     * i.e. the sign of the last non-zero price change.
+     */
+    private byte tradeSign(double price, byte side) {
+        // The first price compares false against NaN and leaves the sign unknown
+        if (price > lastPrice) {
+            tickRuleSign = 1;
+        } else if (price < lastPrice) {
+            tickRuleSign = -1;
+        }
+        lastPrice = price;
+        return side != 0 ? side : tickRuleSign;
+    }
+
+    private void closeBar() {
+        if (barSink != null) {
+            currentBar.emit(barSink);
+        }
+        if (barListener != null || appendedBars != null) {
+            emit(currentBar.toBar());
+        }
+        currentBar.reset();
+        imbalance = 0;
+        buyFlow = 0;
+        sellFlow = 0;
+        buyTicks = 0;
+        sellTicks = 0;
+    }
+
+    private void emit(Bar bar) {
+        if (barListener != null) {
+            barListener.accept(bar);
+        }
+        if (appendedBars != null) {
+            appendedBars.add(bar);
         }
-        return bars;
     }
-}
\ No newline at end of file
+}
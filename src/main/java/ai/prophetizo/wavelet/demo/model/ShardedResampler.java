@@ -0,0 +1,370 @@
+package ai.prophetizo.wavelet.demo.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Resamples the ticks of many symbols at once, with one {@link Resampler} per symbol.
+ * <p>
+ * Symbols are partitioned over a fixed number of shards, each run by its own worker thread. A
+ * shard exclusively owns the resamplers of its symbols, found through a primitive
+ * open-addressing map from symbol id to slot, so the per-symbol state is only ever touched by
+ * one thread and needs no locks. The feed thread appends ticks to a per-shard batch and hands
+ * full batches to the shard; empty batches come back through a second queue, so the steady
+ * state does not allocate and the cost of a queue hand-off is shared by a whole batch.
+ * <p>
+ * {@link #onTick(long, long, double, int, byte)}, {@link #flush()} and {@link #close()} must be
+ * called from a single feed thread. Bars are delivered on the shard threads: the bars of one
+ * symbol arrive in order on the same thread, but a listener shared by several shards must be
+ * thread-safe. Ticks reach a shard no later than {@link #flush()}. If a shard fails or its thread
+ * dies, the feed thread is not left blocked on it: the next call that hands it a batch throws an
+ * IllegalStateException caused by the shard's exception.
+ */
+public class ShardedResampler implements AutoCloseable {
+
+    /**
+     * Receives the bars of every symbol as they close, on the thread of the symbol's shard.
+     */
+    @FunctionalInterface
+    public interface Listener {
+
+        /**
+         * @param symbol The id of the symbol the bar belongs to.
+         * @param bar    The closed bar.
+         */
+        void onBar(long symbol, Bar bar);
+    }
+
+    /**
+     * The number of ticks per batch handed to a shard.
+     */
+    public static final int BATCH_SIZE = 1024;
+
+    // Symbols per shard to allocate room for when the caller gives no estimate
+    private static final int DEFAULT_EXPECTED_SYMBOLS = 1024;
+
+    // Batches in flight per shard: one being filled, the rest queued or being processed
+    private static final int BATCHES_PER_SHARD = 8;
+
+    // How long the feed thread waits on a shard's queue before checking that the shard is still alive
+    private static final long LIVENESS_CHECK_MILLIS = 100;
+
+    private final Shard[] shards;
+    private final Batch[] filling;
+    private volatile Throwable failure;
+    private boolean closed;
+
+    /**
+     * Constructs a ShardedResampler with the same configuration for every symbol and starts its shard threads.
+     *
+     * @param resampleType The type of resampling to perform.
+     * @param threshold    The value that defines when a bar is complete, see {@link Resampler#Resampler(ResampleType, long)}.
+     * @param shardCount   The number of shards, and therefore of worker threads.
+     * @param listener     Receives every closed bar with its symbol.
+     * @throws IllegalArgumentException if threshold or the number of shards is not positive.
+     */
+    public ShardedResampler(ResampleType resampleType, long threshold, int shardCount, Listener listener) {
+        this(factory(resampleType, threshold), shardCount, DEFAULT_EXPECTED_SYMBOLS, listener);
+    }
+
+    private static Function<Consumer<Bar>, Resampler> factory(ResampleType resampleType, long threshold) {
+        // Resamplers are created lazily on the shard threads, so reject an invalid threshold up front
+        if (threshold <= 0) {
+            throw new IllegalArgumentException("Threshold must be positive.");
+        }
+        return barListener -> new Resampler(resampleType, threshold, barListener);
+    }
+
+    /**
+     * Constructs a ShardedResampler that creates the resampler of every new symbol with a factory,
+     * e.g. {@code barListener -> Resampler.builder(type, threshold).gapPolicy(policy).onBar(barListener).build()},
+     * and starts its shard threads.
+     *
+     * @param factory         Creates the resampler of a symbol from the listener that must receive its bars.
+     *                        Called on the symbol's shard thread when its first tick arrives.
+     * @param shardCount      The number of shards, and therefore of worker threads.
+     * @param expectedSymbols The number of symbols per shard to allocate room for up front.
+     * @param listener        Receives every closed bar with its symbol.
+     * @throws IllegalArgumentException if the number of shards is not positive.
+     */
+    public ShardedResampler(Function<Consumer<Bar>, Resampler> factory, int shardCount, int expectedSymbols,
+                            Listener listener) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("Shard count must be positive.");
+        }
+        this.shards = new Shard[shardCount];
+        this.filling = new Batch[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Shard(factory, expectedSymbols, listener);
+            filling[i] = shards[i].free.poll();
+        }
+        for (int i = 0; i < shardCount; i++) {
+            Thread thread = new Thread(shards[i]::run, "resampler-shard-" + i);
+            thread.setDaemon(true);
+            shards[i].thread = thread;
+            thread.start();
+        }
+    }
+
+    /**
+     * @return The number of shards.
+     */
+    public int shardCount() {
+        return shards.length;
+    }
+
+    /**
+     * Returns the shard that owns a symbol.
+     *
+     * @param symbol The id of the symbol.
+     * @return An index from 0 to {@link #shardCount()} - 1.
+     */
+    public int shardOf(long symbol) {
+        return Math.floorMod((int) SymbolIndex.mix(symbol), shards.length);
+    }
+
+    /**
+     * Routes a tick to the shard of its symbol. The tick is buffered until its batch is full or
+     * {@link #flush()} is called; this blocks only while the shard is a whole queue of batches behind.
+     *
+     * @param symbol    The id of the symbol; ticks of one symbol must be in chronological order.
+     * @param timestamp The tick timestamp in milliseconds.
+     * @param price     The traded price.
+     * @param volume    The traded volume.
+     * @param side      The aggressor side as a {@link Side#code()}.
+     * @throws IllegalStateException if the resampler is closed or a shard has failed.
+     */
+    public void onTick(long symbol, long timestamp, double price, int volume, byte side) {
+        int shard = shardOf(symbol);
+        Batch batch = filling[shard];
+        if (batch == null) {
+            throw closedOrFailed();
+        }
+        int i = batch.size;
+        batch.symbols[i] = symbol;
+        batch.timestamps[i] = timestamp;
+        batch.prices[i] = price;
+        batch.volumes[i] = volume;
+        batch.sides[i] = side;
+        batch.size = i + 1;
+        if (batch.size == BATCH_SIZE) {
+            filling[shard] = publish(shard, batch);
+            checkFailure();
+        }
+    }
+
+    /**
+     * Hands every buffered tick to its shard and asks every shard to emit the open bar of each of
+     * its symbols, see {@link Resampler#flush()}. Returns without waiting for the shards.
+     *
+     * @throws IllegalStateException if the resampler is closed or a shard has failed.
+     */
+    public void flush() {
+        for (int shard = 0; shard < shards.length; shard++) {
+            Batch batch = filling[shard];
+            if (batch == null) {
+                throw closedOrFailed();
+            }
+            batch.flush = true;
+            filling[shard] = publish(shard, batch);
+        }
+        checkFailure();
+    }
+
+    /**
+     * Flushes every symbol, then stops the shard threads and waits until they have delivered their last bar.
+     *
+     * @throws IllegalStateException if a shard has failed.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            if (failure == null) {
+                flush();
+            }
+        } finally {
+            for (int shard = 0; shard < shards.length; shard++) {
+                stop(shards[shard]);
+                filling[shard] = null;
+            }
+            for (Shard shard : shards) {
+                try {
+                    shard.thread.join();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while stopping the shards.", e);
+                }
+            }
+        }
+        checkFailure();
+    }
+
+    /**
+     * @return The number of symbols owned by each shard so far; only exact once the resampler is closed.
+     */
+    public int[] symbolCounts() {
+        int[] counts = new int[shards.length];
+        for (int shard = 0; shard < shards.length; shard++) {
+            counts[shard] = shards[shard].symbolCount;
+        }
+        return counts;
+    }
+
+    /**
+     * Hands a full batch to a shard and returns an empty one, checking that the shard is alive
+     * whenever one of its queues keeps the feed thread waiting.
+     */
+    private Batch publish(int shard, Batch batch) {
+        Shard target = shards[shard];
+        try {
+            while (!target.ready.offer(batch, LIVENESS_CHECK_MILLIS, TimeUnit.MILLISECONDS)) {
+                checkAlive(target);
+            }
+            Batch free;
+            while ((free = target.free.poll(LIVENESS_CHECK_MILLIS, TimeUnit.MILLISECONDS)) == null) {
+                checkAlive(target);
+            }
+            return free;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a shard.", e);
+        }
+    }
+
+    /**
+     * Asks a shard to stop once it has processed its queued batches; a shard whose thread has died needs no asking.
+     */
+    private static void stop(Shard shard) {
+        try {
+            while (!shard.ready.offer(Batch.STOP, LIVENESS_CHECK_MILLIS, TimeUnit.MILLISECONDS)) {
+                if (!shard.thread.isAlive()) {
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a shard.", e);
+        }
+    }
+
+    private void checkAlive(Shard shard) {
+        checkFailure();
+        if (!shard.thread.isAlive()) {
+            throw new IllegalStateException("Shard thread " + shard.thread.getName() + " has stopped.");
+        }
+    }
+
+    private void checkFailure() {
+        if (failure != null) {
+            throw closedOrFailed();
+        }
+    }
+
+    private IllegalStateException closedOrFailed() {
+        Throwable cause = failure;
+        return cause != null
+                ? new IllegalStateException("A shard failed while resampling.", cause)
+                : new IllegalStateException("The resampler is closed.");
+    }
+
+    /**
+     * A batch of ticks in columnar form, owned by either the feed thread or a shard at any time.
+     */
+    private static final class Batch {
+        static final Batch STOP = new Batch();
+
+        final long[] symbols = new long[BATCH_SIZE];
+        final long[] timestamps = new long[BATCH_SIZE];
+        final double[] prices = new double[BATCH_SIZE];
+        final int[] volumes = new int[BATCH_SIZE];
+        final byte[] sides = new byte[BATCH_SIZE];
+        int size;
+        boolean flush;
+    }
+
+    /**
+     * The symbols, resamplers and queues of one shard, all only touched by its thread apart from the queues.
+     */
+    private final class Shard {
+        final BlockingQueue<Batch> ready = new ArrayBlockingQueue<>(BATCHES_PER_SHARD);
+        final BlockingQueue<Batch> free = new ArrayBlockingQueue<>(BATCHES_PER_SHARD);
+        final Function<Consumer<Bar>, Resampler> factory;
+        final Listener listener;
+        final SymbolIndex index;
+        final List<Resampler> resamplers = new ArrayList<>();
+        Thread thread;
+        volatile int symbolCount;
+
+        Shard(Function<Consumer<Bar>, Resampler> factory, int expectedSymbols, Listener listener) {
+            this.factory = factory;
+            this.listener = listener;
+            this.index = new SymbolIndex(expectedSymbols);
+            for (int i = 0; i < BATCHES_PER_SHARD; i++) {
+                free.add(new Batch());
+            }
+        }
+
+        void run() {
+            try {
+                for (Batch batch = ready.take(); batch != Batch.STOP; batch = ready.take()) {
+                    if (failure == null) {
+                        try {
+                            process(batch);
+                        } catch (Throwable t) {
+                            // Keep recycling batches so that the feed thread never blocks on a dead shard
+                            fail(t);
+                        }
+                    }
+                    batch.size = 0;
+                    batch.flush = false;
+                    free.put(batch);
+                }
+            } catch (InterruptedException e) {
+                // The thread dies, so let the feed thread report why
+                fail(e);
+                Thread.currentThread().interrupt();
+            } catch (Throwable t) {
+                fail(t);
+                throw t;
+            }
+        }
+
+        private void fail(Throwable t) {
+            if (failure == null) {
+                failure = t;
+            }
+        }
+
+        private void process(Batch batch) {
+            long[] symbols = batch.symbols;
+            for (int i = 0, n = batch.size; i < n; i++) {
+                resampler(symbols[i]).onTick(batch.timestamps[i], batch.prices[i], batch.volumes[i], batch.sides[i]);
+            }
+            if (batch.flush) {
+                for (Resampler resampler : resamplers) {
+                    resampler.flush();
+                }
+            }
+        }
+
+        private Resampler resampler(long symbol) {
+            int slot = index.getOrAdd(symbol);
+            if (slot < resamplers.size()) {
+                return resamplers.get(slot);
+            }
+            Resampler resampler = factory.apply(bar -> listener.onBar(symbol, bar));
+            resamplers.add(resampler);
+            symbolCount = resamplers.size();
+            return resampler;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package ai.prophetizo.wavelet.demo.model;
+
+/**
+ * The side of the book a trade printed on, which identifies the aggressor.
+ * <p>
+ * Primitive tick paths carry the side as its {@link #code()}, which is also the
+ * trade sign used by order-flow statistics: +1 for buys, -1 for sells, 0 when unknown.
+ */
+public enum Side {
+    BID((byte) -1),    // Trade printed on the bid: the seller was the aggressor.
+    ASK((byte) 1),     // Trade printed on the ask: the buyer was the aggressor.
+    UNKNOWN((byte) 0); // The feed did not report a side.
+
+    private final byte code;
+
+    Side(byte code) {
+        this.code = code;
+    }
+
+    /**
+     * @return The compact code of this side, equal to the trade sign.
+     */
+    public byte code() {
+        return code;
+    }
+
+    /**
+     * Resolves a compact side code.
+     *
+     * @param code A code previously returned by {@link #code()}.
+     * @return The matching side, or UNKNOWN for any other value.
+     */
+    public static Side fromCode(byte code) {
+        return switch (code) {
+            case -1 -> BID;
+            case 1 -> ASK;
+            default -> UNKNOWN;
+        };
+    }
+}
@@ -0,0 +1,115 @@
+package ai.prophetizo.wavelet.demo.model;
+
+import java.util.Arrays;
+
+/**
+ * A primitive open-addressing map from symbol ids to dense slots {@code 0, 1, 2, ...}, assigned
+ * in order of first appearance.
+ * <p>
+ * Keys live in a power-of-two table probed linearly from a mixed hash, so a lookup touches a
+ * single cache line in the common case and neither keys nor values are boxed. The table is kept
+ * at most half full. A SymbolIndex is not thread-safe.
+ */
+final class SymbolIndex {
+
+    private static final int EMPTY = -1;
+
+    private long[] keys;
+    private int[] slots;
+    private int shift;
+    private int size;
+
+    /**
+     * @param expectedSymbols The number of symbols to allocate room for up front.
+     */
+    SymbolIndex(int expectedSymbols) {
+        allocate(Math.max(16, Integer.highestOneBit(Math.max(1, expectedSymbols) * 2 - 1) << 1));
+    }
+
+    /**
+     * @return The slot of a symbol, or -1 if the symbol has not been added.
+     */
+    int get(long symbol) {
+        int mask = keys.length - 1;
+        for (int i = index(symbol); ; i = (i + 1) & mask) {
+            int slot = slots[i];
+            if (slot == EMPTY || keys[i] == symbol) {
+                return slot;
+            }
+        }
+    }
+
+    /**
+     * Returns the slot of a symbol, assigning the next free slot if the symbol is new.
+     */
+    int getOrAdd(long symbol) {
+        int mask = keys.length - 1;
+        for (int i = index(symbol); ; i = (i + 1) & mask) {
+            int slot = slots[i];
+            if (slot == EMPTY) {
+                return add(i, symbol);
+            }
+            if (keys[i] == symbol) {
+                return slot;
+            }
+        }
+    }
+
+    /**
+     * @return The number of symbols added so far.
+     */
+    int size() {
+        return size;
+    }
+
+    private int add(int index, long symbol) {
+        int slot = size++;
+        keys[index] = symbol;
+        slots[index] = slot;
+        if (size * 2 > keys.length) {
+            rehash();
+        }
+        return slot;
+    }
+
+    private void rehash() {
+        long[] oldKeys = keys;
+        int[] oldSlots = slots;
+        allocate(oldKeys.length * 2);
+        int mask = keys.length - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldSlots[j] != EMPTY) {
+                int i = index(oldKeys[j]);
+                while (slots[i] != EMPTY) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = oldKeys[j];
+                slots[i] = oldSlots[j];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        slots = new int[capacity];
+        Arrays.fill(slots, EMPTY);
+        shift = 64 - Integer.numberOfTrailingZeros(capacity);
+    }
+
+    private int index(long symbol) {
+        return (int) (mix(symbol) >>> shift);
+    }
+
+    /**
+     * The MurmurHash3 finalizer; every output bit depends on every input bit, so both the high
+     * bits (used here) and the low bits (used to pick a shard) are well distributed.
+     */
+    static long mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return key;
+    }
+}
@@ -1,4 +1,25 @@
 package ai.prophetizo.wavelet.demo.model;
 
-public record Tick(long timestamp, double price, int volume) {
+import java.util.Objects;
+
+/**
+ * A single trade.
+ *
+ * @param timestamp The trade timestamp in milliseconds.
+ * @param price     The traded price.
+ * @param volume    The traded volume.
+ * @param side      The aggressor side, UNKNOWN if the feed did not report it.
+ */
+public record Tick(long timestamp, double price, int volume, Side side) {
+
+    public Tick {
+        Objects.requireNonNull(side, "side");
+    }
+
+    /**
+     * Creates a tick whose aggressor side is unknown.
+     */
+    public Tick(long timestamp, double price, int volume) {
+        this(timestamp, price, volume, Side.UNKNOWN);
+    }
 }
@@ -0,0 +1,206 @@
+package ai.prophetizo.wavelet.demo.model;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A columnar (struct-of-arrays) store of ticks, holding timestamps, prices, volumes and
+ * sides in parallel primitive arrays instead of a list of {@link Tick} records.
+ * <p>
+ * A buffer is either growable, in which case the columns are reallocated as needed, or
+ * fixed-capacity, in which case appending beyond the capacity fails. The backing arrays
+ * are exposed for tight loops; only the first {@link #size()} entries are valid.
+ * A TickBuffer is not thread-safe.
+ */
+public final class TickBuffer implements TickSink {
+
+    private static final int DEFAULT_CAPACITY = 1024;
+
+    private final boolean growable;
+    private long[] timestamps;
+    private double[] prices;
+    private int[] volumes;
+    private byte[] sides;
+    private int size;
+
+    private TickBuffer(int capacity, boolean growable) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity must not be negative.");
+        }
+        this.growable = growable;
+        this.timestamps = new long[capacity];
+        this.prices = new double[capacity];
+        this.volumes = new int[capacity];
+        this.sides = new byte[capacity];
+    }
+
+    /**
+     * Creates a buffer that grows as ticks are appended.
+     */
+    public static TickBuffer growable() {
+        return new TickBuffer(DEFAULT_CAPACITY, true);
+    }
+
+    /**
+     * Creates a buffer that grows as ticks are appended.
+     *
+     * @param initialCapacity The number of ticks to allocate room for up front.
+     */
+    public static TickBuffer growable(int initialCapacity) {
+        return new TickBuffer(initialCapacity, true);
+    }
+
+    /**
+     * Creates a buffer that holds at most {@code capacity} ticks and never reallocates.
+     *
+     * @param capacity The maximum number of ticks.
+     */
+    public static TickBuffer fixed(int capacity) {
+        return new TickBuffer(capacity, false);
+    }
+
+    /**
+     * Copies a list of ticks into a new fixed-capacity buffer of exactly the list's size.
+     */
+    public static TickBuffer of(List<Tick> ticks) {
+        TickBuffer buffer = fixed(ticks.size());
+        for (Tick tick : ticks) {
+            buffer.add(tick.timestamp(), tick.price(), tick.volume(), tick.side().code());
+        }
+        return buffer;
+    }
+
+    /**
+     * Appends a tick.
+     *
+     * @throws IllegalStateException if the buffer is fixed-capacity and full.
+     */
+    public void add(long timestamp, double price, int volume, byte side) {
+        if (size == timestamps.length) {
+            grow();
+        }
+        timestamps[size] = timestamp;
+        prices[size] = price;
+        volumes[size] = volume;
+        sides[size] = side;
+        size++;
+    }
+
+    @Override
+    public void onTick(long timestamp, double price, int volume, byte side) {
+        add(timestamp, price, volume, side);
+    }
+
+    /**
+     * Appends every tick of another buffer with one bulk copy per column.
+     *
+     * @throws IllegalStateException if this buffer is fixed-capacity and the ticks do not fit.
+     */
+    public void addAll(TickBuffer other) {
+        int count = other.size;
+        if (count > timestamps.length - size) {
+            grow(size + count);
+        }
+        System.arraycopy(other.timestamps, 0, timestamps, size, count);
+        System.arraycopy(other.prices, 0, prices, size, count);
+        System.arraycopy(other.volumes, 0, volumes, size, count);
+        System.arraycopy(other.sides, 0, sides, size, count);
+        size += count;
+    }
+
+    private void grow() {
+        grow(size + 1);
+    }
+
+    private void grow(int minCapacity) {
+        if (!growable) {
+            throw new IllegalStateException("TickBuffer is full (capacity " + timestamps.length + ").");
+        }
+        int capacity = Math.max(minCapacity, Math.max(DEFAULT_CAPACITY, timestamps.length + (timestamps.length >> 1)));
+        timestamps = Arrays.copyOf(timestamps, capacity);
+        prices = Arrays.copyOf(prices, capacity);
+        volumes = Arrays.copyOf(volumes, capacity);
+        sides = Arrays.copyOf(sides, capacity);
+    }
+
+    /**
+     * Removes all ticks while keeping the allocated capacity.
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return timestamps.length;
+    }
+
+    public boolean isGrowable() {
+        return growable;
+    }
+
+    public long timestamp(int index) {
+        checkIndex(index);
+        return timestamps[index];
+    }
+
+    public double price(int index) {
+        checkIndex(index);
+        return prices[index];
+    }
+
+    public int volume(int index) {
+        checkIndex(index);
+        return volumes[index];
+    }
+
+    public byte side(int index) {
+        checkIndex(index);
+        return sides[index];
+    }
+
+    /**
+     * Materializes the tick at an index as a record.
+     */
+    public Tick get(int index) {
+        checkIndex(index);
+        return new Tick(timestamps[index], prices[index], volumes[index], Side.fromCode(sides[index]));
+    }
+
+    /**
+     * @return The backing timestamp column; only the first {@link #size()} entries are valid.
+     */
+    public long[] timestamps() {
+        return timestamps;
+    }
+
+    /**
+     * @return The backing price column; only the first {@link #size()} entries are valid.
+     */
+    public double[] prices() {
+        return prices;
+    }
+
+    /**
+     * @return The backing volume column; only the first {@link #size()} entries are valid.
+     */
+    public int[] volumes() {
+        return volumes;
+    }
+
+    /**
+     * @return The backing side column of {@link Side#code()} values; only the first {@link #size()} entries are valid.
+     */
+    public byte[] sides() {
+        return sides;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        }
+    }
+}
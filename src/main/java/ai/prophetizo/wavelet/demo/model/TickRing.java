@@ -0,0 +1,191 @@
+package ai.prophetizo.wavelet.demo.model;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * A preallocated single-producer/single-consumer ring of primitive tick slots, used to hand
+ * ticks from a feed-handler thread to the thread that builds bars.
+ * <p>
+ * The ring is a columnar array of slots indexed by two ever-increasing sequences: the number of
+ * ticks published by the producer and the number consumed by the consumer. Each side only writes
+ * its own sequence (with release semantics, after the slot) and keeps a private copy of the other
+ * side's, which it re-reads only when the ring looks full or empty. The sequences sit on their own
+ * cache lines, so the two threads do not invalidate each other's lines on every tick, and no lock
+ * or allocation is involved. The consumer drains every available tick in one batch and releases
+ * the whole batch with a single write, e.g. straight into a streaming {@link Resampler}:
+ * <pre>
+ *   while (ring.take(resampler, 1024) >= 0) { }
+ *   resampler.flush();
+ * </pre>
+ * Exactly one thread may produce (add, {@link #close()}) and exactly one may consume.
+ */
+public final class TickRing implements TickSink {
+
+    private static final VarHandle VALUE;
+
+    static {
+        try {
+            VALUE = MethodHandles.lookup().findVarHandle(Value.class, "value", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final int mask;
+    private final long[] timestamps;
+    private final double[] prices;
+    private final int[] volumes;
+    private final byte[] sides;
+    private final WaitStrategy waitStrategy;
+
+    // published.value is written by the producer and published.cache holds its last view of consumed;
+    // consumed.value is written by the consumer and consumed.cache holds its last view of published
+    private final Sequence published = new Sequence();
+    private final Sequence consumed = new Sequence();
+    private volatile boolean closed;
+
+    /**
+     * Constructs a ring.
+     *
+     * @param capacity     The number of slots, a power of two.
+     * @param waitStrategy How {@link #onTick} and {@link #take} wait while the ring is full or empty.
+     * @throws IllegalArgumentException if the capacity is not a power of two.
+     */
+    public TickRing(int capacity, WaitStrategy waitStrategy) {
+        if (capacity < 1 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two.");
+        }
+        this.mask = capacity - 1;
+        this.timestamps = new long[capacity];
+        this.prices = new double[capacity];
+        this.volumes = new int[capacity];
+        this.sides = new byte[capacity];
+        this.waitStrategy = waitStrategy;
+    }
+
+    /**
+     * @return The number of slots.
+     */
+    public int capacity() {
+        return mask + 1;
+    }
+
+    /**
+     * Publishes a tick if a slot is free. Producer only.
+     *
+     * @return Whether the tick was published; false if the ring is full.
+     * @throws IllegalStateException if the ring is closed.
+     */
+    public boolean offer(long timestamp, double price, int volume, byte side) {
+        if (closed) {
+            throw new IllegalStateException("The ring is closed.");
+        }
+        long sequence = published.value;
+        if (sequence - published.cache > mask) {
+            published.cache = (long) VALUE.getAcquire(consumed);
+            if (sequence - published.cache > mask) {
+                return false;
+            }
+        }
+        int slot = (int) sequence & mask;
+        timestamps[slot] = timestamp;
+        prices[slot] = price;
+        volumes[slot] = volume;
+        sides[slot] = side;
+        VALUE.setRelease(published, sequence + 1);
+        return true;
+    }
+
+    /**
+     * Publishes a tick, waiting with the ring's wait strategy while the ring is full. Producer only.
+     *
+     * @throws IllegalStateException if the ring is closed.
+     */
+    @Override
+    public void onTick(long timestamp, double price, int volume, byte side) {
+        for (int attempt = 0; !offer(timestamp, price, volume, side); attempt++) {
+            waitStrategy.idle(attempt);
+        }
+    }
+
+    /**
+     * Marks the end of the stream: once the consumer has drained the remaining ticks,
+     * {@link #drain} and {@link #take} return -1. Producer only.
+     */
+    public void close() {
+        closed = true;
+    }
+
+    /**
+     * Passes the available ticks, up to a maximum, to a sink and frees their slots. Consumer only.
+     *
+     * @param sink     Receives the ticks in order.
+     * @param maxTicks The maximum number of ticks to drain.
+     * @return The number of ticks drained, 0 if none was available, or -1 if the ring is closed and empty.
+     */
+    public int drain(TickSink sink, int maxTicks) {
+        long next = consumed.value;
+        long available = consumed.cache;
+        if (available - next < maxTicks) {
+            // Only read the producer's sequence when the cached one cannot fill the batch;
+            // read closed before it, so that no tick published before close() is missed
+            boolean wasClosed = closed;
+            available = (long) VALUE.getAcquire(published);
+            consumed.cache = available;
+            if (next == available) {
+                return wasClosed ? -1 : 0;
+            }
+        }
+        long end = Math.min(available, next + maxTicks);
+        for (long sequence = next; sequence < end; sequence++) {
+            int slot = (int) sequence & mask;
+            sink.onTick(timestamps[slot], prices[slot], volumes[slot], sides[slot]);
+        }
+        VALUE.setRelease(consumed, end);
+        return (int) (end - next);
+    }
+
+    /**
+     * Like {@link #drain}, but waits with the ring's wait strategy until a tick is available or the ring is closed.
+     * Consumer only.
+     *
+     * @return The number of ticks drained, at least 1, or -1 if the ring is closed and empty.
+     */
+    public int take(TickSink sink, int maxTicks) {
+        for (int attempt = 0; ; attempt++) {
+            int drained = drain(sink, maxTicks);
+            if (drained != 0) {
+                return drained;
+            }
+            waitStrategy.idle(attempt);
+        }
+    }
+
+    /**
+     * @return The number of ticks published but not yet drained; a snapshot when called concurrently.
+     */
+    public int size() {
+        return (int) ((long) VALUE.getAcquire(published) - (long) VALUE.getAcquire(consumed));
+    }
+
+    /*
+     * A sequence padded on both sides with a cache line of longs. Fields of a superclass are laid
+     * out before those of its subclasses, so the value cannot share a line with other objects.
+     */
+
+    @SuppressWarnings("unused")
+    private abstract static class LeftPadding {
+        long p01, p02, p03, p04, p05, p06, p07, p08;
+    }
+
+    private abstract static class Value extends LeftPadding {
+        volatile long value;
+        long cache;
+    }
+
+    @SuppressWarnings("unused")
+    private static final class Sequence extends Value {
+        long p11, p12, p13, p14, p15, p16, p17, p18;
+    }
+}
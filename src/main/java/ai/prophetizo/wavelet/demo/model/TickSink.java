@@ -0,0 +1,19 @@
+package ai.prophetizo.wavelet.demo.model;
+
+/**
+ * A primitive consumer of ticks, used to stream trades from loaders into
+ * resamplers and buffers without allocating a Tick per row.
+ */
+@FunctionalInterface
+public interface TickSink {
+
+    /**
+     * Receives a single tick.
+     *
+     * @param timestamp The tick timestamp in milliseconds.
+     * @param price     The traded price.
+     * @param volume    The traded volume.
+     * @param side      The aggressor side as a {@link Side#code()}.
+     */
+    void onTick(long timestamp, double price, int volume, byte side);
+}
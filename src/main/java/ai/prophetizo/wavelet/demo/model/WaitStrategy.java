@@ -0,0 +1,33 @@
+package ai.prophetizo.wavelet.demo.model;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * How a thread waits on a {@link TickRing} that is full (producer) or empty (consumer).
+ * <p>
+ * Every strategy spins for a short while first, since the other side usually catches up
+ * within a few hundred nanoseconds; they differ in what they do once it does not.
+ */
+public enum WaitStrategy {
+    BUSY_SPIN, // Keep spinning: lowest latency, but occupies a core for as long as it waits.
+    YIELD,     // Yield the core to other threads between checks.
+    PARK;      // Park for a few microseconds between checks: lowest CPU use, highest latency.
+
+    private static final int SPIN_TRIES = 100;
+    private static final long PARK_NANOS = 1_000;
+
+    /**
+     * Waits once before the caller checks the ring again.
+     *
+     * @param attempt The number of checks that have already failed, from 0.
+     */
+    public void idle(int attempt) {
+        if (this == BUSY_SPIN || attempt < SPIN_TRIES) {
+            Thread.onSpinWait();
+        } else if (this == YIELD) {
+            Thread.yield();
+        } else {
+            LockSupport.parkNanos(PARK_NANOS);
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package ai.prophetizo.wavelet.demo.replay;
+
+import ai.prophetizo.wavelet.demo.io.BinaryTickReader;
+import ai.prophetizo.wavelet.demo.io.CompressedTickReader;
+import ai.prophetizo.wavelet.demo.io.MappedTickCsvReader;
+import ai.prophetizo.wavelet.demo.model.Resampler;
+import ai.prophetizo.wavelet.demo.model.TickSink;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Replays many tick files concurrently, each through its own pipeline of a streaming
+ * {@link Resampler} and whatever the resampler's bar listener feeds (e.g. an
+ * {@link ai.prophetizo.wavelet.demo.wavelet.IncrementalModwt}), with one virtual thread per file.
+ * <p>
+ * Every job runs on its own virtual thread, so thousands of symbol-days need no pool sizing.
+ * Reading a memory-mapped file blocks the carrier thread on page faults rather than unmounting
+ * the virtual thread, so a semaphore bounds the number of replays in progress: the other jobs
+ * wait for a permit before opening their file. Within a job the pipeline consumes every tick as
+ * it is read, so a slow pipeline slows its own reads down.
+ * <p>
+ * {@link #run(List)} is scoped like a structured task scope: it returns only once every job has
+ * finished, and the first failure cancels the jobs that have not completed and is rethrown.
+ * (StructuredTaskScope itself is still a preview API.) The progress counters may be read from
+ * any thread while a run is in progress.
+ */
+public class ReplayRunner {
+
+    /**
+     * Streams the ticks of one replay job into a sink.
+     */
+    @FunctionalInterface
+    public interface Source {
+
+        /**
+         * @param sink Receives every tick, in chronological order.
+         * @return The number of ticks streamed.
+         * @throws IOException if the ticks cannot be read.
+         */
+        long replay(TickSink sink) throws IOException;
+
+        /**
+         * @return A source that reads a {@code timestamp,side,size,price} CSV capture, see {@link MappedTickCsvReader}.
+         */
+        static Source csv(Path file) {
+            return sink -> MappedTickCsvReader.read(file, sink);
+        }
+
+        /**
+         * @return A source that reads a binary tick store, see {@link BinaryTickReader}.
+         */
+        static Source binary(Path file) {
+            return sink -> {
+                try (BinaryTickReader reader = BinaryTickReader.open(file)) {
+                    return reader.streamAll(sink);
+                }
+            };
+        }
+
+        /**
+         * @return A source that reads a compressed tick archive, see {@link CompressedTickReader}.
+         */
+        static Source compressed(Path file) {
+            return sink -> {
+                try (CompressedTickReader reader = CompressedTickReader.open(file)) {
+                    return reader.streamAll(sink);
+                }
+            };
+        }
+    }
+
+    /**
+     * One symbol-day to replay.
+     *
+     * @param name     A name for the job, used in error messages (e.g. the symbol and date).
+     * @param source   Streams the ticks of the job.
+     * @param pipeline Creates the resampler the ticks are fed to; called on the job's thread, so the
+     *                 resampler and its listeners are confined to that thread. The resampler is
+     *                 flushed after the last tick.
+     */
+    public record Job(String name, Source source, Supplier<Resampler> pipeline) {
+    }
+
+    /**
+     * The outcome of a run.
+     *
+     * @param jobs         The number of jobs replayed.
+     * @param ticks        The number of ticks replayed over all jobs.
+     * @param elapsedNanos The wall-clock time of the run.
+     */
+    public record Summary(int jobs, long ticks, long elapsedNanos) {
+
+        /**
+         * @return The aggregate throughput of the run, in ticks per second.
+         */
+        public double ticksPerSecond() {
+            return elapsedNanos == 0 ? 0.0 : ticks * 1e9 / elapsedNanos;
+        }
+    }
+
+    private final int maxConcurrentReplays;
+    private final LongAdder ticksReplayed = new LongAdder();
+    private final LongAdder jobsCompleted = new LongAdder();
+
+    /**
+     * Constructs a runner that replays up to four jobs per available processor at a time.
+     */
+    public ReplayRunner() {
+        this(4 * Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructs a runner.
+     *
+     * @param maxConcurrentReplays The maximum number of jobs reading their ticks at the same time.
+     * @throws IllegalArgumentException if the maximum is not positive.
+     */
+    public ReplayRunner(int maxConcurrentReplays) {
+        if (maxConcurrentReplays < 1) {
+            throw new IllegalArgumentException("Maximum concurrent replays must be positive.");
+        }
+        this.maxConcurrentReplays = maxConcurrentReplays;
+    }
+
+    /**
+     * Replays every job, each on its own virtual thread, and waits until all have finished.
+     *
+     * @param jobs The jobs to replay.
+     * @return The number of jobs and ticks replayed, and the time it took.
+     * @throws IOException           if a job fails to read its ticks; the remaining jobs are cancelled.
+     * @throws IllegalStateException if a pipeline fails; the remaining jobs are cancelled.
+     * @throws InterruptedException  if the calling thread is interrupted; the jobs are cancelled.
+     */
+    public Summary run(List<Job> jobs) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        Semaphore permits = new Semaphore(maxConcurrentReplays);
+        long ticks = 0;
+        try (ExecutorService executor = Executors.newThreadPerTaskExecutor(
+                Thread.ofVirtual().name("replay-", 0).factory())) {
+            CompletionService<Long> completion = new ExecutorCompletionService<>(executor);
+            List<Future<Long>> futures = jobs.stream()
+                    .map(job -> completion.submit(() -> replay(job, permits)))
+                    .toList();
+            try {
+                for (int i = 0; i < jobs.size(); i++) {
+                    ticks += completion.take().get();
+                }
+            } catch (ExecutionException e) {
+                futures.forEach(future -> future.cancel(true));
+                throw failure(e.getCause());
+            } catch (InterruptedException e) {
+                futures.forEach(future -> future.cancel(true));
+                throw e;
+            }
+        }
+        return new Summary(jobs.size(), ticks, System.nanoTime() - start);
+    }
+
+    private long replay(Job job, Semaphore permits) throws Exception {
+        permits.acquire();
+        try {
+            Resampler resampler = job.pipeline().get();
+            long ticks = job.source().replay(resampler);
+            resampler.flush();
+            ticksReplayed.add(ticks);
+            jobsCompleted.increment();
+            return ticks;
+        } catch (Exception e) {
+            throw new JobFailure(job.name(), e);
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Returns the IOException to throw for a failed job, or throws the unchecked failure directly.
+     */
+    private static IOException failure(Throwable cause) {
+        if (cause instanceof Error error) {
+            throw error;
+        }
+        if (!(cause instanceof JobFailure failure)) {
+            throw new IllegalStateException("Replay failed.", cause);
+        }
+        String message = "Replay of " + failure.name + " failed.";
+        if (failure.getCause() instanceof IOException) {
+            return new IOException(message, failure.getCause());
+        }
+        throw new IllegalStateException(message, failure.getCause());
+    }
+
+    /**
+     * @return The number of ticks replayed by the jobs completed so far, over every run of this runner.
+     */
+    public long ticksReplayed() {
+        return ticksReplayed.sum();
+    }
+
+    /**
+     * @return The number of jobs completed so far, over every run of this runner.
+     */
+    public long jobsCompleted() {
+        return jobsCompleted.sum();
+    }
+
+    /**
+     * Carries the name of the job that failed to the calling thread.
+     */
+    private static final class JobFailure extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        private final String name;
+
+        JobFailure(String name, Exception cause) {
+            super(cause);
+            this.name = name;
+        }
+    }
+}
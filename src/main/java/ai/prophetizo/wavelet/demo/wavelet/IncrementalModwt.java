@@ -0,0 +1,170 @@
+package ai.prophetizo.wavelet.demo.wavelet;
+
+import ai.prophetizo.wavelet.demo.model.Bar;
+import jwave.transforms.wavelets.Wavelet;
+
+import java.util.function.Consumer;
+
+/**
+ * An incremental maximal-overlap discrete wavelet transform (MODWT, the "à trous" algorithm)
+ * that updates every decomposition level in O(levels × filter length) when a new value arrives.
+ * <p>
+ * With the MODWT filters {@code h~ = h / sqrt(2)} and {@code g~ = g / sqrt(2)} taken from a JWave
+ * {@link Wavelet}, the coefficients at time t are
+ * <pre>
+ *   W[j][t] = sum_l h~[l] * V[j-1][t - 2^(j-1) * l]
+ *   V[j][t] = sum_l g~[l] * V[j-1][t - 2^(j-1) * l]      with V[0] = X
+ * </pre>
+ * Only the values of time t are new, so each level keeps a ring buffer of the past
+ * {@code (L - 1) * 2^(j-1) + 1} values of {@code V[j-1]} and computes its two new coefficients
+ * from it, instead of transforming a whole rolling window per bar. The output is causal; it equals
+ * a batch (circular) MODWT of the same series at every time from {@link #warmUpLength()} on,
+ * before which missing history is treated as zero.
+ * <p>
+ * The transform implements {@code Consumer<Bar>} and transforms bar closes, so it can be passed
+ * directly as a Resampler's bar listener. It does not allocate per update. An IncrementalModwt is
+ * not thread-safe.
+ */
+public class IncrementalModwt implements Consumer<Bar> {
+
+    /**
+     * Receives the coefficients of every new value.
+     */
+    @FunctionalInterface
+    public interface Listener {
+
+        /**
+         * @param timestamp The timestamp of the new value.
+         * @param details   The wavelet coefficients W[1..J] of the new value, finest first. The array is
+         *                  reused and only valid during the call.
+         * @param smooth    The scaling coefficient V[J] of the new value.
+         */
+        void onCoefficients(long timestamp, double[] details, double smooth);
+    }
+
+    private final int levels;
+    private final int filterLength;
+    private final double[] waveletFilter;
+    private final double[] scalingFilter;
+    private final Listener listener;
+
+    // history[j] holds the recent values of V[j], the input of level j + 1; V[0] is the input itself
+    private final double[][] history;
+    private final int[] masks;
+    private final double[] details;
+    private double smooth;
+    private long count;
+
+    /**
+     * Constructs an incremental MODWT.
+     *
+     * @param wavelet  The JWave wavelet that supplies the filters.
+     * @param levels   The number of decomposition levels, at least 1.
+     * @param listener Receives the coefficients of every new value; may be null if the accessors are polled instead.
+     * @throws IllegalArgumentException if levels is not positive.
+     */
+    public IncrementalModwt(Wavelet wavelet, int levels, Listener listener) {
+        if (levels < 1 || levels > 30) {
+            throw new IllegalArgumentException("Levels must be between 1 and 30.");
+        }
+        double[] scaling = wavelet.getScalingDeComposition();
+        double[] wavelets = wavelet.getWaveletDeComposition();
+        this.levels = levels;
+        this.filterLength = scaling.length;
+        this.scalingFilter = new double[filterLength];
+        this.waveletFilter = new double[filterLength];
+        for (int l = 0; l < filterLength; l++) {
+            scalingFilter[l] = scaling[l] / Math.sqrt(2.0);
+            waveletFilter[l] = wavelets[l] / Math.sqrt(2.0);
+        }
+        this.listener = listener;
+
+        this.history = new double[levels][];
+        this.masks = new int[levels];
+        for (int j = 0; j < levels; j++) {
+            int span = (filterLength - 1) * (1 << j) + 1;
+            int capacity = Integer.highestOneBit(span - 1) << 1;
+            history[j] = new double[Math.max(capacity, 1)];
+            masks[j] = history[j].length - 1;
+        }
+        this.details = new double[levels];
+    }
+
+    /**
+     * Transforms the close of a bar that just closed.
+     */
+    @Override
+    public void accept(Bar bar) {
+        onValue(bar.openTimestamp(), bar.close());
+    }
+
+    /**
+     * Adds a value and updates the coefficients of every level.
+     *
+     * @param timestamp The timestamp reported for the value.
+     * @param value     The new value of the series.
+     */
+    public void onValue(long timestamp, double value) {
+        int t = (int) count;
+        double input = value;
+        for (int j = 0; j < levels; j++) {
+            double[] past = history[j];
+            int mask = masks[j];
+            past[t & mask] = input;
+
+            int stride = 1 << j;
+            double w = 0.0;
+            double v = 0.0;
+            for (int l = 0, k = t; l < filterLength; l++, k -= stride) {
+                double x = past[k & mask];
+                w += waveletFilter[l] * x;
+                v += scalingFilter[l] * x;
+            }
+            details[j] = w;
+            input = v;
+        }
+        smooth = input;
+        count++;
+
+        if (listener != null) {
+            listener.onCoefficients(timestamp, details, smooth);
+        }
+    }
+
+    /**
+     * @return The number of levels.
+     */
+    public int levels() {
+        return levels;
+    }
+
+    /**
+     * @return The number of values received so far.
+     */
+    public long count() {
+        return count;
+    }
+
+    /**
+     * @return The number of values after which every coefficient depends only on real history,
+     * {@code (L - 1) * (2^J - 1) + 1}.
+     */
+    public long warmUpLength() {
+        return (long) (filterLength - 1) * ((1L << levels) - 1) + 1;
+    }
+
+    /**
+     * @param level The level, from 1 (finest) to {@link #levels()}.
+     * @return The wavelet coefficient of the latest value at that level.
+     */
+    public double detail(int level) {
+        return details[level - 1];
+    }
+
+    /**
+     * @return The scaling coefficient of the latest value at the coarsest level.
+     */
+    public double smooth() {
+        return smooth;
+    }
+}
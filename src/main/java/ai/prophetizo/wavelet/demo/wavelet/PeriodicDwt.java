@@ -0,0 +1,131 @@
+package ai.prophetizo.wavelet.demo.wavelet;
+
+import jwave.transforms.wavelets.Wavelet;
+
+import java.util.Arrays;
+
+/**
+ * An in-place, allocation-free periodic discrete wavelet transform over a fixed power-of-two length.
+ * <p>
+ * The filter coefficients come from a JWave {@link Wavelet}, and every step performs the same
+ * arithmetic as JWave's {@code Wavelet.forward}/{@code Wavelet.reverse}, so a full decomposition
+ * matches {@code new Transform(new FastWaveletTransform(wavelet))}. Unlike JWave, which returns a
+ * new array per step, the transform reuses one scratch buffer allocated at construction.
+ * A PeriodicDwt is not thread-safe.
+ * <p>
+ * After {@code forward(data, levels)} the coefficients are laid out as in JWave: the approximation
+ * in {@code [0, length >> levels)}, followed by the detail bands from coarsest to finest; the
+ * finest detail band occupies {@code [length / 2, length)}.
+ */
+public final class PeriodicDwt {
+
+    private final int length;
+    private final int maxLevels;
+    private final int filterLength;
+    private final double[] scalingDecomposition;
+    private final double[] waveletDecomposition;
+    private final double[] scalingReconstruction;
+    private final double[] waveletReconstruction;
+    private final double[] scratch;
+
+    /**
+     * Constructs a transform for signals of a given length.
+     *
+     * @param wavelet The JWave wavelet that supplies the filters.
+     * @param length  The signal length, a power of two of at least 2.
+     * @throws IllegalArgumentException if the length is not a power of two of at least 2.
+     */
+    public PeriodicDwt(Wavelet wavelet, int length) {
+        if (length < 2 || Integer.bitCount(length) != 1) {
+            throw new IllegalArgumentException("Length must be a power of two of at least 2.");
+        }
+        this.length = length;
+        this.maxLevels = Integer.numberOfTrailingZeros(length);
+        this.scalingDecomposition = wavelet.getScalingDeComposition().clone();
+        this.waveletDecomposition = wavelet.getWaveletDeComposition().clone();
+        this.scalingReconstruction = wavelet.getScalingReConstruction().clone();
+        this.waveletReconstruction = wavelet.getWaveletReConstruction().clone();
+        this.filterLength = scalingDecomposition.length;
+        this.scratch = new double[length];
+    }
+
+    /**
+     * @return The signal length.
+     */
+    public int length() {
+        return length;
+    }
+
+    /**
+     * @return The number of levels of a full decomposition, log2 of the length.
+     */
+    public int maxLevels() {
+        return maxLevels;
+    }
+
+    /**
+     * Decomposes a signal in place.
+     *
+     * @param data   The signal; its first {@link #length()} values are replaced by the coefficients.
+     * @param levels The number of decomposition levels, from 1 to {@link #maxLevels()}.
+     */
+    public void forward(double[] data, int levels) {
+        checkLevels(levels);
+        for (int h = length, level = 0; level < levels; h >>= 1, level++) {
+            forwardStep(data, h);
+        }
+    }
+
+    /**
+     * Reconstructs a signal in place from the coefficients of {@link #forward(double[], int)}.
+     *
+     * @param data   The coefficients; its first {@link #length()} values are replaced by the signal.
+     * @param levels The number of decomposition levels used for the forward transform.
+     */
+    public void inverse(double[] data, int levels) {
+        checkLevels(levels);
+        for (int h = length >> (levels - 1); h <= length; h <<= 1) {
+            inverseStep(data, h);
+        }
+    }
+
+    private void forwardStep(double[] data, int h) {
+        int half = h >> 1;
+        for (int i = 0; i < half; i++) {
+            double approximation = 0.0;
+            double detail = 0.0;
+            for (int j = 0; j < filterLength; j++) {
+                int k = (i << 1) + j;
+                while (k >= h) {
+                    k -= h;
+                }
+                approximation += data[k] * scalingDecomposition[j];
+                detail += data[k] * waveletDecomposition[j];
+            }
+            scratch[i] = approximation;
+            scratch[i + half] = detail;
+        }
+        System.arraycopy(scratch, 0, data, 0, h);
+    }
+
+    private void inverseStep(double[] data, int h) {
+        int half = h >> 1;
+        Arrays.fill(scratch, 0, h, 0.0);
+        for (int i = 0; i < half; i++) {
+            for (int j = 0; j < filterLength; j++) {
+                int k = (i << 1) + j;
+                while (k >= h) {
+                    k -= h;
+                }
+                scratch[k] += (data[i] * scalingReconstruction[j]) + (data[i + half] * waveletReconstruction[j]);
+            }
+        }
+        System.arraycopy(scratch, 0, data, 0, h);
+    }
+
+    private void checkLevels(int levels) {
+        if (levels < 1 || levels > maxLevels) {
+            throw new IllegalArgumentException("Levels must be between 1 and " + maxLevels + ".");
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package ai.prophetizo.wavelet.demo.wavelet;
+
+import ai.prophetizo.wavelet.demo.model.Bar;
+import jwave.transforms.wavelets.Wavelet;
+
+import java.util.function.Consumer;
+
+/**
+ * A streaming pipeline stage that wavelet-denoises bar close prices as bars close.
+ * <p>
+ * The stage keeps the last {@code windowSize} closes in a ring buffer. Once the window is full,
+ * every new close triggers a DWT of the window, soft thresholding of the detail coefficients with
+ * the universal threshold {@code sigma * sqrt(2 ln N)} (sigma estimated from the median absolute
+ * finest-level detail), and an inverse DWT. The denoised window is handed to a listener.
+ * <p>
+ * All buffers are allocated at construction, so steady-state processing does not allocate; one
+ * instance per symbol keeps hundreds of symbols independent. The stage implements
+ * {@code Consumer<Bar>}, so it can be passed directly as a Resampler's bar listener.
+ * A WaveletDenoiser is not thread-safe.
+ */
+public class WaveletDenoiser implements Consumer<Bar> {
+
+    /**
+     * Receives the denoised window after every close once the window is full.
+     */
+    @FunctionalInterface
+    public interface Listener {
+
+        /**
+         * @param timestamp The timestamp of the newest close in the window.
+         * @param denoised  The denoised closes, oldest first; the last value is the estimate for the newest
+         *                  close. The array is reused and only valid during the call.
+         */
+        void onDenoised(long timestamp, double[] denoised);
+    }
+
+    // Scales the median absolute deviation of Gaussian noise to its standard deviation
+    private static final double MAD_TO_SIGMA = 0.6745;
+
+    private final PeriodicDwt dwt;
+    private final int windowSize;
+    private final int levels;
+    private final double universalFactor;
+    private final Listener listener;
+
+    private final double[] window;
+    private final double[] coefficients;
+    private final double[] magnitudes;
+    private int next;
+    private long count;
+
+    /**
+     * Constructs a denoiser that decomposes the window down to every level.
+     *
+     * @param wavelet    The JWave wavelet used for the transform.
+     * @param windowSize The number of closes per window, a power of two of at least 2.
+     * @param listener   Receives the denoised window.
+     * @throws IllegalArgumentException if the window size is not a power of two of at least 2.
+     */
+    public WaveletDenoiser(Wavelet wavelet, int windowSize, Listener listener) {
+        this(wavelet, windowSize, Integer.numberOfTrailingZeros(windowSize), listener);
+    }
+
+    /**
+     * Constructs a denoiser.
+     *
+     * @param wavelet    The JWave wavelet used for the transform.
+     * @param windowSize The number of closes per window, a power of two of at least 2.
+     * @param levels     The number of decomposition levels, from 1 to log2(windowSize).
+     * @param listener   Receives the denoised window.
+     * @throws IllegalArgumentException if the window size or the number of levels is invalid.
+     */
+    public WaveletDenoiser(Wavelet wavelet, int windowSize, int levels, Listener listener) {
+        this.dwt = new PeriodicDwt(wavelet, windowSize);
+        if (levels < 1 || levels > dwt.maxLevels()) {
+            throw new IllegalArgumentException("Levels must be between 1 and " + dwt.maxLevels() + ".");
+        }
+        this.windowSize = windowSize;
+        this.levels = levels;
+        this.universalFactor = Math.sqrt(2.0 * Math.log(windowSize));
+        this.listener = listener;
+        this.window = new double[windowSize];
+        this.coefficients = new double[windowSize];
+        this.magnitudes = new double[windowSize / 2];
+    }
+
+    /**
+     * Adds the close of a bar that just closed.
+     */
+    @Override
+    public void accept(Bar bar) {
+        onClose(bar.openTimestamp(), bar.close());
+    }
+
+    /**
+     * Adds a close price; once the window is full, denoises it and notifies the listener.
+     *
+     * @param timestamp The timestamp reported for the close.
+     * @param close     The close price.
+     */
+    public void onClose(long timestamp, double close) {
+        window[next] = close;
+        next = (next + 1) & (windowSize - 1);
+        count++;
+        if (count < windowSize) {
+            return;
+        }
+
+        // Unroll the ring so that the oldest close comes first
+        int tail = windowSize - next;
+        System.arraycopy(window, next, coefficients, 0, tail);
+        System.arraycopy(window, 0, coefficients, tail, next);
+
+        dwt.forward(coefficients, levels);
+        shrinkDetails();
+        dwt.inverse(coefficients, levels);
+
+        listener.onDenoised(timestamp, coefficients);
+    }
+
+    /**
+     * @return The number of closes received so far.
+     */
+    public long count() {
+        return count;
+    }
+
+    /**
+     * Soft-thresholds every detail coefficient with the universal threshold.
+     */
+    private void shrinkDetails() {
+        int half = windowSize / 2;
+        for (int i = 0; i < half; i++) {
+            magnitudes[i] = Math.abs(coefficients[half + i]);
+        }
+        double sigma = median(magnitudes, half) / MAD_TO_SIGMA;
+        double threshold = sigma * universalFactor;
+
+        for (int i = windowSize >> levels; i < windowSize; i++) {
+            double value = coefficients[i];
+            double shrunk = Math.abs(value) - threshold;
+            coefficients[i] = shrunk > 0 ? Math.copySign(shrunk, value) : 0.0;
+        }
+    }
+
+    /**
+     * Returns the median of the first {@code size} values, partially reordering them in place.
+     */
+    static double median(double[] values, int size) {
+        int middle = size / 2;
+        double upper = select(values, 0, size - 1, middle);
+        if ((size & 1) == 1) {
+            return upper;
+        }
+        // The lower middle value is the largest value left of the upper one
+        double lower = values[0];
+        for (int i = 1; i < middle; i++) {
+            lower = Math.max(lower, values[i]);
+        }
+        return (lower + upper) / 2;
+    }
+
+    /**
+     * Hoare's quickselect: returns the value of rank {@code k} within {@code values[left, right]}.
+     */
+    private static double select(double[] values, int left, int right, int k) {
+        while (left < right) {
+            double pivot = values[(left + right) >>> 1];
+            int i = left;
+            int j = right;
+            while (i <= j) {
+                while (values[i] < pivot) {
+                    i++;
+                }
+                while (values[j] > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    double swap = values[i];
+                    values[i] = values[j];
+                    values[j] = swap;
+                    i++;
+                    j--;
+                }
+            }
+            if (k <= j) {
+                right = j;
+            } else if (k >= i) {
+                left = i;
+            } else {
+                break;
+            }
+        }
+        return values[k];
+    }
+}
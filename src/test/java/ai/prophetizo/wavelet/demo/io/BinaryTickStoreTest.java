@@ -0,0 +1,127 @@
+package ai.prophetizo.wavelet.demo.io;
+
+import ai.prophetizo.wavelet.demo.model.ResampleType;
+import ai.prophetizo.wavelet.demo.model.Resampler;
+import ai.prophetizo.wavelet.demo.model.Side;
+import ai.prophetizo.wavelet.demo.model.TickBuffer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BinaryTickStoreTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Should round-trip ticks and header fields")
+    void roundTrip() throws Exception {
+        Path file = tempDir.resolve("es.ticks");
+        try (BinaryTickWriter writer = new BinaryTickWriter(file, "ESZ4")) {
+            writer.onTick(1000L, 5998.75, 1, Side.ASK.code());
+            writer.onTick(1000L, 5998.5, 3, Side.BID.code());
+            writer.onTick(2500L, 5999.0, 2, Side.UNKNOWN.code());
+        }
+
+        try (BinaryTickReader reader = BinaryTickReader.open(file)) {
+            assertEquals("ESZ4", reader.symbol());
+            assertEquals(3, reader.count());
+            assertEquals(1000L, reader.startTimestamp());
+            assertEquals(2500L, reader.endTimestamp());
+
+            assertEquals(5998.5, reader.price(1));
+            assertEquals(3, reader.volume(1));
+            assertEquals(Side.BID.code(), reader.side(1));
+            assertEquals(2500L, reader.timestamp(2));
+            assertThrows(IndexOutOfBoundsException.class, () -> reader.price(3));
+
+            TickBuffer buffer = TickBuffer.growable();
+            assertEquals(3, reader.streamAll(buffer));
+            assertEquals(Side.UNKNOWN.code(), buffer.side(2));
+        }
+    }
+
+    @Test
+    @DisplayName("Seeking should find the first tick at or after a timestamp")
+    void seek() throws Exception {
+        Path file = tempDir.resolve("seek.ticks");
+        try (BinaryTickWriter writer = new BinaryTickWriter(file, "TEST", 4)) {
+            // Timestamps 0, 0, 10, 10, 20, 20, ... with duplicates crossing index blocks
+            for (int i = 0; i < 50; i++) {
+                writer.onTick((i / 2) * 10L, 100.0 + i, 1, Side.ASK.code());
+            }
+        }
+
+        try (BinaryTickReader reader = BinaryTickReader.open(file)) {
+            assertEquals(0, reader.seek(-5));
+            assertEquals(0, reader.seek(0));
+            assertEquals(2, reader.seek(1));
+            assertEquals(2, reader.seek(10));
+            assertEquals(8, reader.seek(40));
+            assertEquals(10, reader.seek(41));
+            assertEquals(48, reader.seek(240));
+            assertEquals(50, reader.seek(241));
+
+            TickBuffer buffer = TickBuffer.growable();
+            assertEquals(4, reader.streamBetween(40, 60, buffer));
+            assertEquals(40L, buffer.timestamp(0));
+            assertEquals(50L, buffer.timestamp(3));
+        }
+    }
+
+    @Test
+    @DisplayName("The writer should reject ticks that go back in time")
+    void rejectsOutOfOrderTicks() throws Exception {
+        try (BinaryTickWriter writer = new BinaryTickWriter(tempDir.resolve("bad.ticks"), "TEST")) {
+            writer.onTick(2000L, 1.0, 1, Side.ASK.code());
+            assertThrows(IllegalArgumentException.class, () -> writer.onTick(1000L, 1.0, 1, Side.ASK.code()));
+        }
+    }
+
+    @Test
+    @DisplayName("The reader should reject files that are not tick stores")
+    void rejectsForeignFiles() throws Exception {
+        Path file = tempDir.resolve("ticks.csv");
+        Files.writeString(file, "1734964200001,ASK,1,5998.75\n".repeat(4));
+
+        assertThrows(IllegalArgumentException.class, () -> BinaryTickReader.open(file));
+    }
+
+    @Test
+    @DisplayName("A converted capture should resample exactly like the CSV it came from")
+    void convertBundledCapture() throws Exception {
+        Path csv = Path.of(getClass().getResource("/ticks_1734964200000L.csv").toURI());
+        Path store = tempDir.resolve("es.ticks");
+
+        assertEquals(239_216, TickStoreConverter.convert(csv, store, "ES"));
+
+        TickBuffer fromCsv = MappedTickCsvReader.readBuffer(csv);
+        TickBuffer fromStore = TickBuffer.growable();
+        try (BinaryTickReader reader = BinaryTickReader.open(store)) {
+            reader.streamAll(fromStore);
+        }
+        Resampler resampler = new Resampler(ResampleType.VOLUME, 500);
+        assertEquals(resampler.resampleBuffer(fromCsv), resampler.resampleBuffer(fromStore));
+    }
+
+    @Test
+    @DisplayName("A failed conversion should leave no store behind and keep an existing one")
+    void failedConversionKeepsStore() throws Exception {
+        Path csv = tempDir.resolve("bad.csv");
+        Files.writeString(csv, "1734964200001,ASK,1,5998.75\n1734964200002,ASK,x,5998.75\n");
+        Path store = tempDir.resolve("es.ticks");
+
+        assertThrows(IllegalArgumentException.class, () -> TickStoreConverter.convert(csv, store, "ES"));
+        assertFalse(Files.exists(store));
+
+        Files.writeString(store, "previous");
+        assertThrows(IllegalArgumentException.class, () -> TickStoreConverter.convert(csv, store, "ES"));
+        assertEquals("previous", Files.readString(store));
+        assertFalse(Files.exists(tempDir.resolve("es.ticks.tmp")));
+    }
+}
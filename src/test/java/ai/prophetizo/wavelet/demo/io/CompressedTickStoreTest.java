@@ -0,0 +1,189 @@
+package ai.prophetizo.wavelet.demo.io;
+
+import ai.prophetizo.wavelet.demo.model.PriceScale;
+import ai.prophetizo.wavelet.demo.model.ResampleType;
+import ai.prophetizo.wavelet.demo.model.Resampler;
+import ai.prophetizo.wavelet.demo.model.Side;
+import ai.prophetizo.wavelet.demo.model.TickBuffer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CompressedTickStoreTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Should round-trip ticks and header fields across blocks")
+    void roundTrip() throws Exception {
+        Path file = tempDir.resolve("es.wtcz");
+        TickBuffer written = TickBuffer.growable();
+        Random random = new Random(7);
+        long timestamp = 1734964200001L;
+        double price = 5998.75;
+        for (int i = 0; i < 1000; i++) {
+            timestamp += random.nextInt(4) == 0 ? random.nextInt(1000) : 0;
+            price += (random.nextInt(3) - 1) * 0.25;
+            // Only the second block has unknown sides
+            byte side = i >= 256 && i < 512 && i % 7 == 0 ? Side.UNKNOWN.code()
+                    : random.nextBoolean() ? Side.ASK.code() : Side.BID.code();
+            written.add(timestamp, price, random.nextInt(3) == 0 ? 1 + random.nextInt(100_000) : 1, side);
+        }
+        try (CompressedTickWriter writer = new CompressedTickWriter(file, "ESZ4", new PriceScale(4), 256)) {
+            for (int i = 0; i < written.size(); i++) {
+                writer.onTick(written.timestamp(i), written.price(i), written.volume(i), written.side(i));
+            }
+        }
+
+        try (CompressedTickReader reader = CompressedTickReader.open(file)) {
+            assertEquals("ESZ4", reader.symbol());
+            assertEquals(1000, reader.count());
+            assertEquals(new PriceScale(4), reader.priceScale());
+            assertEquals(written.timestamp(0), reader.startTimestamp());
+            assertEquals(written.timestamp(999), reader.endTimestamp());
+
+            TickBuffer read = TickBuffer.growable();
+            assertEquals(1000, reader.streamAll(read));
+            for (int i = 0; i < written.size(); i++) {
+                assertEquals(written.get(i), read.get(i));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Prices on a decimal grid should decode to the same doubles")
+    void decimalGrid() throws Exception {
+        Path file = tempDir.resolve("cents.wtcz");
+        double[] prices = {100.01, 100.07, 99.99, 0.03, 123456.78};
+        try (CompressedTickWriter writer = new CompressedTickWriter(file, "TEST", PriceScale.ofIncrement(0.01))) {
+            for (int i = 0; i < prices.length; i++) {
+                writer.onTick(i, prices[i], 1, Side.BID.code());
+            }
+            assertThrows(IllegalArgumentException.class, () -> writer.onTick(10L, 100.015, 1, Side.BID.code()));
+        }
+
+        TickBuffer read = TickBuffer.growable();
+        try (CompressedTickReader reader = CompressedTickReader.open(file)) {
+            reader.streamAll(read);
+        }
+        for (int i = 0; i < prices.length; i++) {
+            assertEquals(prices[i], read.price(i));
+        }
+    }
+
+    @Test
+    @DisplayName("Streaming a time range should only yield the ticks within it")
+    void streamBetween() throws Exception {
+        Path file = tempDir.resolve("range.wtcz");
+        try (CompressedTickWriter writer = new CompressedTickWriter(file, "TEST", new PriceScale(1), 4)) {
+            // Timestamps 0, 0, 10, 10, 20, 20, ... with duplicates crossing blocks
+            for (int i = 0; i < 50; i++) {
+                writer.onTick((i / 2) * 10L, 100.0 + i, 1, Side.ASK.code());
+            }
+        }
+
+        try (CompressedTickReader reader = CompressedTickReader.open(file)) {
+            TickBuffer buffer = TickBuffer.growable();
+            assertEquals(4, reader.streamBetween(40, 60, buffer));
+            assertEquals(40L, buffer.timestamp(0));
+            assertEquals(108.0, buffer.price(0));
+            assertEquals(50L, buffer.timestamp(3));
+
+            assertEquals(0, reader.streamBetween(241, 300, TickBuffer.growable()));
+            assertEquals(50, reader.streamBetween(-5, 241, TickBuffer.growable()));
+        }
+    }
+
+    @Test
+    @DisplayName("The writer should reject ticks that go back in time")
+    void rejectsOutOfOrderTicks() throws Exception {
+        try (CompressedTickWriter writer = new CompressedTickWriter(tempDir.resolve("bad.wtcz"), "TEST", new PriceScale(4))) {
+            writer.onTick(2000L, 1.0, 1, Side.ASK.code());
+            assertThrows(IllegalArgumentException.class, () -> writer.onTick(1000L, 1.0, 1, Side.ASK.code()));
+        }
+    }
+
+    @Test
+    @DisplayName("The reader should reject files that are not compressed archives")
+    void rejectsForeignFiles() throws Exception {
+        Path store = tempDir.resolve("es.ticks");
+        try (BinaryTickWriter writer = new BinaryTickWriter(store, "ES")) {
+            writer.onTick(1000L, 1.0, 1, Side.ASK.code());
+        }
+
+        assertThrows(IllegalArgumentException.class, () -> CompressedTickReader.open(store));
+    }
+
+    @Test
+    @DisplayName("A block whose payload is cut short should be rejected rather than decoded from stale bytes")
+    void rejectsTruncatedPayload() throws Exception {
+        Path file = tempDir.resolve("cut.wtcz");
+        Random random = new Random(11);
+        try (CompressedTickWriter writer = new CompressedTickWriter(file, "TEST", new PriceScale(4), 64)) {
+            long timestamp = 0;
+            for (int i = 0; i < 128; i++) {
+                timestamp += random.nextInt(1000);
+                writer.onTick(timestamp, 1000.0 + random.nextInt(400) * 0.25, 1 + random.nextInt(1000), Side.ASK.code());
+            }
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer bytes = ByteBuffer.allocate(Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            channel.read(bytes, CompressedTickFormat.INDEX_OFFSET_OFFSET);
+            long indexOffset = bytes.getLong(0);
+            channel.read(bytes.clear(), indexOffset + CompressedTickFormat.INDEX_ENTRY_SIZE + Long.BYTES);
+            long secondBlock = bytes.getLong(0);
+            channel.read(bytes.clear().limit(Integer.BYTES), secondBlock + CompressedTickFormat.BLOCK_PAYLOAD_FIELD);
+            int length = bytes.getInt(0);
+            channel.write(bytes.clear().putInt(0, length / 2).limit(Integer.BYTES),
+                    secondBlock + CompressedTickFormat.BLOCK_PAYLOAD_FIELD);
+        }
+
+        try (CompressedTickReader reader = CompressedTickReader.open(file)) {
+            assertThrows(IllegalArgumentException.class, () -> reader.streamAll(TickBuffer.growable()));
+        }
+    }
+
+    @Test
+    @DisplayName("A compressed capture should be far smaller and resample exactly like the CSV it came from")
+    void compressBundledCapture() throws Exception {
+        Path csv = Path.of(getClass().getResource("/ticks_1734964200000L.csv").toURI());
+        Path store = tempDir.resolve("es.ticks");
+        Path archive = tempDir.resolve("es.wtcz");
+
+        TickStoreConverter.convert(csv, store, "ES");
+        assertEquals(239_216, TickStoreConverter.compress(csv, archive, "ES", new PriceScale(4)));
+        assertTrue(Files.size(archive) * 10 < Files.size(store));
+
+        TickBuffer fromCsv = MappedTickCsvReader.readBuffer(csv);
+        TickBuffer fromArchive = TickBuffer.growable();
+        try (CompressedTickReader reader = CompressedTickReader.open(archive)) {
+            reader.streamAll(fromArchive);
+        }
+        Resampler resampler = new Resampler(ResampleType.VOLUME, 500);
+        assertEquals(resampler.resampleBuffer(fromCsv), resampler.resampleBuffer(fromArchive));
+    }
+
+    @Test
+    @DisplayName("A capture with a price off the grid should leave no archive behind")
+    void failedCompressionLeavesNoArchive() throws Exception {
+        Path csv = tempDir.resolve("off-grid.csv");
+        Files.writeString(csv, "1734964200001,ASK,1,5998.75\n1734964200002,ASK,1,5998.80\n");
+        Path archive = tempDir.resolve("es.wtcz");
+
+        assertThrows(IllegalArgumentException.class,
+                () -> TickStoreConverter.compress(csv, archive, "ES", new PriceScale(4)));
+        assertFalse(Files.exists(archive));
+        assertFalse(Files.exists(tempDir.resolve("es.wtcz.tmp")));
+    }
+}
@@ -0,0 +1,121 @@
+package ai.prophetizo.wavelet.demo.io;
+
+import ai.prophetizo.wavelet.demo.model.Side;
+import ai.prophetizo.wavelet.demo.model.Tick;
+import ai.prophetizo.wavelet.demo.model.TickBuffer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MappedTickCsvReaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Should parse every field of a row, including the side")
+    void parsesRows() throws Exception {
+        Path file = tempDir.resolve("ticks.csv");
+        Files.writeString(file, """
+                1734964200001,ASK,1,5998.75
+                1734964200002,BID,12,5998.5
+                1734964200003,BID,3,6000
+                """);
+
+        List<Long> timestamps = new ArrayList<>();
+        List<Double> prices = new ArrayList<>();
+        List<Integer> volumes = new ArrayList<>();
+        List<Byte> sides = new ArrayList<>();
+        long rows = MappedTickCsvReader.read(file, (timestamp, price, volume, side) -> {
+            timestamps.add(timestamp);
+            prices.add(price);
+            volumes.add(volume);
+            sides.add(side);
+        });
+
+        assertEquals(3, rows);
+        assertEquals(List.of(1734964200001L, 1734964200002L, 1734964200003L), timestamps);
+        assertEquals(List.of(5998.75, 5998.5, 6000.0), prices);
+        assertEquals(List.of(1, 12, 3), volumes);
+        assertEquals(List.of(Side.ASK.code(), Side.BID.code(), Side.BID.code()), sides);
+    }
+
+    @Test
+    @DisplayName("Should skip a header line and accept CRLF endings without a trailing newline")
+    void skipsHeaderAndHandlesCrlf() throws Exception {
+        Path file = tempDir.resolve("ticks.csv");
+        Files.writeString(file, "timestamp,side,size,price\r\n1000,ASK,5,-1.25\r\n2000,BID,7,0.1");
+
+        List<Tick> ticks = MappedTickCsvReader.readTicks(file);
+
+        assertEquals(List.of(new Tick(1000L, -1.25, 5, Side.ASK), new Tick(2000L, 0.1, 7, Side.BID)), ticks);
+    }
+
+    @Test
+    @DisplayName("Should reject a malformed row")
+    void rejectsMalformedRow() throws Exception {
+        Path file = tempDir.resolve("ticks.csv");
+        Files.writeString(file, "1000,ASK,x,1.0\n");
+
+        assertThrows(IllegalArgumentException.class, () -> MappedTickCsvReader.readTicks(file));
+    }
+
+    @Test
+    @DisplayName("Should reject a missing, empty or oversized field at its byte offset")
+    void rejectsMalformedFieldsAtTheirOffset() throws Exception {
+        assertRejectedAt("1000,ASK,1,1.0\n2000,BID\n3000,ASK,1,1.0\n", "missing field", 20);
+        assertRejectedAt("1000,ASK,1,\n", "empty price", 11);
+        assertRejectedAt("1000,ASK,1,-\n", "empty price", 11);
+        assertRejectedAt("1000,ASK,,1.0\n", "empty size", 9);
+        assertRejectedAt("1000,ASK,1,1.0000000000000000001\n", "more than 18 digits", 11);
+        assertRejectedAt("99999999999999999999,ASK,1,1.0\n", "timestamp out of range", 0);
+        assertRejectedAt("1000,ASK,3000000000,1.0\n", "size out of range", 9);
+    }
+
+    private void assertRejectedAt(String csv, String problem, long offset) throws Exception {
+        Path file = tempDir.resolve("malformed.csv");
+        Files.writeString(file, csv);
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> MappedTickCsvReader.readTicks(file));
+        assertTrue(e.getMessage().contains(problem + " at byte offset " + offset), e.getMessage());
+    }
+
+    @Test
+    @DisplayName("Should match a String-based parse of the bundled capture")
+    void matchesBufferedReaderOnBundledCapture() throws Exception {
+        Path file = Path.of(getClass().getResource("/ticks_1734964200000L.csv").toURI());
+
+        List<Tick> expected = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(file)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.split(",");
+                expected.add(new Tick(Long.parseLong(fields[0]), Double.parseDouble(fields[3]), Integer.parseInt(fields[2]),
+                        Side.valueOf(fields[1])));
+            }
+        }
+
+        assertEquals(expected, MappedTickCsvReader.readTicks(file));
+    }
+
+    @Test
+    @DisplayName("Should load the bundled capture into a columnar buffer")
+    void readsBundledCaptureIntoBuffer() throws Exception {
+        Path file = Path.of(getClass().getResource("/ticks_1734964200000L.csv").toURI());
+
+        TickBuffer buffer = MappedTickCsvReader.readBuffer(file);
+
+        assertEquals(239_216, buffer.size());
+        assertEquals(new Tick(1734964200001L, 5998.75, 1, Side.ASK), buffer.get(0));
+        assertEquals(Side.ASK.code(), buffer.side(0));
+        assertEquals(Side.BID.code(), buffer.side(2));
+    }
+}
@@ -0,0 +1,91 @@
+package ai.prophetizo.wavelet.demo.io;
+
+import ai.prophetizo.wavelet.demo.model.TickBuffer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ParallelTickCsvReaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path writeCapture(int rows) throws Exception {
+        Random random = new Random(4);
+        StringBuilder csv = new StringBuilder("timestamp,side,size,price\r\n");
+        for (int i = 0; i < rows; i++) {
+            csv.append(1734964200000L + i).append(random.nextBoolean() ? ",ASK," : ",BID,")
+                    .append(1 + random.nextInt(50)).append(',').append(6000 + random.nextInt(400) / 4.0);
+            // Mixed line endings and no line break after the last row
+            if (i < rows - 1) {
+                csv.append(i % 2 == 0 ? "\r\n" : "\n");
+            }
+        }
+        Path file = tempDir.resolve("ticks.csv");
+        Files.writeString(file, csv);
+        return file;
+    }
+
+    @Test
+    @DisplayName("Parsing in parallel should yield the ticks of the sequential reader")
+    void matchesSequentialReader() throws Exception {
+        // Large enough for several ranges of at least 1 MiB
+        Path file = writeCapture(200_000);
+        TickBuffer expected = MappedTickCsvReader.readBuffer(file);
+
+        ForkJoinPool pool = new ForkJoinPool(8);
+        try {
+            TickBuffer actual = ParallelTickCsvReader.readBuffer(file, pool);
+
+            assertEquals(200_000, actual.size());
+            for (int i = 0; i < expected.size(); i++) {
+                assertEquals(expected.get(i), actual.get(i));
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Every range should start at the beginning of a row")
+    void cutsAtRowStarts() throws Exception {
+        Path file = writeCapture(200_000);
+        try (Arena arena = Arena.ofConfined();
+             FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MemorySegment data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size(), arena);
+
+            long[] cuts = ParallelTickCsvReader.cuts(data, 5);
+
+            assertEquals(6, cuts.length);
+            assertEquals(MappedTickCsvReader.firstRowOffset(data), cuts[0]);
+            assertEquals(data.byteSize(), cuts[5]);
+            for (int range = 1; range < 5; range++) {
+                assertTrue(cuts[range] > cuts[range - 1]);
+                assertEquals('\n', data.get(ValueLayout.JAVA_BYTE, cuts[range] - 1));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("A malformed row should be reported with its byte offset")
+    void reportsMalformedRow() throws Exception {
+        Path file = tempDir.resolve("bad.csv");
+        Files.writeString(file, "1,ASK,1,1.0\n2,BID,x,2\n");
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> ParallelTickCsvReader.readBuffer(file));
+        assertTrue(e.getMessage().contains("byte offset 18"));
+    }
+}
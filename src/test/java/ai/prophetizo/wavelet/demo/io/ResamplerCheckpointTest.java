@@ -0,0 +1,117 @@
+package ai.prophetizo.wavelet.demo.io;
+
+import ai.prophetizo.wavelet.demo.model.Bar;
+import ai.prophetizo.wavelet.demo.model.ResampleType;
+import ai.prophetizo.wavelet.demo.model.Resampler;
+import ai.prophetizo.wavelet.demo.model.TickBuffer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ResamplerCheckpointTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static List<Resampler> pipeline(List<List<Bar>> bars) {
+        List<Resampler> resamplers = new ArrayList<>();
+        for (ResampleType type : ResampleType.values()) {
+            long threshold = switch (type) {
+                case TIME -> 60_000;
+                case DOLLAR -> 6_000_000;
+                case RANGE, RENKO -> 2;
+                default -> 1_000;
+            };
+            List<Bar> sink = new ArrayList<>();
+            bars.add(sink);
+            resamplers.add(new Resampler(type, threshold, sink::add));
+        }
+        return resamplers;
+    }
+
+    @Test
+    @DisplayName("A restart from the last checkpoint should only replay the tail and yield the same bars")
+    void restartReplaysTail() throws Exception {
+        Path csv = Path.of(getClass().getResource("/ticks_1734964200000L.csv").toURI());
+        TickBuffer ticks = MappedTickCsvReader.readBuffer(csv);
+        Path file = tempDir.resolve("es.ckpt");
+
+        // Run until a crash after 100,000 ticks, with a checkpoint every 30,000
+        ResamplerCheckpoint checkpoint = new ResamplerCheckpoint(file, pipeline(new ArrayList<>()), 30_000);
+        for (int i = 0; i < 100_000; i++) {
+            checkpoint.onTick(ticks.timestamp(i), ticks.price(i), ticks.volume(i), ticks.side(i));
+        }
+        assertEquals(3, checkpoint.checkpoints());
+
+        List<List<Bar>> restored = new ArrayList<>();
+        List<Resampler> resamplers = pipeline(restored);
+        long resumeAt = ResamplerCheckpoint.restore(file, resamplers);
+        assertEquals(90_000, resumeAt);
+        for (int i = (int) resumeAt; i < ticks.size(); i++) {
+            for (Resampler resampler : resamplers) {
+                resampler.onTick(ticks.timestamp(i), ticks.price(i), ticks.volume(i), ticks.side(i));
+            }
+        }
+
+        List<List<Bar>> expected = new ArrayList<>();
+        List<Resampler> uninterrupted = pipeline(expected);
+        for (int i = 0; i < ticks.size(); i++) {
+            for (Resampler resampler : uninterrupted) {
+                resampler.onTick(ticks.timestamp(i), ticks.price(i), ticks.volume(i), ticks.side(i));
+            }
+        }
+        for (int k = 0; k < expected.size(); k++) {
+            // The bars still open at the checkpoint and everything after them
+            List<Bar> tail = expected.get(k).stream().filter(bar -> bar.lastTickIndex() >= resumeAt).toList();
+            assertEquals(tail, restored.get(k));
+            assertFalse(tail.isEmpty());
+        }
+    }
+
+    @Test
+    @DisplayName("Closing should checkpoint the open bars without flushing them")
+    void closeWritesFinalCheckpoint() throws Exception {
+        Path file = tempDir.resolve("close.ckpt");
+        List<Bar> bars = new ArrayList<>();
+        try (ResamplerCheckpoint checkpoint = new ResamplerCheckpoint(file,
+                List.of(new Resampler(ResampleType.VOLUME, 50, bars::add)), 1_000)) {
+            checkpoint.onTick(1000L, 100.0, 10, (byte) 1);
+            checkpoint.onTick(2000L, 101.0, 20, (byte) -1);
+        }
+        assertTrue(bars.isEmpty());
+        assertFalse(Files.exists(tempDir.resolve("close.ckpt.tmp")));
+
+        Resampler resampler = new Resampler(ResampleType.VOLUME, 50);
+        assertEquals(2, ResamplerCheckpoint.restore(file, List.of(resampler)));
+        Bar partial = resampler.partialBar().orElseThrow();
+        assertEquals(30, partial.totalVolume());
+        assertEquals(101.0, partial.high());
+    }
+
+    @Test
+    @DisplayName("Restoring should reject corrupt files and mismatched Resamplers")
+    void rejectsInvalidCheckpoints() throws Exception {
+        Path file = tempDir.resolve("bad.ckpt");
+        Resampler saved = new Resampler(ResampleType.TICK, 10);
+        saved.onTick(1000L, 100.0, 1);
+        ResamplerCheckpoint.write(file, List.of(saved));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> ResamplerCheckpoint.restore(file, List.of(new Resampler(ResampleType.TICK, 20))));
+        assertThrows(IllegalArgumentException.class,
+                () -> ResamplerCheckpoint.restore(file, List.of(new Resampler(ResampleType.TICK, 10), new Resampler(ResampleType.TICK, 10))));
+
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[40] ^= 1;
+        Files.write(file, bytes);
+        assertThrows(IllegalArgumentException.class,
+                () -> ResamplerCheckpoint.restore(file, List.of(new Resampler(ResampleType.TICK, 10))));
+    }
+}
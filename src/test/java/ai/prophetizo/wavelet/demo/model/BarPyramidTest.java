@@ -0,0 +1,102 @@
+package ai.prophetizo.wavelet.demo.model;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BarPyramidTest {
+
+    private static final long[] THRESHOLDS = {1_000L, 5_000L, 60_000L, 300_000L, 900_000L, 3_600_000L};
+
+    private static List<Tick> randomWalk(int count) {
+        Random random = new Random(42);
+        List<Tick> ticks = new ArrayList<>(count);
+        long timestamp = 1734964200001L;
+        double price = 6000.0;
+        for (int i = 0; i < count; i++) {
+            // Mostly sub-second gaps with occasional multi-minute pauses
+            timestamp += random.nextInt(100) == 0 ? random.nextInt(600_000) : random.nextInt(400);
+            // A step that is not a binary fraction, so that dollar values accumulate rounding errors
+            price += (random.nextInt(3) - 1) * 0.1;
+            ticks.add(new Tick(timestamp, price, 1 + random.nextInt(20)));
+        }
+        return ticks;
+    }
+
+    /**
+     * Asserts that two lists of bars are identical except for their dollar values, which need only be
+     * equal within rounding because a coarse bar sums them from the finer bars.
+     */
+    private static void assertSameBars(List<Bar> expected, List<Bar> actual, String message) {
+        assertEquals(withoutDollarValue(expected), withoutDollarValue(actual), message);
+        for (int i = 0; i < expected.size(); i++) {
+            double dollarValue = expected.get(i).dollarValue();
+            assertEquals(dollarValue, actual.get(i).dollarValue(), Math.abs(dollarValue) * 1e-12, message + ", bar " + i);
+        }
+    }
+
+    private static List<Bar> withoutDollarValue(List<Bar> bars) {
+        List<Bar> stripped = new ArrayList<>(bars.size());
+        for (Bar bar : bars) {
+            stripped.add(new Bar(bar.openTimestamp(), bar.open(), bar.high(), bar.low(), bar.close(), bar.totalVolume(),
+                    bar.closeTimestamp(), bar.tradeCount(), bar.buyVolume(), bar.sellVolume(), 0.0,
+                    bar.firstTickIndex(), bar.lastTickIndex()));
+        }
+        return stripped;
+    }
+
+    @Test
+    @DisplayName("Every level should match a TIME Resampler at the same threshold")
+    void levelsMatchIndependentResamplers() {
+        List<Tick> ticks = randomWalk(50_000);
+
+        List<List<Bar>> levels = new BarPyramid(THRESHOLDS).resample(ticks);
+
+        assertEquals(THRESHOLDS.length, levels.size());
+        for (int level = 0; level < THRESHOLDS.length; level++) {
+            assertSameBars(new Resampler(ResampleType.TIME, THRESHOLDS[level]).resample(ticks), levels.get(level),
+                    "level " + level);
+        }
+    }
+
+    @Test
+    @DisplayName("The columnar overload should produce the same bars as the list overload")
+    void bufferMatchesList() {
+        List<Tick> ticks = randomWalk(5_000);
+        BarPyramid pyramid = new BarPyramid(THRESHOLDS);
+
+        assertEquals(pyramid.resample(ticks), pyramid.resampleBuffer(TickBuffer.of(ticks)));
+    }
+
+    @Test
+    @DisplayName("Streaming should report each level's bars finest level first")
+    void streamingReportsLevels() {
+        List<Integer> levels = new ArrayList<>();
+        BarPyramid pyramid = new BarPyramid(new long[]{1_000L, 2_000L}, (level, bar) -> levels.add(level));
+
+        pyramid.onTick(100L, 1.0, 1);
+        pyramid.onTick(1100L, 2.0, 1);
+        assertEquals(List.of(0), levels);
+
+        // Closes the second 1s bar, which still belongs to the open 2s bar
+        pyramid.onTick(2100L, 3.0, 1);
+        assertEquals(List.of(0, 0), levels);
+
+        pyramid.flush();
+        assertEquals(List.of(0, 0, 0, 1, 1), levels);
+    }
+
+    @Test
+    @DisplayName("Constructor should reject thresholds that are not nested")
+    void rejectsInvalidThresholds() {
+        assertThrows(IllegalArgumentException.class, BarPyramid::new);
+        assertThrows(IllegalArgumentException.class, () -> new BarPyramid(0L, 1_000L));
+        assertThrows(IllegalArgumentException.class, () -> new BarPyramid(1_000L, 1_500L));
+        assertThrows(IllegalArgumentException.class, () -> new BarPyramid(5_000L, 1_000L));
+    }
+}
@@ -0,0 +1,72 @@
+package ai.prophetizo.wavelet.demo.model;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BarReductionTest {
+
+    private static TickBuffer randomTicks(int count, int maxVolume) {
+        Random random = new Random(11);
+        TickBuffer ticks = TickBuffer.fixed(count);
+        long timestamp = 0;
+        double price = 100.0;
+        for (int i = 0; i < count; i++) {
+            timestamp += random.nextInt(500);
+            price += (random.nextInt(3) - 1) * 0.25;
+            ticks.add(timestamp, price, 1 + random.nextInt(maxVolume), (byte) (random.nextInt(3) - 1));
+        }
+        return ticks;
+    }
+
+    @Test
+    @DisplayName("The reduction should match the scalar loops for every bar length and alignment")
+    void matchesScalar() {
+        TickBuffer ticks = randomTicks(5_000, 1_000);
+        for (int length : new int[]{1, 2, 3, 7, 8, 9, 31, 32, 33, 100, 1_001, 4_000}) {
+            for (int from : new int[]{0, 1, 5, 13}) {
+                assertEquals(BarReduction.reduceScalar(ticks, from, from + length),
+                        BarReduction.reduce(ticks, from, from + length), "length " + length + " from " + from);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("A reduced bar should equal the bar a Resampler builds tick by tick")
+    void matchesResampler() {
+        TickBuffer ticks = randomTicks(1_000, 1_000);
+        List<Bar> bars = new Resampler(ResampleType.TICK, 250).resampleBuffer(ticks);
+
+        assertEquals(4, bars.size());
+        for (int bar = 0; bar < bars.size(); bar++) {
+            assertEquals(bars.get(bar), BarReduction.reduce(ticks, bar * 250, bar * 250 + 250));
+        }
+    }
+
+    @Test
+    @DisplayName("The volume should not overflow when a bar exceeds the int range")
+    void volumeDoesNotOverflow() {
+        TickBuffer ticks = TickBuffer.fixed(64);
+        for (int i = 0; i < 64; i++) {
+            ticks.add(i, 100.0, Integer.MAX_VALUE, Side.ASK.code());
+        }
+
+        Bar bar = BarReduction.reduce(ticks, 0, 64);
+
+        assertEquals(64L * Integer.MAX_VALUE, bar.totalVolume());
+        assertEquals(64L * Integer.MAX_VALUE, bar.buyVolume());
+    }
+
+    @Test
+    @DisplayName("An empty or out-of-bounds range should be rejected")
+    void rejectsInvalidRange() {
+        TickBuffer ticks = randomTicks(10, 10);
+
+        assertThrows(IndexOutOfBoundsException.class, () -> BarReduction.reduce(ticks, 3, 3));
+        assertThrows(IndexOutOfBoundsException.class, () -> BarReduction.reduce(ticks, 5, 11));
+    }
+}
@@ -0,0 +1,59 @@
+package ai.prophetizo.wavelet.demo.model;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.lang.foreign.Arena;
+
+import static java.lang.foreign.ValueLayout.JAVA_DOUBLE;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OffHeapBarBufferTest {
+
+    private static Bar bar(int i) {
+        return new Bar(i * 1000L, i, i + 1.0, i - 1.0, i + 0.5, 10L * i, i * 1000L + 999, i, 4L * i, 6L * i,
+                i * 10.0 * i, 2L * i, 2L * i + 1);
+    }
+
+    @Test
+    @DisplayName("Bars should survive the buffer growing")
+    void growsAndKeepsBars() {
+        try (OffHeapBarBuffer buffer = OffHeapBarBuffer.allocate(1)) {
+            for (int i = 0; i < 3000; i++) {
+                buffer.add(bar(i));
+            }
+
+            assertEquals(3000, buffer.size());
+            assertTrue(buffer.capacity() >= 3000);
+            assertEquals(bar(0), buffer.get(0));
+            assertEquals(bar(2999), buffer.get(2999));
+            assertEquals(2999.5, buffer.closes().getAtIndex(JAVA_DOUBLE, 2999));
+            assertThrows(IndexOutOfBoundsException.class, () -> buffer.get(3000));
+        }
+    }
+
+    @Test
+    @DisplayName("An OHLCV bar from a BarSink caller should read back like Bar's OHLCV constructor")
+    void storesOhlcvBars() {
+        try (OffHeapBarBuffer buffer = OffHeapBarBuffer.allocate()) {
+            BarSink sink = buffer;
+            sink.onBar(1000L, 1.0, 2.0, 0.5, 1.5, 7L);
+
+            assertEquals(new Bar(1000L, 1.0, 2.0, 0.5, 1.5, 7L), buffer.get(0));
+        }
+    }
+
+    @Test
+    @DisplayName("A buffer in a caller's arena should live until that arena is closed")
+    void callerArenaOwnsMemory() {
+        OffHeapBarBuffer buffer;
+        try (Arena arena = Arena.ofConfined()) {
+            buffer = OffHeapBarBuffer.allocate(arena, 1);
+            buffer.add(bar(1));
+            buffer.add(bar(2));
+            buffer.close();
+            assertEquals(bar(2), buffer.get(1));
+        }
+        assertThrows(IllegalStateException.class, () -> buffer.get(0));
+    }
+}
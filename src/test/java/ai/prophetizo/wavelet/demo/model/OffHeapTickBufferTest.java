@@ -0,0 +1,78 @@
+package ai.prophetizo.wavelet.demo.model;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.lang.foreign.Arena;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OffHeapTickBufferTest {
+
+    @Test
+    @DisplayName("An off-heap buffer should keep appended ticks and reject overflow")
+    void keepsTicksAndRejectsOverflow() {
+        try (OffHeapTickBuffer buffer = OffHeapTickBuffer.allocate(2)) {
+            buffer.add(1L, 100.25, 3, Side.ASK.code());
+            buffer.add(2L, 100.5, 4, Side.BID.code());
+
+            assertThrows(IllegalStateException.class, () -> buffer.add(3L, 1.0, 1, Side.ASK.code()));
+            assertEquals(2, buffer.size());
+            assertEquals(new Tick(2L, 100.5, 4, Side.BID), buffer.get(1));
+            assertThrows(IndexOutOfBoundsException.class, () -> buffer.price(2));
+        }
+    }
+
+    @Test
+    @DisplayName("Closing the buffer or its arena should free the memory")
+    void closingFreesMemory() {
+        OffHeapTickBuffer owned = OffHeapTickBuffer.allocate(1);
+        owned.add(1L, 1.0, 1, Side.ASK.code());
+        owned.close();
+        assertThrows(IllegalStateException.class, () -> owned.timestamp(0));
+
+        OffHeapTickBuffer borrowed;
+        try (Arena arena = Arena.ofConfined()) {
+            borrowed = OffHeapTickBuffer.allocate(arena, 1);
+            borrowed.add(1L, 1.0, 1, Side.ASK.code());
+            borrowed.close();
+            assertEquals(1L, borrowed.timestamp(0));
+        }
+        assertThrows(IllegalStateException.class, () -> borrowed.timestamp(0));
+    }
+
+    @Test
+    @DisplayName("Resampling an off-heap buffer should match resampling the equivalent on-heap buffer")
+    void resampleMatchesOnHeap() {
+        Random random = new Random(3);
+        TickBuffer onHeap = TickBuffer.fixed(20_000);
+        try (OffHeapTickBuffer offHeap = OffHeapTickBuffer.allocate(20_000);
+             OffHeapBarBuffer offHeapBars = OffHeapBarBuffer.allocate(4)) {
+            long timestamp = 0;
+            double price = 100.0;
+            for (int i = 0; i < 20_000; i++) {
+                timestamp += random.nextInt(500);
+                price += (random.nextInt(3) - 1) * 0.25;
+                byte side = random.nextBoolean() ? Side.ASK.code() : Side.BID.code();
+                onHeap.add(timestamp, price, 1 + random.nextInt(9), side);
+                offHeap.add(timestamp, price, onHeap.volume(i), side);
+            }
+
+            for (ResampleType type : ResampleType.values()) {
+                Resampler resampler = new Resampler(type, type == ResampleType.TIME ? 60_000 : 100);
+                assertEquals(resampler.resampleBuffer(onHeap), resampler.resampleOffHeap(offHeap), type.name());
+            }
+
+            Resampler resampler = new Resampler(ResampleType.VOLUME, 250);
+            resampler.resampleOffHeap(offHeap, 100, 15_000, offHeapBars);
+            List<Bar> bars = new ArrayList<>();
+            for (long i = 0; i < offHeapBars.size(); i++) {
+                bars.add(offHeapBars.get(i));
+            }
+            assertEquals(resampler.resampleBuffer(onHeap, 100, 15_000), bars);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package ai.prophetizo.wavelet.demo.model;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ParallelResamplerTest {
+
+    private static ForkJoinPool pool;
+    private static TickBuffer ticks;
+
+    @BeforeAll
+    static void setUp() {
+        pool = new ForkJoinPool(4);
+
+        // Enough ticks for several chunks, with prices that are not exact in binary
+        Random random = new Random(7);
+        ticks = TickBuffer.growable(600_000);
+        long timestamp = 1734964200001L;
+        double price = 6000.0;
+        for (int i = 0; i < 600_000; i++) {
+            timestamp += random.nextInt(50) == 0 ? random.nextInt(100_000) : random.nextInt(40);
+            price += (random.nextInt(3) - 1) * 0.01;
+            int volume = random.nextInt(10) == 0 ? 0 : 1 + random.nextInt(20);
+            ticks.add(timestamp, price, volume, Side.ASK.code());
+        }
+    }
+
+    @AfterAll
+    static void tearDown() {
+        pool.shutdown();
+    }
+
+    @ParameterizedTest
+    @EnumSource(ResampleType.class)
+    @DisplayName("Parallel resampling should produce exactly the sequential bars")
+    void matchesSequential(ResampleType type) {
+        for (long threshold : new long[]{1, 7, 1_000, 60_000, 1_234_567, Long.MAX_VALUE}) {
+            List<Bar> expected = new Resampler(type, threshold).resampleBuffer(ticks);
+            List<Bar> actual = new ParallelResampler(type, threshold, pool).resampleBuffer(ticks);
+            assertEquals(expected, actual, type + " " + threshold);
+        }
+    }
+
+    @Test
+    @DisplayName("Small inputs should fall back to the sequential resampler")
+    void smallInputs() {
+        List<Tick> sample = List.of(new Tick(1000L, 100.0, 10), new Tick(2000L, 101.5, 5), new Tick(8000L, 99.5, 20));
+
+        assertEquals(new Resampler(ResampleType.VOLUME, 15).resample(sample),
+                new ParallelResampler(ResampleType.VOLUME, 15, pool).resample(sample));
+        assertTrue(new ParallelResampler(ResampleType.TICK, 3, pool).resample((List<Tick>) null).isEmpty());
+    }
+}
@@ -0,0 +1,34 @@
+package ai.prophetizo.wavelet.demo.model;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PriceScaleTest {
+
+    @Test
+    @DisplayName("Prices should round-trip through price ticks exactly")
+    void roundTrip() {
+        PriceScale quarters = PriceScale.ofIncrement(0.25);
+        assertEquals(4, quarters.ticksPerUnit());
+        assertEquals(23995, quarters.toTicks(5998.75));
+        assertEquals(5998.75, quarters.toPrice(23995));
+
+        PriceScale cents = PriceScale.ofIncrement(0.01);
+        assertEquals(100, cents.ticksPerUnit());
+        for (double price : new double[]{0.01, 0.07, 99.99, 100.03, 123456.78, -1.23}) {
+            assertEquals(price, cents.toPrice(cents.toTicks(price)));
+        }
+    }
+
+    @Test
+    @DisplayName("Prices and increments off the grid should be rejected")
+    void rejectsOffGridValues() {
+        assertThrows(IllegalArgumentException.class, () -> new PriceScale(4).toTicks(5998.8));
+        assertThrows(IllegalArgumentException.class, () -> new PriceScale(4).toTicks(Double.NaN));
+        assertThrows(IllegalArgumentException.class, () -> PriceScale.ofIncrement(0.3));
+        assertThrows(IllegalArgumentException.class, () -> PriceScale.ofIncrement(0));
+        assertThrows(IllegalArgumentException.class, () -> new PriceScale(0));
+    }
+}
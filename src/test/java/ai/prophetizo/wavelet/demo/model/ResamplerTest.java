@@ -4,7 +4,11 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
 
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -35,6 +39,13 @@ public class ResamplerTest {
         );
     }
 
+    /**
+     * Returns a threshold of the given type that closes a few bars over the sample ticks.
+     */
+    static long threshold(ResampleType type) {
+        return type == ResampleType.TIME ? 10000 : type == ResampleType.DOLLAR ? 5000 : 3;
+    }
+
     @Test
     @DisplayName("Constructor should throw IllegalArgumentException for non-positive threshold")
     void constructorShouldThrowExceptionForZeroThreshold() {
@@ -102,6 +113,94 @@ public class ResamplerTest {
         }
     }
 
+    @Nested
+    @DisplayName("Gap Policy Tests")
+    class GapPolicyTests {
+
+        private final List<Tick> gappedTicks = List.of(
+                new Tick(1000L, 100.0, 10),
+                new Tick(2500L, 101.0, 5),
+                // No ticks from 3000ms to 6999ms
+                new Tick(7200L, 99.0, 20)
+        );
+
+        private List<Bar> resample(GapPolicy gapPolicy) {
+            List<Bar> bars = new ArrayList<>();
+            Resampler resampler = Resampler.builder(ResampleType.TIME, 1000)
+                    .gapPolicy(gapPolicy)
+                    .onBar(bars::add)
+                    .build();
+            for (Tick tick : gappedTicks) {
+                resampler.onTick(tick.timestamp(), tick.price(), tick.volume());
+            }
+            resampler.flush();
+            return bars;
+        }
+
+        @Test
+        @DisplayName("Should skip empty intervals by default")
+        void skipsEmptyIntervals() {
+            List<Bar> bars = resample(GapPolicy.SKIP);
+
+            assertEquals(3, bars.size());
+            assertEquals(new Resampler(ResampleType.TIME, 1000).resample(gappedTicks), bars);
+        }
+
+        @Test
+        @DisplayName("Should forward-fill empty intervals with the previous close")
+        void forwardFillsEmptyIntervals() {
+            List<Bar> bars = resample(GapPolicy.FORWARD_FILL);
+
+            assertEquals(7, bars.size());
+            for (int i = 0; i < bars.size(); i++) {
+                assertEquals(1000L * (i + 1), bars.get(i).openTimestamp());
+            }
+            assertEquals(new Bar(3000L, 101.0, 101.0, 101.0, 101.0, 0, 3000L, 0, 0, 0, 0.0, -1, -1), bars.get(2));
+            assertEquals(101.0, bars.get(5).close());
+            assertEquals(0, bars.get(5).totalVolume());
+            assertEquals(99.0, bars.get(6).open());
+            assertEquals(20, bars.get(6).totalVolume());
+        }
+
+        @Test
+        @DisplayName("Should emit NaN bars for empty intervals")
+        void emitsNaNForEmptyIntervals() {
+            List<Bar> bars = resample(GapPolicy.EMPTY_NAN);
+
+            assertEquals(7, bars.size());
+            for (int i = 2; i < 6; i++) {
+                assertTrue(Double.isNaN(bars.get(i).open()));
+                assertTrue(Double.isNaN(bars.get(i).close()));
+                assertEquals(0, bars.get(i).tradeCount());
+            }
+            assertEquals(99.0, bars.get(6).close());
+        }
+
+        @Test
+        @DisplayName("Should not fill the gap after a flush")
+        void flushEndsTheSeries() {
+            List<Bar> bars = new ArrayList<>();
+            Resampler resampler = Resampler.builder(ResampleType.TIME, 1000)
+                    .gapPolicy(GapPolicy.FORWARD_FILL)
+                    .onBar(bars::add)
+                    .build();
+            resampler.onTick(1000L, 100.0, 1);
+            resampler.flush();
+            resampler.onTick(5000L, 101.0, 1);
+            resampler.flush();
+
+            assertEquals(2, bars.size());
+            assertEquals(5000L, bars.get(1).openTimestamp());
+        }
+
+        @Test
+        @DisplayName("Builder should reject a null gap policy")
+        void builderRejectsNullPolicy() {
+            assertThrows(NullPointerException.class,
+                    () -> Resampler.builder(ResampleType.TIME, 1000).gapPolicy(null).build());
+        }
+    }
+
     @Nested
     @DisplayName("Tick Resampling Tests")
     class TickResamplingTests {
@@ -207,4 +306,607 @@ public class ResamplerTest {
             assertEquals(88, bar2.totalVolume());
         }
     }
+
+    @Nested
+    @DisplayName("Bar Statistics Tests")
+    class BarStatisticsTests {
+
+        @Test
+        @DisplayName("Should collect order-flow statistics in the resampling pass")
+        void collectsStatistics() {
+            List<Tick> ticks = List.of(
+                    new Tick(1000L, 100.0, 10, Side.ASK),
+                    new Tick(2000L, 101.0, 5, Side.BID),
+                    new Tick(8000L, 99.0, 20, Side.UNKNOWN),
+                    new Tick(10000L, 102.0, 15, Side.BID),
+                    new Tick(11000L, 102.5, 8, Side.ASK)
+            );
+            List<Bar> bars = new Resampler(ResampleType.TIME, 10000).resample(ticks);
+
+            Bar bar1 = bars.getFirst();
+            assertEquals(8000L, bar1.closeTimestamp());
+            assertEquals(3, bar1.tradeCount());
+            assertEquals(10, bar1.buyVolume());
+            assertEquals(5, bar1.sellVolume());
+            assertEquals(3485.0, bar1.dollarValue(), 1e-9);
+            assertEquals(3485.0 / 35, bar1.vwap(), 1e-9);
+            assertEquals(0, bar1.firstTickIndex());
+            assertEquals(2, bar1.lastTickIndex());
+
+            Bar bar2 = bars.get(1);
+            assertEquals(11000L, bar2.closeTimestamp());
+            assertEquals(8, bar2.buyVolume());
+            assertEquals(15, bar2.sellVolume());
+            assertEquals(3, bar2.firstTickIndex());
+            assertEquals(4, bar2.lastTickIndex());
+        }
+
+        @Test
+        @DisplayName("Tick indexes should refer to the buffer when resampling a range")
+        void rangeIndexesReferToBuffer() {
+            TickBuffer buffer = TickBuffer.of(sampleTicks);
+            List<Bar> bars = new Resampler(ResampleType.TICK, 2).resampleBuffer(buffer, 3, 8);
+
+            assertEquals(3, bars.getFirst().firstTickIndex());
+            assertEquals(7, bars.getLast().lastTickIndex());
+            assertEquals(22000L, bars.getLast().closeTimestamp());
+        }
+
+        @Test
+        @DisplayName("A plain OHLCV bar should report unknown statistics")
+        void plainBarHasNoStatistics() {
+            Bar bar = new Bar(1000L, 1.0, 2.0, 0.5, 1.5, 10);
+
+            assertEquals(1000L, bar.closeTimestamp());
+            assertEquals(-1, bar.firstTickIndex());
+            assertTrue(Double.isNaN(bar.vwap()));
+        }
+    }
+
+    @Nested
+    @DisplayName("Imbalance Resampling Tests")
+    class ImbalanceResamplingTests {
+
+        private final byte ask = Side.ASK.code();
+        private final byte bid = Side.BID.code();
+
+        @Test
+        @DisplayName("Should close tick imbalance bars when the signed tick count reaches its expectation")
+        void resampleByTickImbalance() {
+            List<Bar> bars = new ArrayList<>();
+            Resampler resampler = Resampler.builder(ResampleType.TICK_IMBALANCE, 4)
+                    .ewmaSpan(3)
+                    .onBar(bars::add)
+                    .build();
+            byte[] sides = {ask, ask, ask, ask, ask, bid, ask, ask, ask, ask, bid, bid, bid, bid, bid};
+            for (int i = 0; i < sides.length; i++) {
+                resampler.onTick(i, 100.0, 1, sides[i]);
+            }
+
+            // The first bar lasts 4 ticks and sets E[T] = 4, E[b] = 1; the second needs |θ| >= 4,
+            // after which E[T] = 5 and E[b] = (1 + 4/6) / 2, so the third needs |θ| >= 4.17
+            assertEquals(3, bars.size());
+            assertEquals(4, bars.get(0).totalVolume());
+            assertEquals(6, bars.get(1).totalVolume());
+            assertEquals(5, bars.get(2).totalVolume());
+            assertEquals(10, bars.get(2).openTimestamp());
+        }
+
+        @Test
+        @DisplayName("Should sign ticks with an unknown side by the tick rule")
+        void tickRuleForUnknownSide() {
+            List<Bar> bars = new ArrayList<>();
+            Resampler resampler = new Resampler(ResampleType.TICK_IMBALANCE, 4, bars::add);
+            double[] prices = {100.0, 101.0, 102.0, 103.0, 103.0, 103.0, 103.0};
+            for (int i = 0; i < prices.length; i++) {
+                resampler.onTick(i, prices[i], 1);
+            }
+
+            // The first tick has no sign, so θ = 3 after the warm-up bar; unchanged prices keep the last sign
+            assertEquals(2, bars.size());
+            assertEquals(3, bars.get(1).totalVolume());
+        }
+
+        @Test
+        @DisplayName("Should weight volume imbalance bars by volume")
+        void resampleByVolumeImbalance() {
+            List<Bar> bars = new ArrayList<>();
+            Resampler resampler = new Resampler(ResampleType.VOLUME_IMBALANCE, 2, bars::add);
+            resampler.onTick(1L, 100.0, 10, ask);
+            resampler.onTick(2L, 100.0, 2, bid);
+            resampler.onTick(3L, 100.0, 5, ask);
+            assertEquals(1, bars.size());
+
+            // E[T] = 2, E[b v] = 4 and E[|v|] = 6, so the bar closes once the signed volume
+            // reaches max(2 * 4, sqrt(2) * 6) = 8.49
+            resampler.onTick(4L, 100.0, 3, ask);
+            assertEquals(1, bars.size());
+            resampler.onTick(5L, 100.0, 1, ask);
+            assertEquals(2, bars.size());
+            assertEquals(9, bars.get(1).totalVolume());
+        }
+
+        @Test
+        @DisplayName("Should not collapse to single-tick bars when buys and sells alternate")
+        void balancedFlowKeepsBarsLong() {
+            List<Bar> bars = new ArrayList<>();
+            Resampler resampler = new Resampler(ResampleType.TICK_IMBALANCE, 10, bars::add);
+            for (int i = 0; i < 1000; i++) {
+                resampler.onTick(i, 100.0, 1, i % 2 == 0 ? ask : bid);
+            }
+
+            // E[b] = 0 after the warm-up bar, but the target stays at sqrt(E[T]) ticks, which the
+            // imbalance never reaches, so every later bar closes at the upper bound of 40 ticks
+            assertEquals(25, bars.size());
+            assertEquals(10, bars.get(0).totalVolume());
+            for (int i = 1; i < bars.size(); i++) {
+                assertEquals(40, bars.get(i).totalVolume(), "bar " + i);
+            }
+        }
+
+        @Test
+        @DisplayName("Builder should reject a non-positive EWMA span or invalid bounds")
+        void builderRejectsInvalidOptions() {
+            assertThrows(IllegalArgumentException.class,
+                    () -> Resampler.builder(ResampleType.DOLLAR_IMBALANCE, 10).ewmaSpan(0).build());
+            assertThrows(IllegalArgumentException.class,
+                    () -> Resampler.builder(ResampleType.DOLLAR_IMBALANCE, 10).expectedTicksBounds(0, 10).build());
+            assertThrows(IllegalArgumentException.class,
+                    () -> Resampler.builder(ResampleType.DOLLAR_IMBALANCE, 10).expectedTicksBounds(20, 10).build());
+        }
+    }
+
+    @Nested
+    @DisplayName("Runs Resampling Tests")
+    class RunsResamplingTests {
+
+        private final byte ask = Side.ASK.code();
+        private final byte bid = Side.BID.code();
+
+        @Test
+        @DisplayName("Should close tick runs bars when the longer side reaches its expected run")
+        void resampleByTickRuns() {
+            List<Bar> bars = new ArrayList<>();
+            Resampler resampler = Resampler.builder(ResampleType.TICK_RUNS, 4)
+                    .ewmaSpan(3)
+                    .onBar(bars::add)
+                    .build();
+            byte[] sides = {ask, ask, bid, ask, bid, bid, ask, bid, ask, ask};
+            for (int i = 0; i < sides.length; i++) {
+                resampler.onTick(i, 100.0, 1, sides[i]);
+            }
+
+            // The first bar sets E[T] = 4 and P[buy] = 0.75, so the second needs a run of 3;
+            // it has P[buy] = 0.25, after which P[buy] = 0.5 and the third needs a run of 2
+            assertEquals(3, bars.size());
+            assertEquals(4, bars.get(1).totalVolume());
+            assertEquals(2, bars.get(2).totalVolume());
+        }
+
+        @Test
+        @DisplayName("Should weight volume runs by volume without netting buys against sells")
+        void resampleByVolumeRuns() {
+            List<Bar> bars = new ArrayList<>();
+            Resampler resampler = new Resampler(ResampleType.VOLUME_RUNS, 2, bars::add);
+            resampler.onTick(1L, 100.0, 10, ask);
+            resampler.onTick(2L, 100.0, 2, bid);
+
+            // E[T] = 2, P[buy] = 0.5 and E[v|buy] = 10, so the buy run must reach 10
+            resampler.onTick(3L, 100.0, 4, bid);
+            resampler.onTick(4L, 100.0, 6, ask);
+            assertEquals(1, bars.size());
+            resampler.onTick(5L, 100.0, 4, ask);
+            assertEquals(2, bars.size());
+            assertEquals(14, bars.get(1).totalVolume());
+        }
+
+        @Test
+        @DisplayName("The batch API should use the side carried by each tick")
+        void batchUsesTickSide() {
+            List<Tick> ticks = new ArrayList<>();
+            List<Bar> streamed = new ArrayList<>();
+            Resampler resampler = new Resampler(ResampleType.DOLLAR_RUNS, 3, streamed::add);
+            for (int i = 0; i < 40; i++) {
+                Side side = i % 3 == 0 ? Side.BID : Side.ASK;
+                ticks.add(new Tick(i, 100.0 + (i % 5), 1 + i % 4, side));
+                resampler.onTick(i, 100.0 + (i % 5), 1 + i % 4, side.code());
+            }
+            resampler.flush();
+
+            assertEquals(streamed, new Resampler(ResampleType.DOLLAR_RUNS, 3).resample(ticks));
+            assertEquals(Side.UNKNOWN, new Tick(1L, 1.0, 1).side());
+        }
+    }
+
+    @Nested
+    @DisplayName("Bar Sink Tests")
+    class BarSinkTests {
+
+        private static void assertSameOhlcv(List<Bar> expected, List<Bar> actual) {
+            assertEquals(expected.size(), actual.size());
+            for (int i = 0; i < expected.size(); i++) {
+                Bar e = expected.get(i);
+                assertEquals(new Bar(e.openTimestamp(), e.open(), e.high(), e.low(), e.close(), e.totalVolume()),
+                        actual.get(i));
+            }
+        }
+
+        @ParameterizedTest
+        @EnumSource(ResampleType.class)
+        @DisplayName("A bar sink should receive the same OHLCV as the batch API returns")
+        void sinkMatchesBatch(ResampleType type) {
+            Resampler resampler = new Resampler(type, threshold(type));
+            List<Bar> expected = resampler.resample(sampleTicks);
+
+            List<Bar> fromList = new ArrayList<>();
+            resampler.resample(sampleTicks, (t, o, h, l, c, v) -> fromList.add(new Bar(t, o, h, l, c, v)));
+            assertSameOhlcv(expected, fromList);
+
+            List<Bar> fromBuffer = new ArrayList<>();
+            TickBuffer buffer = TickBuffer.of(sampleTicks);
+            resampler.resampleBuffer(buffer, 0, buffer.size(), (t, o, h, l, c, v) -> fromBuffer.add(new Bar(t, o, h, l, c, v)));
+            assertSameOhlcv(expected, fromBuffer);
+        }
+
+        @Test
+        @DisplayName("A streaming resampler should feed both its sink and its listener")
+        void sinkAndListener() {
+            List<Bar> fromListener = new ArrayList<>();
+            List<Bar> fromSink = new ArrayList<>();
+            Resampler resampler = Resampler.builder(ResampleType.TIME, 1000)
+                    .gapPolicy(GapPolicy.FORWARD_FILL)
+                    .onBar(fromListener::add)
+                    .barSink((t, o, h, l, c, v) -> fromSink.add(new Bar(t, o, h, l, c, v)))
+                    .build();
+            resampler.onTick(1000L, 100.0, 10);
+            resampler.onTick(4500L, 101.0, 5);
+            resampler.flush();
+
+            assertEquals(4, fromListener.size());
+            assertSameOhlcv(fromListener, fromSink);
+        }
+
+        @Test
+        @DisplayName("resampleInto should replace the content of the given list")
+        void resampleIntoReusesList() {
+            Resampler resampler = new Resampler(ResampleType.TICK, 3);
+            List<Bar> bars = new ArrayList<>();
+            bars.add(new Bar(0L, 1.0, 1.0, 1.0, 1.0, 1));
+
+            assertSame(bars, resampler.resampleInto(sampleTicks, bars));
+            assertEquals(resampler.resample(sampleTicks), bars);
+
+            assertSame(bars, resampler.resampleBufferInto(TickBuffer.of(sampleTicks.subList(0, 4)), bars));
+            assertEquals(resampler.resample(sampleTicks.subList(0, 4)), bars);
+
+            assertTrue(resampler.resampleInto(List.of(), bars).isEmpty());
+        }
+    }
+
+    @Nested
+    @DisplayName("Incremental Append Tests")
+    class AppendTests {
+
+        @ParameterizedTest
+        @EnumSource(ResampleType.class)
+        @DisplayName("Appended bars plus the partial bar should match resampling every tick so far")
+        void appendMatchesBatch(ResampleType type) {
+            Resampler batch = new Resampler(type, threshold(type));
+            Resampler incremental = new Resampler(type, threshold(type));
+            List<Bar> closed = new ArrayList<>();
+            int[] cuts = {0, 2, 3, 6, sampleTicks.size()};
+            for (int i = 1; i < cuts.length; i++) {
+                closed.addAll(incremental.append(sampleTicks.subList(cuts[i - 1], cuts[i])));
+
+                List<Bar> bars = new ArrayList<>(closed);
+                incremental.partialBar().ifPresent(bars::add);
+                assertEquals(batch.resample(sampleTicks.subList(0, cuts[i])), bars);
+            }
+        }
+
+        @Test
+        @DisplayName("append should only return the bars closed by the new ticks")
+        void appendReturnsNewlyClosedBars() {
+            List<Bar> streamed = new ArrayList<>();
+            Resampler resampler = new Resampler(ResampleType.TICK, 3, streamed::add);
+            TickBuffer buffer = TickBuffer.of(sampleTicks);
+
+            assertTrue(resampler.partialBar().isEmpty());
+            assertTrue(resampler.append(buffer, 0, 2).isEmpty());
+            assertEquals(2, resampler.partialBar().orElseThrow().tradeCount());
+
+            List<Bar> bars = resampler.append(buffer, 2, 5);
+            assertEquals(1, bars.size());
+            assertEquals(2, bars.getFirst().lastTickIndex());
+            assertEquals(streamed, bars);
+            assertEquals(3, resampler.partialBar().orElseThrow().firstTickIndex());
+
+            assertEquals(1, resampler.append(buffer, 5, 6).size());
+            assertTrue(resampler.partialBar().isEmpty());
+        }
+    }
+
+    @Nested
+    @DisplayName("State Snapshot Tests")
+    class StateTests {
+
+        @ParameterizedTest
+        @EnumSource(ResampleType.class)
+        @DisplayName("A Resampler restored mid-bar should continue exactly like the saved one")
+        void restoredResamplerContinues(ResampleType type) {
+            Resampler saved = new Resampler(type, threshold(type));
+            saved.append(sampleTicks.subList(0, 4));
+            ByteBuffer state = ByteBuffer.allocate(Resampler.STATE_BYTES);
+            saved.writeState(state);
+            assertFalse(state.hasRemaining());
+
+            List<Bar> restored = new ArrayList<>();
+            Resampler resampler = new Resampler(type, threshold(type), restored::add);
+            resampler.readState(state.flip());
+            assertEquals(4, resampler.ticksReceived());
+            assertEquals(saved.partialBar(), resampler.partialBar());
+            resampler.append(sampleTicks.subList(4, sampleTicks.size()));
+            resampler.flush();
+
+            List<Bar> expected = new ArrayList<>(saved.append(sampleTicks.subList(4, sampleTicks.size())));
+            saved.partialBar().ifPresent(expected::add);
+            assertEquals(expected, restored);
+        }
+
+        @Test
+        @DisplayName("Restoring a state saved with another configuration should fail")
+        void rejectsOtherConfiguration() {
+            ByteBuffer state = ByteBuffer.allocate(Resampler.STATE_BYTES);
+            new Resampler(ResampleType.VOLUME, 50).writeState(state);
+
+            Resampler resampler = new Resampler(ResampleType.VOLUME, 60);
+            assertThrows(IllegalArgumentException.class, () -> resampler.readState(state.flip()));
+            assertEquals(0, state.position());
+        }
+    }
+
+    @Nested
+    @DisplayName("Range and Renko Resampling Tests")
+    class PriceResamplingTests {
+
+        private List<Bar> resample(ResampleType type, long threshold, double... prices) {
+            List<Bar> bars = new ArrayList<>();
+            Resampler resampler = Resampler.builder(type, threshold)
+                    .priceScale(PriceScale.ofIncrement(0.25))
+                    .onBar(bars::add)
+                    .build();
+            for (int i = 0; i < prices.length; i++) {
+                resampler.onTick(1000L * (i + 1), prices[i], 1);
+            }
+            resampler.flush();
+            return bars;
+        }
+
+        @Test
+        @DisplayName("A range bar should close on the tick that brings its range to the threshold")
+        void rangeBarsCloseAtThreshold() {
+            List<Bar> bars = resample(ResampleType.RANGE, 2, 100.0, 100.25, 100.5, 100.5, 100.25, 101.5, 101.0);
+
+            assertEquals(3, bars.size());
+            assertEquals(new Bar(1000L, 100.0, 100.5, 100.0, 100.5, 3, 3000L, 3, 0, 0, 300.75, 0, 2), bars.get(0));
+            // A jump closes the bar with a range beyond the threshold
+            assertEquals(100.25, bars.get(1).low());
+            assertEquals(101.5, bars.get(1).high());
+            assertEquals(1, bars.get(2).tradeCount());
+        }
+
+        @Test
+        @DisplayName("Renko bricks should close on moves of the brick size from the last brick close")
+        void renkoBricks() {
+            List<Bar> bars = resample(ResampleType.RENKO, 4, 100.0, 100.5, 100.75, 101.0, 100.25, 100.0, 100.75);
+
+            assertEquals(3, bars.size());
+            assertEquals(new Bar(1000L, 100.0, 101.0, 100.0, 101.0, 4, 4000L, 4, 0, 0, 402.25, 0, 3), bars.get(0));
+            assertEquals(new Bar(5000L, 101.0, 101.0, 100.0, 100.0, 2, 6000L, 2, 0, 0, 200.25, 4, 5), bars.get(1));
+            // The last tick has not completed a brick and is flushed as it is
+            assertEquals(100.75, bars.get(2).open());
+            assertEquals(100.75, bars.get(2).close());
+        }
+
+        @Test
+        @DisplayName("A tick that gaps through several bricks should close all of them")
+        void renkoGapClosesSeveralBricks() {
+            List<Bar> bars = resample(ResampleType.RENKO, 4, 100.0, 100.5, 97.75);
+
+            assertEquals(2, bars.size());
+            // The first brick keeps the extremes of its ticks, including the one that gapped through
+            assertEquals(new Bar(1000L, 100.0, 100.5, 97.75, 99.0, 3, 3000L, 3, 0, 0, 298.25, 0, 2), bars.get(0));
+            assertEquals(new Bar(3000L, 99.0, 99.0, 98.0, 98.0, 0, 3000L, 0, 0, 0, 0.0, -1, -1), bars.get(1));
+        }
+
+        @ParameterizedTest
+        @EnumSource(value = ResampleType.class, names = {"RANGE", "RENKO"})
+        @DisplayName("A price off the price grid should count as the nearest price tick")
+        void roundsOffGridPrices(ResampleType type) {
+            // 100.9 rounds to 101.0, four price ticks above the first price
+            List<Bar> bars = resample(type, 4, 100.0, 100.9, 100.6);
+
+            assertEquals(2, bars.size());
+            assertEquals(2, bars.get(0).tradeCount());
+            assertEquals(100.6, bars.get(1).close());
+        }
+    }
+
+    @Nested
+    @DisplayName("Streaming Tests")
+    class StreamingTests {
+
+        @ParameterizedTest
+        @EnumSource(ResampleType.class)
+        @DisplayName("Streaming onTick should produce the same bars as the batch API")
+        void streamingMatchesBatch(ResampleType type) {
+            List<Bar> streamed = new ArrayList<>();
+            Resampler resampler = new Resampler(type, threshold(type), streamed::add);
+            for (Tick tick : sampleTicks) {
+                resampler.onTick(tick.timestamp(), tick.price(), tick.volume());
+            }
+            resampler.flush();
+
+            assertEquals(new Resampler(type, threshold(type)).resample(sampleTicks), streamed);
+        }
+
+        @Test
+        @DisplayName("A bar should be emitted as soon as its threshold is crossed")
+        void barIsEmittedOnClose() {
+            List<Bar> streamed = new ArrayList<>();
+            Resampler resampler = new Resampler(ResampleType.VOLUME, 50, streamed::add);
+
+            resampler.onTick(1000L, 100.0, 10);
+            resampler.onTick(2000L, 101.5, 5);
+            resampler.onTick(8000L, 99.5, 20);
+            assertTrue(streamed.isEmpty());
+
+            resampler.onTick(10000L, 102.0, 15);
+            assertEquals(1, streamed.size());
+            assertEquals(50, streamed.getFirst().totalVolume());
+
+            resampler.flush();
+            resampler.flush();
+            assertEquals(1, streamed.size());
+        }
+
+        @Test
+        @DisplayName("A single-tick threshold should produce one bar per tick")
+        void singleTickBars() {
+            List<Bar> bars = new Resampler(ResampleType.TICK, 1).resample(sampleTicks);
+            assertEquals(sampleTicks.size(), bars.size());
+        }
+
+        @Test
+        @DisplayName("Ticks that do not close a bar should not allocate")
+        void onTickDoesNotAllocate() {
+            com.sun.management.ThreadMXBean threads =
+                    (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+            long threadId = Thread.currentThread().threadId();
+            Resampler resampler = new Resampler(ResampleType.VOLUME, Long.MAX_VALUE, bar -> { });
+
+            // Warm up so that the measurement does not include class loading or JIT side effects
+            for (int i = 0; i < 100_000; i++) {
+                resampler.onTick(i, 100.0 + (i & 7) * 0.25, 1);
+            }
+            threads.getThreadAllocatedBytes(threadId);
+
+            long before = threads.getThreadAllocatedBytes(threadId);
+            for (int i = 0; i < 1_000_000; i++) {
+                resampler.onTick(i, 100.0 + (i & 7) * 0.25, 1);
+            }
+            long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+            assertTrue(allocated < 1024, "Streaming resampler allocated " + allocated + " bytes");
+        }
+    }
+
+    @Nested
+    @DisplayName("Fixed-Point Tests")
+    class FixedPointTests {
+
+        private static final PriceScale QUARTERS = PriceScale.ofIncrement(0.25);
+
+        private static final List<Tick> TICKS = List.of(
+                new Tick(1000L, 100.0, 10, Side.ASK),
+                new Tick(2000L, 101.5, 5, Side.BID),
+                new Tick(8000L, 99.5, 20, Side.ASK),
+                new Tick(10000L, 102.0, 15, Side.UNKNOWN),
+                new Tick(11000L, 102.5, 8, Side.BID),
+                new Tick(14000L, 101.0, 30, Side.ASK),
+                new Tick(19000L, 103.0, 10, Side.BID),
+                new Tick(22000L, 102.75, 40, Side.ASK)
+        );
+
+        @ParameterizedTest
+        @EnumSource(ResampleType.class)
+        @DisplayName("Fixed-point bars should match floating-point bars when the sums are exact")
+        void matchesFloatingPoint(ResampleType type) {
+            List<Bar> expected = Resampler.builder(type, threshold(type)).priceScale(QUARTERS).build().resample(TICKS);
+
+            Resampler fixedPoint = Resampler.builder(type, threshold(type)).fixedPoint(QUARTERS).build();
+            assertEquals(expected, fixedPoint.resample(TICKS));
+            assertEquals(expected, fixedPoint.resampleBuffer(TickBuffer.of(TICKS)));
+        }
+
+        @Test
+        @DisplayName("Price ticks should stream into the same bars as the prices they stand for")
+        void streamsPriceTicks() {
+            List<Bar> bars = new ArrayList<>();
+            Resampler resampler = Resampler.builder(ResampleType.VOLUME, 30).fixedPoint(QUARTERS).onBar(bars::add).build();
+            for (Tick tick : TICKS) {
+                resampler.onPriceTicks(tick.timestamp(), QUARTERS.toTicks(tick.price()), tick.volume(), tick.side().code());
+            }
+            resampler.flush();
+
+            assertEquals(Resampler.builder(ResampleType.VOLUME, 30).priceScale(QUARTERS).build().resample(TICKS), bars);
+        }
+
+        @Test
+        @DisplayName("DOLLAR bars should close on the exact dollar value, without floating-point drift")
+        void dollarBarsDoNotDrift() {
+            List<Tick> ticks = new ArrayList<>();
+            for (int i = 0; i < 30; i++) {
+                ticks.add(new Tick(i, 0.1, 1, Side.ASK));
+            }
+            PriceScale tenths = PriceScale.ofIncrement(0.1);
+
+            // Ten ticks of 0.1 add up to 0.9999999999999999 in doubles, so the floating-point bars are one tick too long
+            List<Bar> drifting = Resampler.builder(ResampleType.DOLLAR, 1).priceScale(tenths).build().resample(ticks);
+            List<Bar> exact = Resampler.builder(ResampleType.DOLLAR, 1).fixedPoint(tenths).build().resample(ticks);
+
+            assertEquals(11, drifting.getFirst().tradeCount());
+            assertEquals(3, exact.size());
+            for (Bar bar : exact) {
+                assertEquals(10, bar.tradeCount());
+                assertEquals(1.0, bar.dollarValue());
+            }
+        }
+
+        @Test
+        @DisplayName("Prices off the grid should be rejected without changing the bar")
+        void rejectsPricesOffTheGrid() {
+            List<Bar> bars = new ArrayList<>();
+            Resampler resampler = Resampler.builder(ResampleType.TICK, 2).fixedPoint(new PriceScale(4)).onBar(bars::add).build();
+            resampler.onTick(1000L, 100.0, 1, Side.ASK.code());
+
+            assertThrows(IllegalArgumentException.class, () -> resampler.onTick(2000L, 100.1, 1, Side.ASK.code()));
+            assertEquals(1, resampler.ticksReceived());
+            assertTrue(bars.isEmpty());
+        }
+
+        @Test
+        @DisplayName("A checkpoint taken mid-bar should resume into the bars of an uninterrupted run")
+        void checkpointResumesMidBar() {
+            List<Bar> uninterrupted = new ArrayList<>();
+            Resampler reference = Resampler.builder(ResampleType.DOLLAR, 3000).fixedPoint(QUARTERS)
+                    .onBar(uninterrupted::add).build();
+            TICKS.forEach(tick -> reference.onTick(tick.timestamp(), tick.price(), tick.volume(), tick.side().code()));
+            reference.flush();
+
+            List<Bar> bars = new ArrayList<>();
+            Resampler first = Resampler.builder(ResampleType.DOLLAR, 3000).fixedPoint(QUARTERS).onBar(bars::add).build();
+            for (Tick tick : TICKS.subList(0, 4)) {
+                first.onPriceTicks(tick.timestamp(), QUARTERS.toTicks(tick.price()), tick.volume(), tick.side().code());
+            }
+            assertTrue(first.partialBar().isPresent());
+            ByteBuffer state = ByteBuffer.allocate(Resampler.STATE_BYTES);
+            first.writeState(state);
+            state.flip();
+
+            Resampler floatingPoint = Resampler.builder(ResampleType.DOLLAR, 3000).priceScale(QUARTERS).build();
+            assertThrows(IllegalArgumentException.class, () -> floatingPoint.readState(state));
+
+            Resampler restored = Resampler.builder(ResampleType.DOLLAR, 3000).fixedPoint(QUARTERS).onBar(bars::add).build();
+            restored.readState(state);
+            for (Tick tick : TICKS.subList(4, TICKS.size())) {
+                restored.onPriceTicks(tick.timestamp(), QUARTERS.toTicks(tick.price()), tick.volume(), tick.side().code());
+            }
+            restored.flush();
+
+            assertEquals(uninterrupted, bars);
+            assertEquals(3497.5, bars.getFirst().dollarValue());
+            assertEquals(5380.0, bars.get(1).dollarValue());
+        }
+    }
 }
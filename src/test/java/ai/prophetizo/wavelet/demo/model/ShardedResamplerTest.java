@@ -0,0 +1,114 @@
+package ai.prophetizo.wavelet.demo.model;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ShardedResamplerTest {
+
+    @Test
+    @DisplayName("Every symbol should get the bars of its own Resampler")
+    void matchesPerSymbolResamplers() {
+        Random random = new Random(5);
+        Map<Long, Resampler> resamplers = new HashMap<>();
+        Map<Long, List<Bar>> expected = new HashMap<>();
+        Map<Long, List<Bar>> actual = new ConcurrentHashMap<>();
+
+        try (ShardedResampler engine = new ShardedResampler(ResampleType.VOLUME, 50, 3,
+                (symbol, bar) -> actual.computeIfAbsent(symbol, s -> new ArrayList<>()).add(bar))) {
+            double[] prices = new double[100];
+            for (int i = 0; i < 50_000; i++) {
+                int symbol = random.nextInt(prices.length);
+                prices[symbol] += (random.nextInt(3) - 1) * 0.25;
+                int volume = 1 + random.nextInt(9);
+                byte side = (byte) (random.nextInt(3) - 1);
+                engine.onTick(symbol, i, prices[symbol], volume, side);
+                resamplers.computeIfAbsent((long) symbol, s -> {
+                    List<Bar> bars = new ArrayList<>();
+                    expected.put(s, bars);
+                    return new Resampler(ResampleType.VOLUME, 50, bars::add);
+                }).onTick(i, prices[symbol], volume, side);
+            }
+            resamplers.values().forEach(Resampler::flush);
+        }
+
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    @DisplayName("A symbol should always belong to the same shard")
+    void routesSymbolsToOneShard() {
+        try (ShardedResampler engine = new ShardedResampler(ResampleType.TICK, 10, 4, (symbol, bar) -> {
+        })) {
+            for (long symbol = -100; symbol < 100; symbol++) {
+                int shard = engine.shardOf(symbol);
+                assertTrue(shard >= 0 && shard < 4);
+                assertEquals(shard, engine.shardOf(symbol));
+            }
+            for (long symbol = 0; symbol < 1_000; symbol++) {
+                engine.onTick(symbol, 0L, 1.0, 1, Side.ASK.code());
+            }
+            engine.close();
+
+            assertEquals(1_000, Arrays.stream(engine.symbolCounts()).sum());
+        }
+    }
+
+    @Test
+    @DisplayName("A failing listener should surface when the engine is closed")
+    void surfacesListenerFailure() {
+        ShardedResampler engine = new ShardedResampler(ResampleType.TICK, 1, 2, (symbol, bar) -> {
+            throw new IllegalArgumentException("boom");
+        });
+        // Fewer ticks than a batch, so that they only reach the shards when the engine is closed
+        for (int i = 0; i < 100; i++) {
+            engine.onTick(i, i, 1.0, 1, Side.ASK.code());
+        }
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, engine::close);
+        assertInstanceOf(IllegalArgumentException.class, e.getCause());
+    }
+
+    @Test
+    @DisplayName("A shard thread that dies should fail the feed with its cause instead of blocking it")
+    void surfacesDeadShard() throws InterruptedException {
+        ShardedResampler engine = new ShardedResampler(ResampleType.TICK, 10, 1, (symbol, bar) -> {
+        });
+        Thread shardThread = Thread.getAllStackTraces().keySet().stream()
+                .filter(thread -> thread.getName().equals("resampler-shard-0"))
+                .findFirst()
+                .orElseThrow();
+        shardThread.interrupt();
+        shardThread.join();
+
+        // Once the free batches are used up, the feed thread would wait forever on the dead shard
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> {
+            for (int i = 0; i < 100 * ShardedResampler.BATCH_SIZE; i++) {
+                engine.onTick(1L, i, 1.0, 1, Side.ASK.code());
+            }
+        });
+        assertInstanceOf(InterruptedException.class, e.getCause());
+        assertThrows(IllegalStateException.class, engine::close);
+    }
+
+    @Test
+    @DisplayName("Ticks after close or invalid arguments should be rejected")
+    void rejectsInvalidUse() {
+        assertThrows(IllegalArgumentException.class, () -> new ShardedResampler(ResampleType.TICK, 0, 2, null));
+        assertThrows(IllegalArgumentException.class, () -> new ShardedResampler(ResampleType.TICK, 10, 0, null));
+
+        ShardedResampler engine = new ShardedResampler(ResampleType.TICK, 10, 1, (symbol, bar) -> {
+        });
+        engine.close();
+        assertThrows(IllegalStateException.class, () -> engine.onTick(1L, 1L, 1.0, 1, Side.ASK.code()));
+    }
+}
@@ -0,0 +1,36 @@
+package ai.prophetizo.wavelet.demo.model;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SymbolIndexTest {
+
+    @Test
+    @DisplayName("Symbols should get dense slots in order of first appearance")
+    void assignsDenseSlots() {
+        SymbolIndex index = new SymbolIndex(4);
+
+        assertEquals(0, index.getOrAdd(42L));
+        assertEquals(1, index.getOrAdd(0L));
+        assertEquals(2, index.getOrAdd(-7L));
+        assertEquals(0, index.getOrAdd(42L));
+        assertEquals(3, index.size());
+        assertEquals(2, index.get(-7L));
+        assertEquals(-1, index.get(43L));
+    }
+
+    @Test
+    @DisplayName("Slots should survive growing the table")
+    void keepsSlotsWhenGrowing() {
+        SymbolIndex index = new SymbolIndex(1);
+        for (int i = 0; i < 10_000; i++) {
+            assertEquals(i, index.getOrAdd(i * 1_000_003L));
+        }
+        for (int i = 0; i < 10_000; i++) {
+            assertEquals(i, index.get(i * 1_000_003L));
+        }
+        assertEquals(10_000, index.size());
+    }
+}
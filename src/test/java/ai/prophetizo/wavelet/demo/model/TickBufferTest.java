@@ -0,0 +1,101 @@
+package ai.prophetizo.wavelet.demo.model;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TickBufferTest {
+
+    @Test
+    @DisplayName("A growable buffer should keep all appended ticks in order")
+    void growableBufferGrows() {
+        TickBuffer buffer = TickBuffer.growable(2);
+        for (int i = 0; i < 5000; i++) {
+            buffer.add(i, 100.0 + i, i % 7, (i & 1) == 0 ? Side.ASK.code() : Side.BID.code());
+        }
+
+        assertEquals(5000, buffer.size());
+        assertTrue(buffer.capacity() >= 5000);
+        assertEquals(4999L, buffer.timestamp(4999));
+        assertEquals(5099.0, buffer.price(4999));
+        assertEquals(4999 % 7, buffer.volume(4999));
+        assertEquals(Side.BID.code(), buffer.side(4999));
+    }
+
+    @Test
+    @DisplayName("A fixed buffer should reject ticks beyond its capacity")
+    void fixedBufferRejectsOverflow() {
+        TickBuffer buffer = TickBuffer.fixed(2);
+        buffer.add(1L, 1.0, 1, Side.ASK.code());
+        buffer.add(2L, 2.0, 1, Side.ASK.code());
+
+        assertThrows(IllegalStateException.class, () -> buffer.add(3L, 3.0, 1, Side.ASK.code()));
+        assertEquals(2, buffer.capacity());
+
+        buffer.clear();
+        assertEquals(0, buffer.size());
+        buffer.add(3L, 3.0, 1, Side.ASK.code());
+        assertEquals(new Tick(3L, 3.0, 1, Side.ASK), buffer.get(0));
+    }
+
+    @Test
+    @DisplayName("Accessors should reject indexes beyond the current size")
+    void rejectsOutOfRangeIndex() {
+        TickBuffer buffer = TickBuffer.growable();
+        buffer.add(1L, 1.0, 1, Side.ASK.code());
+
+        assertThrows(IndexOutOfBoundsException.class, () -> buffer.price(1));
+        assertThrows(IndexOutOfBoundsException.class, () -> buffer.timestamp(-1));
+    }
+
+    @Test
+    @DisplayName("Resampling a buffer should match resampling the equivalent list")
+    void resampleBufferMatchesList() {
+        List<Tick> ticks = List.of(
+                new Tick(1000L, 100.0, 10),
+                new Tick(2000L, 101.5, 5),
+                new Tick(8000L, 99.5, 20),
+                new Tick(10000L, 102.0, 15),
+                new Tick(11000L, 102.5, 8),
+                new Tick(14000L, 101.0, 30),
+                new Tick(19000L, 103.0, 10),
+                new Tick(22000L, 102.8, 40)
+        );
+        TickBuffer buffer = TickBuffer.of(ticks);
+
+        for (ResampleType type : ResampleType.values()) {
+            Resampler resampler = new Resampler(type, type == ResampleType.TIME ? 10000 : 50);
+            assertEquals(resampler.resample(ticks), resampler.resampleBuffer(buffer), type.name());
+        }
+        // A range keeps the buffer's tick indexes, so only they differ from resampling the sub-list
+        Resampler resampler = new Resampler(ResampleType.TICK, 3);
+        List<Bar> expected = resampler.resample(ticks.subList(2, 7));
+        List<Bar> range = resampler.resampleBuffer(buffer, 2, 7);
+        assertEquals(expected.size(), range.size());
+        for (int i = 0; i < expected.size(); i++) {
+            Bar bar = expected.get(i);
+            assertEquals(new Bar(bar.openTimestamp(), bar.open(), bar.high(), bar.low(), bar.close(), bar.totalVolume(),
+                    bar.closeTimestamp(), bar.tradeCount(), bar.buyVolume(), bar.sellVolume(), bar.dollarValue(),
+                    bar.firstTickIndex() + 2, bar.lastTickIndex() + 2), range.get(i));
+        }
+    }
+
+    @Test
+    @DisplayName("addAll should append another buffer and respect a fixed capacity")
+    void addAllAppendsBuffer() {
+        TickBuffer first = TickBuffer.growable(1);
+        first.add(1L, 1.0, 1, Side.ASK.code());
+        TickBuffer second = TickBuffer.fixed(3);
+        second.add(2L, 2.0, 2, Side.BID.code());
+        second.add(3L, 3.0, 3, Side.ASK.code());
+
+        first.addAll(second);
+
+        assertEquals(3, first.size());
+        assertEquals(new Tick(3L, 3.0, 3, Side.ASK), first.get(2));
+        assertThrows(IllegalStateException.class, () -> second.addAll(first));
+    }
+}
@@ -0,0 +1,89 @@
+package ai.prophetizo.wavelet.demo.model;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TickRingTest {
+
+    @Test
+    @DisplayName("A full ring should reject offers until the consumer drains it")
+    void rejectsOffersWhenFull() {
+        TickRing ring = new TickRing(4, WaitStrategy.YIELD);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(ring.offer(i, 100.0 + i, 1, Side.ASK.code()));
+        }
+        assertFalse(ring.offer(4L, 104.0, 1, Side.ASK.code()));
+        assertEquals(4, ring.size());
+
+        TickBuffer drained = TickBuffer.growable();
+        assertEquals(3, ring.drain(drained, 3));
+        assertTrue(ring.offer(4L, 104.0, 1, Side.BID.code()));
+        assertEquals(2, ring.drain(drained, 10));
+        assertEquals(0, ring.drain(drained, 10));
+
+        assertEquals(5, drained.size());
+        for (int i = 0; i < 5; i++) {
+            assertEquals(i, drained.timestamps()[i]);
+            assertEquals(100.0 + i, drained.prices()[i]);
+        }
+        assertEquals(Side.BID.code(), drained.sides()[4]);
+    }
+
+    @Test
+    @DisplayName("A closed ring should hand out its remaining ticks before reporting the end")
+    void reportsEndAfterRemainingTicks() {
+        TickRing ring = new TickRing(8, WaitStrategy.PARK);
+        ring.onTick(1L, 100.0, 1, Side.ASK.code());
+        ring.close();
+
+        assertThrows(IllegalStateException.class, () -> ring.offer(2L, 100.0, 1, Side.ASK.code()));
+        assertEquals(1, ring.take(TickBuffer.growable(), 10));
+        assertEquals(-1, ring.take(TickBuffer.growable(), 10));
+    }
+
+    @Test
+    @DisplayName("The capacity should be a power of two")
+    void rejectsInvalidCapacity() {
+        assertThrows(IllegalArgumentException.class, () -> new TickRing(0, WaitStrategy.YIELD));
+        assertThrows(IllegalArgumentException.class, () -> new TickRing(1000, WaitStrategy.YIELD));
+    }
+
+    @ParameterizedTest
+    @EnumSource(WaitStrategy.class)
+    @DisplayName("A Resampler draining the ring on another thread should build the bars of a batch resample")
+    void feedsResamplerAcrossThreads(WaitStrategy waitStrategy) throws InterruptedException {
+        Random random = new Random(9);
+        TickBuffer ticks = TickBuffer.fixed(50_000);
+        double price = 100.0;
+        for (int i = 0; i < 50_000; i++) {
+            price += (random.nextInt(3) - 1) * 0.25;
+            ticks.add(i, price, 1 + random.nextInt(9), (byte) (random.nextInt(3) - 1));
+        }
+
+        TickRing ring = new TickRing(256, waitStrategy);
+        List<Bar> bars = new ArrayList<>();
+        Resampler resampler = new Resampler(ResampleType.VOLUME, 100, bars::add);
+        Thread consumer = new Thread(() -> {
+            while (ring.take(resampler, 64) >= 0) {
+                // Keep draining until the producer closes the ring
+            }
+            resampler.flush();
+        });
+        consumer.start();
+        for (int i = 0; i < ticks.size(); i++) {
+            ring.onTick(ticks.timestamps()[i], ticks.prices()[i], ticks.volumes()[i], ticks.sides()[i]);
+        }
+        ring.close();
+        consumer.join();
+
+        assertEquals(new Resampler(ResampleType.VOLUME, 100).resampleBuffer(ticks), bars);
+    }
+}
@@ -0,0 +1,104 @@
+package ai.prophetizo.wavelet.demo.replay;
+
+import ai.prophetizo.wavelet.demo.io.MappedTickCsvReader;
+import ai.prophetizo.wavelet.demo.model.Bar;
+import ai.prophetizo.wavelet.demo.model.ResampleType;
+import ai.prophetizo.wavelet.demo.model.Resampler;
+import ai.prophetizo.wavelet.demo.model.Tick;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReplayRunnerTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path writeCapture(String name, int rows, long seed) throws IOException {
+        Random random = new Random(seed);
+        StringBuilder csv = new StringBuilder("timestamp,side,size,price\n");
+        long timestamp = 1734964200000L;
+        int price = 24_000;
+        for (int i = 0; i < rows; i++) {
+            timestamp += random.nextInt(100);
+            price += random.nextInt(3) - 1;
+            csv.append(timestamp).append(random.nextBoolean() ? ",ASK," : ",BID,")
+                    .append(1 + random.nextInt(5)).append(',').append(price / 4.0).append('\n');
+        }
+        Path file = tempDir.resolve(name + ".csv");
+        Files.writeString(file, csv);
+        return file;
+    }
+
+    @Test
+    @DisplayName("Every job should produce the bars of a sequential replay of its file")
+    void replaysEveryJob() throws Exception {
+        List<Path> files = new ArrayList<>();
+        List<List<Bar>> bars = new ArrayList<>();
+        List<ReplayRunner.Job> jobs = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            Path file = writeCapture("symbol-" + i, 500 + i * 10, i);
+            List<Bar> jobBars = new ArrayList<>();
+            files.add(file);
+            bars.add(jobBars);
+            jobs.add(new ReplayRunner.Job("symbol-" + i, ReplayRunner.Source.csv(file),
+                    () -> new Resampler(ResampleType.TIME, 1000, jobBars::add)));
+        }
+
+        ReplayRunner runner = new ReplayRunner(3);
+        ReplayRunner.Summary summary = runner.run(jobs);
+
+        long expectedTicks = 0;
+        for (int i = 0; i < files.size(); i++) {
+            List<Tick> ticks = MappedTickCsvReader.readTicks(files.get(i));
+            expectedTicks += ticks.size();
+            assertEquals(new Resampler(ResampleType.TIME, 1000).resample(ticks), bars.get(i));
+        }
+        assertEquals(40, summary.jobs());
+        assertEquals(expectedTicks, summary.ticks());
+        assertEquals(expectedTicks, runner.ticksReplayed());
+        assertEquals(40, runner.jobsCompleted());
+        assertTrue(summary.ticksPerSecond() > 0);
+    }
+
+    @Test
+    @DisplayName("A job that cannot read its file should fail the run with its name")
+    void failsOnUnreadableFile() throws Exception {
+        Path file = writeCapture("good", 100, 1);
+        List<ReplayRunner.Job> jobs = List.of(
+                new ReplayRunner.Job("good", ReplayRunner.Source.csv(file), () -> new Resampler(ResampleType.TICK, 10)),
+                new ReplayRunner.Job("missing", ReplayRunner.Source.csv(tempDir.resolve("missing.csv")),
+                        () -> new Resampler(ResampleType.TICK, 10)));
+
+        IOException e = assertThrows(IOException.class, () -> new ReplayRunner().run(jobs));
+        assertTrue(e.getMessage().contains("missing"));
+    }
+
+    @Test
+    @DisplayName("A failing pipeline should fail the run")
+    void failsOnPipelineError() throws Exception {
+        Path file = writeCapture("bad", 100, 2);
+        List<ReplayRunner.Job> jobs = List.of(new ReplayRunner.Job("bad", ReplayRunner.Source.csv(file),
+                () -> new Resampler(ResampleType.TICK, 10, bar -> {
+                    throw new ArithmeticException("boom");
+                })));
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> new ReplayRunner().run(jobs));
+        assertInstanceOf(ArithmeticException.class, e.getCause());
+    }
+
+    @Test
+    @DisplayName("The maximum number of concurrent replays should be positive")
+    void rejectsInvalidConcurrency() {
+        assertThrows(IllegalArgumentException.class, () -> new ReplayRunner(0));
+    }
+}
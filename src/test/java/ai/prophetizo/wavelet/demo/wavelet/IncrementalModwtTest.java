@@ -0,0 +1,120 @@
+package ai.prophetizo.wavelet.demo.wavelet;
+
+import ai.prophetizo.wavelet.demo.model.ResampleType;
+import ai.prophetizo.wavelet.demo.model.Resampler;
+import jwave.transforms.wavelets.Wavelet;
+import jwave.transforms.wavelets.daubechies.Daubechies4;
+import jwave.transforms.wavelets.haar.Haar1;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IncrementalModwtTest {
+
+    /**
+     * A batch circular MODWT over a whole series, using the same JWave filters.
+     *
+     * @return W[1..J] in rows 0..J-1 and V[J] in row J.
+     */
+    private static double[][] batchModwt(Wavelet wavelet, double[] series, int levels) {
+        int n = series.length;
+        double[] scaling = wavelet.getScalingDeComposition();
+        double[] wavelets = wavelet.getWaveletDeComposition();
+        double[][] coefficients = new double[levels + 1][];
+        double[] v = series.clone();
+        for (int j = 1; j <= levels; j++) {
+            double[] w = new double[n];
+            double[] next = new double[n];
+            int stride = 1 << (j - 1);
+            for (int t = 0; t < n; t++) {
+                for (int l = 0; l < scaling.length; l++) {
+                    int k = Math.floorMod(t - stride * l, n);
+                    w[t] += wavelets[l] / Math.sqrt(2.0) * v[k];
+                    next[t] += scaling[l] / Math.sqrt(2.0) * v[k];
+                }
+            }
+            coefficients[j - 1] = w;
+            v = next;
+        }
+        coefficients[levels] = v;
+        return coefficients;
+    }
+
+    private static double[] randomWalk(int length, long seed) {
+        Random random = new Random(seed);
+        double[] series = new double[length];
+        double price = 6000.0;
+        for (int i = 0; i < length; i++) {
+            price += random.nextGaussian() * 0.25;
+            series[i] = price;
+        }
+        return series;
+    }
+
+    @Test
+    @DisplayName("Incremental coefficients should match a batch MODWT once warmed up")
+    void matchesBatchTransform() {
+        int levels = 4;
+        for (Wavelet wavelet : new Wavelet[]{new Haar1(), new Daubechies4()}) {
+            double[] series = randomWalk(512, 1);
+            double[][] batch = batchModwt(wavelet, series, levels);
+            double[][] incremental = new double[levels + 1][series.length];
+            IncrementalModwt modwt = new IncrementalModwt(wavelet, levels, null);
+
+            for (int t = 0; t < series.length; t++) {
+                modwt.onValue(t, series[t]);
+                for (int j = 1; j <= levels; j++) {
+                    incremental[j - 1][t] = modwt.detail(j);
+                }
+                incremental[levels][t] = modwt.smooth();
+            }
+
+            for (int t = (int) modwt.warmUpLength() - 1; t < series.length; t++) {
+                for (int row = 0; row <= levels; row++) {
+                    assertEquals(batch[row][t], incremental[row][t], 1e-9, "row " + row + " t " + t);
+                }
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("The batch MODWT built from JWave filters should preserve energy")
+    void batchTransformPreservesEnergy() {
+        double[] series = randomWalk(256, 2);
+        double[][] batch = batchModwt(new Daubechies4(), series, 3);
+
+        double signalEnergy = 0.0;
+        for (double value : series) {
+            signalEnergy += value * value;
+        }
+        double coefficientEnergy = 0.0;
+        for (double[] row : batch) {
+            for (double value : row) {
+                coefficientEnergy += value * value;
+            }
+        }
+        assertEquals(signalEnergy, coefficientEnergy, signalEnergy * 1e-12);
+    }
+
+    @Test
+    @DisplayName("The transform should plug into the Resampler output path")
+    void plugsIntoResampler() {
+        int[] updates = new int[1];
+        IncrementalModwt modwt = new IncrementalModwt(new Haar1(), 2, (timestamp, details, smooth) -> {
+            assertEquals(2, details.length);
+            updates[0]++;
+        });
+        Resampler resampler = new Resampler(ResampleType.TICK, 2, modwt);
+
+        for (int i = 0; i < 10; i++) {
+            resampler.onTick(i, 100.0 + i, 1);
+        }
+
+        assertEquals(5, updates[0]);
+        assertEquals(5, modwt.count());
+        assertEquals(4, modwt.warmUpLength());
+    }
+}
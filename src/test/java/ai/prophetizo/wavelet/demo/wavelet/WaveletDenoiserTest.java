@@ -0,0 +1,142 @@
+package ai.prophetizo.wavelet.demo.wavelet;
+
+import ai.prophetizo.wavelet.demo.model.ResampleType;
+import ai.prophetizo.wavelet.demo.model.Resampler;
+import jwave.Transform;
+import jwave.transforms.FastWaveletTransform;
+import jwave.transforms.wavelets.Wavelet;
+import jwave.transforms.wavelets.daubechies.Daubechies4;
+import jwave.transforms.wavelets.haar.Haar1;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WaveletDenoiserTest {
+
+    private static double[] randomSignal(int length, long seed) {
+        Random random = new Random(seed);
+        double[] signal = new double[length];
+        for (int i = 0; i < length; i++) {
+            signal[i] = 6000.0 + random.nextGaussian();
+        }
+        return signal;
+    }
+
+    @Test
+    @DisplayName("A full decomposition should match JWave's FastWaveletTransform")
+    void matchesJWave() {
+        for (Wavelet wavelet : new Wavelet[]{new Haar1(), new Daubechies4()}) {
+            double[] signal = randomSignal(256, 1);
+            Transform transform = new Transform(new FastWaveletTransform(wavelet));
+            PeriodicDwt dwt = new PeriodicDwt(wavelet, 256);
+
+            double[] coefficients = signal.clone();
+            dwt.forward(coefficients, dwt.maxLevels());
+            assertArrayEquals(transform.forward(signal), coefficients, 1e-9);
+
+            dwt.inverse(coefficients, dwt.maxLevels());
+            assertArrayEquals(transform.reverse(transform.forward(signal)), coefficients, 1e-9);
+        }
+    }
+
+    @Test
+    @DisplayName("A partial decomposition should reconstruct the signal")
+    void partialRoundTrip() {
+        double[] signal = randomSignal(64, 2);
+        PeriodicDwt dwt = new PeriodicDwt(new Daubechies4(), 64);
+
+        double[] coefficients = signal.clone();
+        dwt.forward(coefficients, 3);
+        dwt.inverse(coefficients, 3);
+
+        assertArrayEquals(signal, coefficients, 1e-9);
+        assertThrows(IllegalArgumentException.class, () -> dwt.forward(coefficients, 7));
+        assertThrows(IllegalArgumentException.class, () -> new PeriodicDwt(new Haar1(), 48));
+    }
+
+    @Test
+    @DisplayName("Denoising should bring a noisy series closer to the clean one")
+    void reducesNoise() {
+        int windowSize = 256;
+        Random random = new Random(3);
+        double[] clean = new double[windowSize];
+        double[] last = new double[windowSize];
+        WaveletDenoiser denoiser = new WaveletDenoiser(new Daubechies4(), windowSize, 5,
+                (timestamp, denoised) -> System.arraycopy(denoised, 0, last, 0, windowSize));
+
+        double noisyError = 0.0;
+        for (int i = 0; i < windowSize; i++) {
+            clean[i] = 6000.0 + 10.0 * Math.sin(2 * Math.PI * i / 128.0);
+            double noisy = clean[i] + random.nextGaussian();
+            noisyError += (noisy - clean[i]) * (noisy - clean[i]);
+            denoiser.onClose(i, noisy);
+        }
+
+        double denoisedError = 0.0;
+        for (int i = 0; i < windowSize; i++) {
+            denoisedError += (last[i] - clean[i]) * (last[i] - clean[i]);
+        }
+        assertTrue(denoisedError < noisyError / 2, "denoised " + denoisedError + " vs noisy " + noisyError);
+    }
+
+    @Test
+    @DisplayName("The listener should be called once per bar once the window is full")
+    void plugsIntoResampler() {
+        int[] windows = new int[1];
+        WaveletDenoiser denoiser = new WaveletDenoiser(new Haar1(), 4, (timestamp, denoised) -> windows[0]++);
+        Resampler resampler = new Resampler(ResampleType.TICK, 1, denoiser);
+
+        for (int i = 0; i < 10; i++) {
+            resampler.onTick(i, 100.0 + i, 1);
+        }
+
+        assertEquals(10, denoiser.count());
+        assertEquals(7, windows[0]);
+    }
+
+    @Test
+    @DisplayName("Denoising a window should not allocate")
+    void doesNotAllocate() {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().threadId();
+        double[] sink = new double[1];
+        WaveletDenoiser denoiser = new WaveletDenoiser(new Daubechies4(), 128, (timestamp, denoised) -> sink[0] += denoised[127]);
+        double[] closes = randomSignal(1024, 4);
+
+        for (int i = 0; i < 20_000; i++) {
+            denoiser.onClose(i, closes[i & 1023]);
+        }
+        threads.getThreadAllocatedBytes(threadId);
+
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < 20_000; i++) {
+            denoiser.onClose(i, closes[i & 1023]);
+        }
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+        assertTrue(allocated < 1024, "Denoiser allocated " + allocated + " bytes");
+    }
+
+    @Test
+    @DisplayName("The in-place median should match a sorted median")
+    void median() {
+        Random random = new Random(5);
+        for (int size = 1; size < 40; size++) {
+            double[] values = new double[size];
+            for (int i = 0; i < size; i++) {
+                values[i] = random.nextInt(10);
+            }
+            double[] sorted = values.clone();
+            Arrays.sort(sorted);
+            double expected = (size & 1) == 1 ? sorted[size / 2] : (sorted[size / 2 - 1] + sorted[size / 2]) / 2;
+
+            assertEquals(expected, WaveletDenoiser.median(values, size));
+        }
+    }
+}